@@ -0,0 +1,88 @@
+package com.github.jsonldjava.benchmarks;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.github.jsonldjava.utils.CorpusGenerator;
+
+/**
+ * The synthetic documents the benchmarks run over, made by a
+ * {@link CorpusGenerator} with a fixed seed, so the same corpus is the same
+ * document on every run.
+ */
+public enum Corpus {
+
+    /**
+     * A handful of node objects, to show the fixed cost of each operation.
+     */
+    SMALL(100, 2, 3, 0.1, 0, 0, 0),
+
+    /**
+     * Ten thousand triples with a mix of IRIs and blank nodes.
+     */
+    MEDIUM(10000, 2, 3, 0.1, 0, 0, 0),
+
+    /**
+     * A hundred thousand triples across a few named graphs.
+     */
+    LARGE(100000, 2, 3, 0.1, 4, 0, 0),
+
+    /**
+     * Chains of node objects, each embedded in the previous one, without
+     * links between them.
+     */
+    DEEP_NESTING(10000, 0, 0, 0.0, 0, 0, 100),
+
+    /**
+     * Ten thousand triples where every top-level node is a blank node.
+     */
+    MANY_BNODES(10000, 2, 3, 1.0, 0, 0, 0),
+
+    /**
+     * A thousand triples that use terms from a context with thousands of term
+     * definitions.
+     */
+    LARGE_CONTEXT(1000, 2, 3, 0.1, 0, 5000, 0);
+
+    private static final long SEED = 20160518L;
+
+    private final CorpusGenerator generator;
+
+    private Corpus(long triples, int fanOut, int listLength, double blankNodeDensity,
+            int namedGraphs, int contextSize, int nestingDepth) {
+        generator = new CorpusGenerator(SEED + ordinal());
+        generator.setTriples(triples);
+        generator.setFanOut(fanOut);
+        generator.setListLength(listLength);
+        generator.setBlankNodeDensity(blankNodeDensity);
+        generator.setNamedGraphs(namedGraphs);
+        generator.setContextSize(contextSize);
+        generator.setNestingDepth(nestingDepth);
+    }
+
+    /**
+     * @return The context the document uses, which is also the context
+     *         compaction benchmarks compact to.
+     */
+    public Map<String, Object> context() {
+        return generator.getContext();
+    }
+
+    /**
+     * @return A frame that matches every node object of the document.
+     */
+    public Map<String, Object> frame() {
+        final Map<String, Object> frame = new LinkedHashMap<String, Object>();
+        frame.put("@context", context());
+        frame.put("@type", CorpusGenerator.THING);
+        return frame;
+    }
+
+    /**
+     * @return A new copy of the document, in compacted form.
+     */
+    public Object document() throws IOException {
+        return generator.generateJsonLd();
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.jsonldjava.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jsonldjava.core.JsonLdConsts;
+import com.github.jsonldjava.core.JsonLdUtils;
+
+/**
+ * Measures comparing JSON-LD values structurally, as done for every value
+ * merged into a short list of values: node references and value objects
+ * looked up in lists that do not hold them, and two arrays holding the same
+ * values in another order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeepCompareBenchmark {
+
+    private final List<Object> references = new ArrayList<Object>();
+    private final List<Object> values = new ArrayList<Object>();
+    private final List<Object> array = new ArrayList<Object>();
+    private final List<Object> shuffled = new ArrayList<Object>();
+    private Map<String, Object> reference;
+    private Map<String, Object> value;
+
+    private static Map<String, Object> value(String value, String language) {
+        final Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put(JsonLdConsts.VALUE, value);
+        map.put(JsonLdConsts.LANGUAGE, language);
+        return map;
+    }
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < 7; i++) {
+            references.add(Collections.<String, Object> singletonMap(JsonLdConsts.ID,
+                    "http://example.org/node/" + i));
+            values.add(value("label " + i, "en"));
+        }
+        reference = new LinkedHashMap<String, Object>();
+        reference.put(JsonLdConsts.ID, "http://example.org/node/7");
+        value = value("label 0", "fr");
+        for (int i = 0; i < 30; i++) {
+            array.add(Collections.<String, Object> singletonMap(JsonLdConsts.ID,
+                    "http://example.org/node/" + i));
+        }
+        shuffled.addAll(array);
+        Collections.reverse(shuffled);
+    }
+
+    @Benchmark
+    public boolean referenceNotContained() {
+        return JsonLdUtils.deepContains(references, reference);
+    }
+
+    @Benchmark
+    public boolean valueNotContained() {
+        return JsonLdUtils.deepContains(values, value);
+    }
+
+    @Benchmark
+    public boolean arraysInAnotherOrder() {
+        return JsonLdUtils.deepCompare(array, shuffled);
+    }
+}
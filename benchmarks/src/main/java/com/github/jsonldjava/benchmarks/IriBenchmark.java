@@ -0,0 +1,71 @@
+package com.github.jsonldjava.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.jsonldjava.utils.JsonLdUrl;
+
+/**
+ * Measures resolving relative IRIs against a base, and making IRIs relative to
+ * it again, as expansion and compaction do for every {@code @id}, against the
+ * implementation in {@link LegacyIri}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IriBenchmark {
+
+    private static final String BASE = "http://example.org/data/people/index.jsonld";
+
+    private static final String[] REFERENCES = { "alice", "#me", "people/bob",
+            "../places/paris", "./carol#me", "/vocab#name", "?page=2", "//example.com/dave",
+            "http://example.com/erin", "../../root/./frank/../grace" };
+
+    private static final String[] IRIS = { "http://example.org/data/people/alice",
+            "http://example.org/data/people/index.jsonld#me",
+            "http://example.org/data/people/people/bob", "http://example.org/data/places/paris",
+            "http://example.org/data/people/carol#me", "http://example.org/vocab#name",
+            "http://example.org/data/people/index.jsonld?page=2", "http://example.com/dave",
+            "http://example.org/", "http://example.org/data/people/a/b/c/d" };
+
+    @Benchmark
+    public void resolve(Blackhole blackhole) {
+        for (final String reference : REFERENCES) {
+            blackhole.consume(JsonLdUrl.resolve(BASE, reference));
+        }
+    }
+
+    @Benchmark
+    public void resolveLegacy(Blackhole blackhole) {
+        for (final String reference : REFERENCES) {
+            blackhole.consume(LegacyIri.resolve(BASE, reference));
+        }
+    }
+
+    @Benchmark
+    public void removeBase(Blackhole blackhole) {
+        for (final String iri : IRIS) {
+            blackhole.consume(JsonLdUrl.removeBase(BASE, iri));
+        }
+    }
+
+    @Benchmark
+    public void removeBaseLegacy(Blackhole blackhole) {
+        for (final String iri : IRIS) {
+            blackhole.consume(LegacyIri.removeBase(BASE, iri));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.jsonldjava.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jsonldjava.core.JsonLdConsts;
+import com.github.jsonldjava.core.JsonLdError;
+import com.github.jsonldjava.core.JsonLdOptions;
+import com.github.jsonldjava.core.JsonLdProcessor;
+
+/**
+ * Measures each {@link JsonLdProcessor} operation over each {@link Corpus}.
+ *
+ * Throughput and sample time are both reported, the latter giving latency
+ * percentiles. Run with <code>-prof gc</code> to add allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonLdProcessorBenchmark {
+
+    private static final String BASE = "http://example.org/base/";
+
+    @Param
+    public Corpus corpus;
+
+    /**
+     * Whether keys are processed in order; run with
+     * <code>-p ordered=true,false</code> to compare.
+     */
+    @Param({ "true" })
+    public boolean ordered;
+
+    private Object document;
+    private Map<String, Object> context;
+    private Map<String, Object> frame;
+    private List<Object> expanded;
+    private String nquads;
+
+    @Setup
+    public void setUp() throws IOException, JsonLdError {
+        document = corpus.document();
+        context = corpus.context();
+        frame = corpus.frame();
+        expanded = JsonLdProcessor.expand(document, options());
+        nquads = (String) JsonLdProcessor.toRDF(document, nquadsOptions());
+    }
+
+    private JsonLdOptions options() {
+        final JsonLdOptions options = new JsonLdOptions(BASE);
+        options.setOrdered(ordered);
+        return options;
+    }
+
+    private JsonLdOptions nquadsOptions() {
+        final JsonLdOptions options = options();
+        options.format = JsonLdConsts.APPLICATION_NQUADS;
+        return options;
+    }
+
+    @Benchmark
+    public Object expand() throws JsonLdError {
+        return JsonLdProcessor.expand(document, options());
+    }
+
+    @Benchmark
+    public Object compact() throws JsonLdError {
+        return JsonLdProcessor.compact(expanded, context, options());
+    }
+
+    @Benchmark
+    public Object flatten() throws JsonLdError {
+        return JsonLdProcessor.flatten(document, context, options());
+    }
+
+    @Benchmark
+    public Object frame() throws JsonLdError {
+        return JsonLdProcessor.frame(document, frame, options());
+    }
+
+    @Benchmark
+    public Object toRDF() throws JsonLdError {
+        return JsonLdProcessor.toRDF(document, options());
+    }
+
+    @Benchmark
+    public Object fromRDF() throws JsonLdError {
+        return JsonLdProcessor.fromRDF(nquads, nquadsOptions());
+    }
+
+    @Benchmark
+    public Object normalize() throws JsonLdError {
+        return JsonLdProcessor.normalize(document, nquadsOptions());
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.jsonldjava.benchmarks;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.jsonldjava.utils.JsonLdUrl;
+
+/**
+ * The IRI resolution and relativization that {@link JsonLdUrl} used before it
+ * parsed IRIs by hand, kept to compare against. It goes through
+ * {@link URI} to resolve, and through the regular expression of
+ * {@link JsonLdUrl#parse(String)} and lists of segments to relativize.
+ */
+final class LegacyIri {
+
+    private LegacyIri() {
+    }
+
+    static String resolve(String baseUri, String pathToResolve) {
+        if (baseUri == null) {
+            return pathToResolve;
+        }
+        if (pathToResolve == null || "".equals(pathToResolve.trim())) {
+            return baseUri;
+        }
+        try {
+            URI uri = new URI(baseUri);
+            if (pathToResolve.startsWith("?")) {
+                if (uri.getFragment() != null) {
+                    uri = new URI(uri.getScheme(), uri.getAuthority(), uri.getPath(), null, null);
+                }
+                return uri.toString() + pathToResolve;
+            }
+
+            uri = uri.resolve(pathToResolve);
+            String path = uri.getPath();
+            if (path != null) {
+                path = removeDotSegments(uri.getPath(), true);
+            }
+            return new URI(uri.getScheme(), uri.getAuthority(), path, uri.getQuery(),
+                    uri.getFragment()).toString();
+        } catch (final URISyntaxException e) {
+            return null;
+        }
+    }
+
+    static String removeDotSegments(String path, boolean hasAuthority) {
+        String rval = "";
+
+        if (path.indexOf("/") == 0) {
+            rval = "/";
+        }
+
+        final List<String> input = new ArrayList<String>(Arrays.asList(path.split("/")));
+        if (path.endsWith("/")) {
+            input.add("");
+        }
+        final List<String> output = new ArrayList<String>();
+        for (int i = 0; i < input.size(); i++) {
+            if (".".equals(input.get(i)) || ("".equals(input.get(i)) && input.size() - i > 1)) {
+                continue;
+            }
+            if ("..".equals(input.get(i))) {
+                if (hasAuthority
+                        || (output.size() > 0 && !"..".equals(output.get(output.size() - 1)))) {
+                    if (output.size() > 0) {
+                        output.remove(output.size() - 1);
+                    }
+                } else {
+                    output.add("..");
+                }
+                continue;
+            }
+            output.add(input.get(i));
+        }
+
+        if (output.size() > 0) {
+            rval += output.get(0);
+            for (int i = 1; i < output.size(); i++) {
+                rval += "/" + output.get(i);
+            }
+        }
+        return rval;
+    }
+
+    static String removeBase(String baseobj, String iri) {
+        final JsonLdUrl base = JsonLdUrl.parse(baseobj);
+
+        String root = "";
+        if (!"".equals(base.href)) {
+            root += (base.protocol) + "//" + base.authority;
+        } else if (iri.indexOf("//") != 0) {
+            root += "//";
+        }
+
+        if (iri.indexOf(root) != 0) {
+            return iri;
+        }
+
+        final JsonLdUrl rel = JsonLdUrl.parse(iri.substring(root.length()));
+
+        final List<String> baseSegments = new ArrayList<String>(Arrays.asList(base.normalizedPath
+                .split("/")));
+        if (base.normalizedPath.endsWith("/")) {
+            baseSegments.add("");
+        }
+        final List<String> iriSegments = new ArrayList<String>(Arrays.asList(rel.normalizedPath
+                .split("/")));
+        if (rel.normalizedPath.endsWith("/")) {
+            iriSegments.add("");
+        }
+
+        while (baseSegments.size() > 0 && iriSegments.size() > 0) {
+            if (!baseSegments.get(0).equals(iriSegments.get(0))) {
+                break;
+            }
+            baseSegments.remove(0);
+            iriSegments.remove(0);
+        }
+
+        String rval = "";
+        if (baseSegments.size() > 0) {
+            if (!base.normalizedPath.endsWith("/") || "".equals(baseSegments.get(0))) {
+                baseSegments.remove(baseSegments.size() - 1);
+            }
+            for (int i = 0; i < baseSegments.size(); ++i) {
+                rval += "../";
+            }
+        }
+
+        if (iriSegments.size() > 0) {
+            rval += iriSegments.get(0);
+        }
+        for (int i = 1; i < iriSegments.size(); i++) {
+            rval += "/" + iriSegments.get(i);
+        }
+
+        if (!"".equals(rel.query)) {
+            rval += "?" + rel.query;
+        }
+        if (!"".equals(rel.hash)) {
+            rval += rel.hash;
+        }
+
+        if ("".equals(rval)) {
+            rval = "./";
+        }
+
+        return rval;
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.jsonldjava.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jsonldjava.core.JsonLdApi;
+import com.github.jsonldjava.core.JsonLdConsts;
+import com.github.jsonldjava.core.JsonLdError;
+import com.github.jsonldjava.core.JsonLdOptions;
+import com.github.jsonldjava.core.JsonLdProcessor;
+import com.github.jsonldjava.core.RDFDataset;
+
+/**
+ * Measures RDF dataset normalization on its own, starting from a dataset
+ * that has already been converted from JSON-LD, over the corpora with the
+ * most blank nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalizeBenchmark {
+
+    @Param({ "MEDIUM", "MANY_BNODES" })
+    public Corpus corpus;
+
+    @Param({ JsonLdConsts.URGNA2012, JsonLdConsts.URDNA2015 })
+    public String algorithm;
+
+    /**
+     * The number of threads URGNA2012 hashes blank nodes on, or 0 to hash
+     * them on the benchmark thread.
+     */
+    @Param({ "0", "4" })
+    public int threads;
+
+    private RDFDataset dataset;
+    private JsonLdOptions options;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() throws IOException, JsonLdError {
+        dataset = (RDFDataset) JsonLdProcessor.toRDF(corpus.document());
+        options = new JsonLdOptions();
+        options.format = JsonLdConsts.APPLICATION_NQUADS;
+        options.setAlgorithm(algorithm);
+        if (threads > 0) {
+            executor = Executors.newFixedThreadPool(threads);
+            options.setNormalizationExecutor(executor);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Object normalize() throws JsonLdError {
+        return new JsonLdApi(options).normalize(dataset);
+    }
+}
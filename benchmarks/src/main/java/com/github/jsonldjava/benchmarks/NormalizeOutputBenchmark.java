@@ -0,0 +1,68 @@
+package com.github.jsonldjava.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jsonldjava.core.JsonLdApi;
+import com.github.jsonldjava.core.JsonLdConsts;
+import com.github.jsonldjava.core.JsonLdError;
+import com.github.jsonldjava.core.JsonLdOptions;
+import com.github.jsonldjava.core.RDFDataset;
+import com.github.jsonldjava.core.RDFDatasetUtils;
+import com.github.jsonldjava.utils.CorpusGenerator;
+
+/**
+ * Measures normalizing a large dataset into a new {@link RDFDataset}, against
+ * normalizing it to N-Quads and parsing the document, which is how the
+ * dataset used to be built.
+ *
+ * Each operation takes seconds, so each is timed on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class NormalizeOutputBenchmark {
+
+    private static final long SEED = 20160518L;
+
+    @Param({ "1000000" })
+    public long triples;
+
+    private RDFDataset dataset;
+
+    @Setup
+    public void setUp() throws IOException, JsonLdError {
+        final CorpusGenerator generator = new CorpusGenerator(SEED);
+        generator.setTriples(triples);
+        generator.setBlankNodeDensity(0.1);
+        generator.setNamedGraphs(4);
+        dataset = RDFDatasetUtils.parseNQuads(generator.generateNQuads());
+    }
+
+    @Benchmark
+    public Object dataset() throws JsonLdError {
+        return new JsonLdApi(new JsonLdOptions()).normalize(dataset);
+    }
+
+    @Benchmark
+    public Object nquadsReparsed() throws JsonLdError {
+        final JsonLdOptions options = new JsonLdOptions();
+        options.format = JsonLdConsts.APPLICATION_NQUADS;
+        return RDFDatasetUtils.parseNQuads((String) new JsonLdApi(options).normalize(dataset));
+    }
+}
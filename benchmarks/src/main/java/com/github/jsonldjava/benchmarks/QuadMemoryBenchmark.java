@@ -0,0 +1,74 @@
+package com.github.jsonldjava.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jsonldjava.core.JsonLdConsts;
+import com.github.jsonldjava.core.RDFDataset.Quad;
+
+/**
+ * Measures the memory of a quad held as a value object and in the map layout
+ * of earlier versions, as given by {@link Quad#asMap()}. Run with
+ * {@code -prof gc}: as nothing built is garbage, gc.alloc.rate.norm is the
+ * size of one quad in bytes, not counting the strings, which both share.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuadMemoryBenchmark {
+
+    private static final int QUADS = 1000;
+    private static final String EX = "http://example.org/";
+
+    private final String[] subjects = new String[QUADS];
+    private final String[] values = new String[QUADS];
+    private final Quad[] quads = new Quad[QUADS];
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < QUADS; i++) {
+            subjects[i] = i % 3 == 0 ? "_:b" + i : EX + "s" + i;
+            values[i] = Integer.toString(i);
+        }
+        quads(quads);
+    }
+
+    private void quads(Object[] output) {
+        for (int i = 0; i < QUADS; i++) {
+            output[i] = new Quad(subjects[i], JsonLdConsts.RDF_TYPE, values[i],
+                    JsonLdConsts.XSD_INTEGER, null, EX);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUADS)
+    public Object[] valueObjects() {
+        final Object[] output = new Object[QUADS];
+        quads(output);
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUADS)
+    public Object[] maps() {
+        final Object[] output = new Object[QUADS];
+        for (int i = 0; i < QUADS; i++) {
+            output[i] = quads[i].asMap();
+        }
+        return output;
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.jsonldjava.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jsonldjava.core.JsonLdConsts;
+import com.github.jsonldjava.core.JsonLdError;
+import com.github.jsonldjava.core.JsonLdOptions;
+import com.github.jsonldjava.core.JsonLdProcessor;
+
+/**
+ * Measures flattening and converting from RDF a node with many values for one
+ * property, such as a large SKOS collection, where every value merged into
+ * the node map is checked against the values already there.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WideNodeBenchmark {
+
+    private static final String MEMBER = "http://www.w3.org/2004/02/skos/core#member";
+
+    @Param({ "1000", "10000", "50000" })
+    public int values;
+
+    private Map<String, Object> document;
+    private String nquads;
+
+    @Setup
+    public void setUp() {
+        final List<Object> members = new ArrayList<Object>(values);
+        final StringBuilder nquads = new StringBuilder();
+        for (int i = 0; i < values; i++) {
+            final Map<String, Object> member = new LinkedHashMap<String, Object>();
+            member.put(JsonLdConsts.ID, "http://example.org/concept/" + i);
+            members.add(member);
+            nquads.append("<http://example.org/collection> <").append(MEMBER)
+                    .append("> <http://example.org/concept/").append(i).append("> .\n");
+        }
+        document = new LinkedHashMap<String, Object>();
+        document.put(JsonLdConsts.ID, "http://example.org/collection");
+        document.put(MEMBER, members);
+        this.nquads = nquads.toString();
+    }
+
+    @Benchmark
+    public Object flatten() throws JsonLdError {
+        return JsonLdProcessor.flatten(document, new JsonLdOptions());
+    }
+
+    @Benchmark
+    public Object fromRDF() throws JsonLdError {
+        final JsonLdOptions options = new JsonLdOptions();
+        options.format = JsonLdConsts.APPLICATION_NQUADS;
+        return JsonLdProcessor.fromRDF(nquads, options);
+    }
+}
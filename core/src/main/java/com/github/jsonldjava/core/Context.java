@@ -9,6 +9,8 @@ import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.github.jsonldjava.core.JsonLdError.Error;
 import com.github.jsonldjava.utils.JsonLdUrl;
@@ -24,8 +26,32 @@ import com.github.jsonldjava.utils.Obj;
 public class Context extends LinkedHashMap<String, Object> {
 
     private JsonLdOptions options;
-    private Map<String, Object> termDefinitions;
+    private TermDefinitions termDefinitions;
     public Map<String, Object> inverse = null;
+    /**
+     * Inverse context, prefix trie and expanded IRIs computed from the term
+     * definitions, shared by all clones of this context until they are
+     * changed, so that contexts taken from a {@link ContextCache} compute them
+     * only once.
+     */
+    private Derived derived = new Derived();
+
+    /**
+     * The most IRIs remembered for each kind of expansion. Once there are
+     * more, further IRIs are expanded each time.
+     */
+    static final int MAX_EXPANDED_IRIS = 4096;
+
+    private static final class Derived {
+        volatile Map<String, Object> inverse;
+        volatile PrefixTrie prefixTrie;
+        // vocabulary relative expansions of keys and types, which are
+        // repeated throughout a document, unlike the values of @id
+        final Map<String, String> vocabIris = new ConcurrentHashMap<String, String>();
+        final Map<String, String> relativeVocabIris = new ConcurrentHashMap<String, String>();
+        final AtomicLong expandIriHits = new AtomicLong();
+        final AtomicLong expandIriMisses = new AtomicLong();
+    }
 
     public Context() {
         this(new JsonLdOptions());
@@ -57,7 +83,7 @@ public class Context extends LinkedHashMap<String, Object> {
         if (options.getBase() != null) {
             this.put(JsonLdConsts.BASE, options.getBase());
         }
-        this.termDefinitions = newMap();
+        this.termDefinitions = new TermDefinitions();
     }
 
     /**
@@ -139,7 +165,29 @@ public class Context extends LinkedHashMap<String, Object> {
      */
     @SuppressWarnings("unchecked")
     public Context parse(Object localContext, List<String> remoteContexts) throws JsonLdError {
-        return parse(localContext, remoteContexts, false);
+        final ContextCache cache = options.getContextCache();
+        if (cache == null || (remoteContexts != null && !remoteContexts.isEmpty())
+                || !isInitial() || !ContextCache.isCacheable(localContext)) {
+            return parse(localContext, remoteContexts, false);
+        }
+        final String base = (String) this.get(JsonLdConsts.BASE);
+        Context cached = cache.get(base, localContext);
+        if (cached == null) {
+            cached = parse(localContext, remoteContexts, false);
+            cache.put(base, localContext, cached);
+        }
+        final Context result = cached.clone();
+        result.options = this.options;
+        return result;
+    }
+
+    /**
+     * @return True if this is an initial active context, that is if processing
+     *         a local context against it depends only on its base IRI.
+     */
+    private boolean isInitial() {
+        return termDefinitions.isEmpty() && !this.containsKey(JsonLdConsts.VOCAB)
+                && !this.containsKey(JsonLdConsts.LANGUAGE);
     }
 
     /**
@@ -279,6 +327,8 @@ public class Context extends LinkedHashMap<String, Object> {
                 result.createTermDefinition((Map<String, Object>) context, key, defined);
             }
         }
+        result.inverse = null;
+        result.derived = new Derived();
         return result;
     }
 
@@ -487,6 +537,31 @@ public class Context extends LinkedHashMap<String, Object> {
      */
     String expandIri(String value, boolean relative, boolean vocab, Map<String, Object> context,
             Map<String, Boolean> defined) throws JsonLdError {
+        // outside context processing the result only depends on the value,
+        // the flags and this context, so vocabulary relative expansions are
+        // remembered until the context is derived again. Terms are looked up
+        // directly, which is as fast as the memo.
+        if (vocab && context == null && value != null && !termDefinitions.containsKey(value)) {
+            final Map<String, String> iris = relative ? derived.relativeVocabIris
+                    : derived.vocabIris;
+            final String iri = iris.get(value);
+            if (iri != null) {
+                derived.expandIriHits.incrementAndGet();
+                return iri;
+            }
+            derived.expandIriMisses.incrementAndGet();
+            // only a term can expand to null
+            final String expanded = expandIriUncached(value, relative, vocab, null, null);
+            if (iris.size() < MAX_EXPANDED_IRIS) {
+                iris.put(value, expanded);
+            }
+            return expanded;
+        }
+        return expandIriUncached(value, relative, vocab, context, defined);
+    }
+
+    private String expandIriUncached(String value, boolean relative, boolean vocab,
+            Map<String, Object> context, Map<String, Boolean> defined) throws JsonLdError {
         // 1)
         if (value == null || JsonLdUtils.isKeyword(value)) {
             return value;
@@ -498,7 +573,7 @@ public class Context extends LinkedHashMap<String, Object> {
         }
         // 3)
         if (vocab && this.termDefinitions.containsKey(value)) {
-            final Map<String, Object> td = (LinkedHashMap<String, Object>) this.termDefinitions
+            final Map<String, Object> td = (Map<String, Object>) this.termDefinitions
                     .get(value);
             if (td != null) {
                 return (String) td.get(JsonLdConsts.ID);
@@ -523,7 +598,7 @@ public class Context extends LinkedHashMap<String, Object> {
             }
             // 4.4)
             if (this.termDefinitions.containsKey(prefix)) {
-                return (String) ((LinkedHashMap<String, Object>) this.termDefinitions.get(prefix))
+                return (String) ((Map<String, Object>) this.termDefinitions.get(prefix))
                         .get(JsonLdConsts.ID) + suffix;
             }
             // 4.5)
@@ -763,23 +838,10 @@ public class Context extends LinkedHashMap<String, Object> {
 
         // 4)
         String compactIRI = null;
-        // 5)
-        for (final String term : termDefinitions.keySet()) {
-            final Map<String, Object> termDefinition = (Map<String, Object>) termDefinitions
-                    .get(term);
-            // 5.1)
-            if (term.contains(":")) {
-                continue;
-            }
-            // 5.2)
-            if (termDefinition == null || iri.equals(termDefinition.get(JsonLdConsts.ID))
-                    || !iri.startsWith((String) termDefinition.get(JsonLdConsts.ID))) {
-                continue;
-            }
-
+        // 5) steps 5.1 and 5.2 are done by the prefix trie
+        for (final PrefixTrie.Match match : getPrefixTrie().findProperPrefixes(iri)) {
             // 5.3)
-            final String candidate = term + ":"
-                    + iri.substring(((String) termDefinition.get(JsonLdConsts.ID)).length());
+            final String candidate = match.term + ":" + iri.substring(match.length);
             // 5.4)
             compactIRI = _iriCompactionStep5point4(iri, value, compactIRI, candidate,
                     termDefinitions);
@@ -872,7 +934,8 @@ public class Context extends LinkedHashMap<String, Object> {
         final Context rval = (Context) super.clone();
         // TODO: is this shallow copy enough? probably not, but it passes all
         // the tests!
-        rval.termDefinitions = new LinkedHashMap<String, Object>(this.termDefinitions);
+        // term definitions are shared until either context changes them
+        rval.termDefinitions = this.termDefinitions.copy();
         return rval;
     }
 
@@ -892,6 +955,10 @@ public class Context extends LinkedHashMap<String, Object> {
         if (inverse != null) {
             return inverse;
         }
+        inverse = derived.inverse;
+        if (inverse != null) {
+            return inverse;
+        }
 
         // 1)
         inverse = newMap();
@@ -992,9 +1059,36 @@ public class Context extends LinkedHashMap<String, Object> {
             }
         }
         // 4)
+        derived.inverse = inverse;
         return inverse;
     }
 
+    /**
+     * @return The number of IRI expansions that were found among the IRIs
+     *         this context, and the contexts cloned from it, expanded before.
+     */
+    public long getExpandIriHitCount() {
+        return derived.expandIriHits.get();
+    }
+
+    /**
+     * @return The number of IRI expansions that could have been remembered,
+     *         but were not found. The hit ratio is the hit count divided by
+     *         the sum of both counts.
+     */
+    public long getExpandIriMissCount() {
+        return derived.expandIriMisses.get();
+    }
+
+    private PrefixTrie getPrefixTrie() {
+        PrefixTrie prefixTrie = derived.prefixTrie;
+        if (prefixTrie == null) {
+            prefixTrie = new PrefixTrie(termDefinitions);
+            derived.prefixTrie = prefixTrie;
+        }
+        return prefixTrie;
+    }
+
     /**
      * Term Selection
      *
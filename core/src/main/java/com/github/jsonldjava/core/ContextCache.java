@@ -0,0 +1,220 @@
+package com.github.jsonldjava.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, thread-safe cache of fully processed {@link Context} objects.
+ *
+ * Entries are keyed by the local context that was processed (a remote context
+ * URL, an inline context object, or an array of these) together with the
+ * base IRI of the active context it was processed against. Inline contexts
+ * are compared structurally, so two equal JSON objects share a cache entry.
+ *
+ * Only contexts that are processed against an initial active context (no
+ * term definitions, no default vocabulary or language) are cached, as the
+ * result of processing any other context depends on more than the key.
+ *
+ * A single instance may be shared between any number of
+ * {@link JsonLdOptions} and threads. Remote contexts are cached without
+ * regard to the {@link DocumentLoader} that fetched them.
+ */
+public class ContextCache {
+
+    /**
+     * The maximum number of entries held by a cache created with the default
+     * constructor.
+     */
+    public static final int DEFAULT_MAX_SIZE = 128;
+
+    private final int maxSize;
+    private final Map<Key, Context> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a cache holding at most {@link #DEFAULT_MAX_SIZE} contexts.
+     */
+    public ContextCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a cache holding at most the given number of contexts, evicting
+     * the least recently used context when full.
+     *
+     * @param maxSize
+     *            The maximum number of contexts to hold.
+     */
+    public ContextCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<Key, Context>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Context> eldest) {
+                if (size() > ContextCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the processed context cached for the given local context and
+     * base, or null if there is none. The returned context is shared and must
+     * not be modified.
+     */
+    Context get(String base, Object localContext) {
+        final Context cached;
+        synchronized (entries) {
+            cached = entries.get(new Key(base, localContext));
+        }
+        if (cached == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return cached;
+    }
+
+    /**
+     * Caches the processed context for the given local context and base. The
+     * local context is copied so that later changes made by the caller do not
+     * affect the key.
+     */
+    void put(String base, Object localContext, Context context) {
+        final Key key = new Key(base, copy(localContext));
+        synchronized (entries) {
+            entries.put(key, context);
+        }
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof Map) {
+            final Map<String, Object> rval = new LinkedHashMap<String, Object>();
+            for (final Map.Entry<String, Object> entry : ((Map<String, Object>) value)
+                    .entrySet()) {
+                rval.put(entry.getKey(), copy(entry.getValue()));
+            }
+            return rval;
+        }
+        if (value instanceof List) {
+            final List<Object> rval = new ArrayList<Object>();
+            for (final Object item : (List<Object>) value) {
+                rval.add(copy(item));
+            }
+            return rval;
+        }
+        return value;
+    }
+
+    /**
+     * Returns true if the given local context can be used as a cache key, that
+     * is if it is made only of JSON values and does not embed an already
+     * processed {@link Context}.
+     */
+    static boolean isCacheable(Object localContext) {
+        if (localContext instanceof Context) {
+            return false;
+        }
+        if (localContext instanceof List) {
+            for (final Object context : (List<Object>) localContext) {
+                if (context instanceof Context) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes all contexts from this cache. The counters are left unchanged.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return The number of contexts currently held by this cache.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return The maximum number of contexts held by this cache.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return The number of lookups that found a processed context.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of lookups that did not find a processed context.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return The number of contexts removed to keep the cache within its
+     *         maximum size.
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private static final class Key {
+        private final String base;
+        private final Object localContext;
+        private final int hash;
+
+        Key(String base, Object localContext) {
+            this.base = base;
+            this.localContext = localContext;
+            this.hash = 31 * (base == null ? 0 : base.hashCode())
+                    + (localContext == null ? 0 : localContext.hashCode());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return hash == other.hash
+                    && (base == null ? other.base == null : base.equals(other.base))
+                    && (localContext == null ? other.localContext == null
+                            : localContext.equals(other.localContext));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.jsonldjava.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Computes the digest of a normalized dataset from its quads, in any order.
+ *
+ * Each quad is hashed as a line of N-Quads as soon as it is added, so only
+ * its digest is kept. The digest of the dataset is the digest of the
+ * concatenation of the distinct quad digests in ascending unsigned byte
+ * order, which does not depend on the order the quads were added in or on
+ * duplicate quads.
+ */
+final class DatasetDigest {
+
+    private static final Comparator<byte[]> UNSIGNED_ORDER = new Comparator<byte[]>() {
+        @Override
+        public int compare(byte[] a, byte[] b) {
+            for (int i = 0; i < a.length; i++) {
+                final int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return 0;
+        }
+    };
+
+    private final String algorithm;
+    private final List<byte[]> digests;
+
+    /**
+     * Creates a digest of an empty dataset.
+     *
+     * @param algorithm
+     *            the digest algorithm, which must have been checked.
+     * @param quads
+     *            the number of quads expected.
+     */
+    DatasetDigest(String algorithm, int quads) {
+        this.algorithm = algorithm;
+        this.digests = new ArrayList<byte[]>(quads);
+    }
+
+    /**
+     * Adds a quad.
+     *
+     * @param nquad
+     *            the quad as a line of N-Quads, with its canonical blank node
+     *            names.
+     */
+    void add(CharSequence nquad) {
+        digests.add(Hasher.get(algorithm, 0).update(nquad).digestBytes().clone());
+    }
+
+    /**
+     * @return the digest of the dataset in lower case hex.
+     */
+    String digest() {
+        Collections.sort(digests, UNSIGNED_ORDER);
+        final Hasher hasher = Hasher.get(algorithm, 0);
+        byte[] previous = null;
+        for (final byte[] digest : digests) {
+            if (previous == null || UNSIGNED_ORDER.compare(previous, digest) != 0) {
+                hasher.update(digest);
+            }
+            previous = digest;
+        }
+        return hasher.digest();
+    }
+}
@@ -0,0 +1,171 @@
+package com.github.jsonldjava.core;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashes text for normalization, encoding it as UTF-8 into a reused buffer
+ * and returning the digest as lower case hex.
+ *
+ * Hashers are cached per thread, so a thread gets the same instances every
+ * time it normalizes a dataset.
+ */
+final class Hasher {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int BUFFER_SIZE = 4096;
+
+    private static final ThreadLocal<Map<String, List<Hasher>>> HASHERS = new ThreadLocal<Map<String, List<Hasher>>>() {
+        @Override
+        protected Map<String, List<Hasher>> initialValue() {
+            return new HashMap<String, List<Hasher>>();
+        }
+    };
+
+    private final MessageDigest md;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int length = 0;
+    private final byte[] digest;
+    private final char[] hex;
+
+    private Hasher(MessageDigest md) {
+        this.md = md;
+        this.digest = new byte[md.getDigestLength()];
+        this.hex = new char[digest.length * 2];
+    }
+
+    /**
+     * Checks that the given algorithm is available.
+     *
+     * @throws JsonLdError
+     *             If it is not.
+     */
+    static void check(String algorithm) throws JsonLdError {
+        try {
+            MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new JsonLdError(JsonLdError.Error.INVALID_INPUT,
+                    "Unknown hash algorithm: " + algorithm, e);
+        }
+    }
+
+    /**
+     * Gets one of the hashers of the current thread, which are numbered so a
+     * thread can hash more than one text at a time. The hasher is reset.
+     *
+     * @param algorithm
+     *            the digest algorithm, which must have been checked.
+     * @param index
+     *            the number of the hasher.
+     * @return the hasher.
+     */
+    static Hasher get(String algorithm, int index) {
+        final Map<String, List<Hasher>> hashers = HASHERS.get();
+        List<Hasher> list = hashers.get(algorithm);
+        if (list == null) {
+            list = new ArrayList<Hasher>();
+            hashers.put(algorithm, list);
+        }
+        while (list.size() <= index) {
+            try {
+                list.add(new Hasher(MessageDigest.getInstance(algorithm)));
+            } catch (final NoSuchAlgorithmException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+        final Hasher hasher = list.get(index);
+        hasher.length = 0;
+        hasher.md.reset();
+        return hasher;
+    }
+
+    /**
+     * Adds the UTF-8 encoding of the text to the digest.
+     *
+     * @param text
+     *            the text.
+     * @return this hasher.
+     */
+    Hasher update(CharSequence text) {
+        final int end = text.length();
+        for (int i = 0; i < end; i++) {
+            if (length > BUFFER_SIZE - 4) {
+                flush();
+            }
+            final char c = text.charAt(i);
+            if (c < 0x80) {
+                buffer[length++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[length++] = (byte) (0xC0 | (c >> 6));
+                buffer[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+                buffer[length++] = (byte) (0xE0 | (c >> 12));
+                buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer[length++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                // an unpaired surrogate, replaced as String.getBytes does
+                buffer[length++] = '?';
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds the given bytes to the digest.
+     *
+     * @param bytes
+     *            the bytes.
+     * @return this hasher.
+     */
+    Hasher update(byte[] bytes) {
+        flush();
+        md.update(bytes);
+        return this;
+    }
+
+    private void flush() {
+        md.update(buffer, 0, length);
+        length = 0;
+    }
+
+    /**
+     * Completes the digest and resets the hasher.
+     *
+     * @return the digest in lower case hex.
+     */
+    String digest() {
+        digestBytes();
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Completes the digest and resets the hasher.
+     *
+     * @return the digest, in an array that is reused by the next call.
+     */
+    byte[] digestBytes() {
+        flush();
+        try {
+            md.digest(digest, 0, digest.length);
+        } catch (final DigestException e) {
+            throw new IllegalStateException(e);
+        }
+        return digest;
+    }
+}
@@ -7,6 +7,8 @@ import static com.github.jsonldjava.core.JsonLdConsts.RDF_REST;
 import static com.github.jsonldjava.core.JsonLdConsts.RDF_TYPE;
 import static com.github.jsonldjava.core.JsonLdUtils.isKeyword;
 import static com.github.jsonldjava.utils.Obj.newMap;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -18,7 +20,10 @@ import java.util.Set;
 import java.util.TreeMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.github.jsonldjava.core.JsonLdError.Error;
+import com.github.jsonldjava.utils.JsonUtils;
 import com.github.jsonldjava.utils.Obj;
 
 /**
@@ -38,18 +43,42 @@ public class JsonLdApi {
 
     Context context = null;
 
+    private final boolean ordered;
+
+    private final SortedKeys sortedKeys = new SortedKeys();
+
     public JsonLdApi() {
         this(new JsonLdOptions(""));
     }
 
     public JsonLdApi(Object input, JsonLdOptions opts) throws JsonLdError {
         this(opts);
-        initialize(input, null);
+        initialize(input, null, true);
     }
 
     public JsonLdApi(Object input, Object context, JsonLdOptions opts) throws JsonLdError {
         this(opts);
-        initialize(input, null);
+        initialize(input, null, true);
+    }
+
+    /**
+     * Creates an instance that operates on the given input itself rather than
+     * on a copy of it, for callers that do not use the input afterwards, such
+     * as {@link JsonLdProcessor} with input it has just expanded. The input
+     * may be changed by the operations.
+     *
+     * @param input
+     *            the input, which is handed over to the instance.
+     * @param opts
+     *            the options.
+     * @return The instance.
+     * @throws JsonLdError
+     *             If there was an error in parsing the context.
+     */
+    static JsonLdApi owning(Object input, JsonLdOptions opts) throws JsonLdError {
+        final JsonLdApi api = new JsonLdApi(opts);
+        api.initialize(input, null, false);
+        return api;
     }
 
     public JsonLdApi(JsonLdOptions opts) {
@@ -58,12 +87,47 @@ public class JsonLdApi {
         } else {
             this.opts = opts;
         }
+        this.ordered = opts.getOrdered();
+    }
+
+    /**
+     * Returns the keys of a map in lexicographical order, unless the options
+     * turn ordering off, in which case the keys are returned in the order of
+     * the map. The keys must not be modified.
+     *
+     * @param map
+     *            the map.
+     * @return The keys.
+     */
+    private Collection<String> keys(Map<String, ?> map) {
+        if (!ordered) {
+            return map.keySet();
+        }
+        return sortedKeys.of(map);
+    }
+
+    /**
+     * Returns the node identifiers of a node map in lexicographical order,
+     * unless the options turn ordering off. Unlike the keys of nodes, these
+     * rarely repeat, so they are sorted each time.
+     *
+     * @param nodeMap
+     *            the node map.
+     * @return The node identifiers.
+     */
+    Collection<String> ids(Map<String, ?> nodeMap) {
+        if (!ordered) {
+            return nodeMap.keySet();
+        }
+        final List<String> ids = new ArrayList<String>(nodeMap.keySet());
+        Collections.sort(ids);
+        return ids;
     }
 
     /**
      * Initializes this object by cloning the input object using
-     * {@link JsonLdUtils#clone(Object)}, and by parsing the context using
-     * {@link Context#parse(Object)}.
+     * {@link JsonLdUtils#clone(Object)}, unless told not to, and by parsing the
+     * context using {@link Context#parse(Object)}.
      *
      * @param input
      *            The initial object, which is to be cloned and used in
@@ -71,13 +135,15 @@ public class JsonLdApi {
      * @param context
      *            The context object, which is to be parsed and used in
      *            operations.
+     * @param copy
+     *            Whether to clone the input, rather than use it as it is.
      * @throws JsonLdError
      *             If there was an error cloning the object, or in parsing the
      *             context.
      */
-    private void initialize(Object input, Object context) throws JsonLdError {
+    private void initialize(Object input, Object context, boolean copy) throws JsonLdError {
         if (input instanceof List || input instanceof Map) {
-            this.value = JsonLdUtils.clone(input);
+            this.value = copy ? JsonLdUtils.clone(input) : input;
         }
         this.context = new Context(opts);
         if (context != null) {
@@ -134,9 +200,7 @@ public class JsonLdApi {
             }
             final boolean insideReverse = (JsonLdConsts.REVERSE.equals(activeProperty));
             final Map<String, Object> result = newMap();
-            final List<String> keys = new ArrayList<String>(elem.keySet());
-            Collections.sort(keys);
-            for (final String expandedProperty : keys) {
+            for (final String expandedProperty : keys(elem)) {
                 final Object expandedValue = elem.get(expandedProperty);
                 if (JsonLdConsts.ID.equals(expandedProperty) || JsonLdConsts.TYPE.equals(expandedProperty)) {
                     Object compactedValue;
@@ -360,152 +424,144 @@ public class JsonLdApi {
                     activeCtx = activeCtx.parse(elem.get(JsonLdConsts.CONTEXT));
                 }
                 Map<String, Object> result = newMap();
-                final List<String> keys = new ArrayList<String>(elem.keySet());
-                Collections.sort(keys);
-                for (final String key : keys) {
+                for (final String key : keys(elem)) {
                     final Object value = elem.get(key);
                     if (key.equals(JsonLdConsts.CONTEXT)) {
                         continue;
                     }
                     final String expandedProperty = activeCtx.expandIri(key, false, true, null, null);
                     Object expandedValue = null;
-                    if (expandedProperty == null || (!expandedProperty.contains(":") && !isKeyword(expandedProperty))) {
+                    final int keyword = Keywords.of(expandedProperty);
+                    if (expandedProperty == null || (keyword == Keywords.NONE && !expandedProperty.contains(":"))) {
                         continue;
                     }
-                    if (isKeyword(expandedProperty)) {
+                    if (keyword != Keywords.NONE) {
                         if (JsonLdConsts.REVERSE.equals(activeProperty)) {
                             throw new JsonLdError(Error.INVALID_REVERSE_PROPERTY_MAP, "a keyword cannot be used as a @reverse propery");
                         }
                         if (result.containsKey(expandedProperty)) {
                             throw new JsonLdError(Error.COLLIDING_KEYWORDS, expandedProperty + " already exists in result");
                         }
-                        if (JsonLdConsts.ID.equals(expandedProperty)) {
+                        switch (keyword) {
+                        case Keywords.ID:
                             if (!(value instanceof String)) {
                                 throw new JsonLdError(Error.INVALID_ID_VALUE, "value of @id must be a string");
                             }
                             expandedValue = activeCtx.expandIri((String) value, true, false, null, null);
-                        } else {
-                            if (JsonLdConsts.TYPE.equals(expandedProperty)) {
-                                if (value instanceof List) {
-                                    expandedValue = new ArrayList<String>();
-                                    for (final Object v : (List) value) {
-                                        if (!(v instanceof String)) {
-                                            throw new JsonLdError(Error.INVALID_TYPE_VALUE, "@type value must be a string or array of strings");
-                                        }
-                                        ((List<String>) expandedValue).add(activeCtx.expandIri((String) v, true, true, null, null));
+                            break;
+                        case Keywords.TYPE:
+                            if (value instanceof List) {
+                                expandedValue = new ArrayList<String>();
+                                for (final Object v : (List) value) {
+                                    if (!(v instanceof String)) {
+                                        throw new JsonLdError(Error.INVALID_TYPE_VALUE, "@type value must be a string or array of strings");
                                     }
-                                } else {
-                                    if (value instanceof String) {
-                                        expandedValue = activeCtx.expandIri((String) value, true, true, null, null);
+                                    ((List<String>) expandedValue).add(activeCtx.expandIri((String) v, true, true, null, null));
+                                }
+                            } else if (value instanceof String) {
+                                expandedValue = activeCtx.expandIri((String) value, true, true, null, null);
+                            } else if (value instanceof Map) {
+                                if (((Map<String, Object>) value).size() != 0) {
+                                    throw new JsonLdError(Error.INVALID_TYPE_VALUE, "@type value must be a an empty object for framing");
+                                }
+                                expandedValue = value;
+                            } else {
+                                throw new JsonLdError(Error.INVALID_TYPE_VALUE, "@type value must be a string or array of strings");
+                            }
+                            break;
+                        case Keywords.GRAPH:
+                            expandedValue = expand(activeCtx, JsonLdConsts.GRAPH, value);
+                            break;
+                        case Keywords.VALUE:
+                            if (value != null && (value instanceof Map || value instanceof List)) {
+                                throw new JsonLdError(Error.INVALID_VALUE_OBJECT_VALUE, "value of " + expandedProperty + " must be a scalar or null");
+                            }
+                            expandedValue = value;
+                            if (expandedValue == null) {
+                                result.put(JsonLdConsts.VALUE, null);
+                                continue;
+                            }
+                            break;
+                        case Keywords.LANGUAGE:
+                            if (!(value instanceof String)) {
+                                throw new JsonLdError(Error.INVALID_LANGUAGE_TAGGED_STRING, "Value of " + expandedProperty + " must be a string");
+                            }
+                            expandedValue = ((String) value).toLowerCase();
+                            break;
+                        case Keywords.INDEX:
+                            if (!(value instanceof String)) {
+                                throw new JsonLdError(Error.INVALID_INDEX_VALUE, "Value of " + expandedProperty + " must be a string");
+                            }
+                            expandedValue = value;
+                            break;
+                        case Keywords.LIST:
+                            if (activeProperty == null || JsonLdConsts.GRAPH.equals(activeProperty)) {
+                                continue;
+                            }
+                            expandedValue = expand(activeCtx, activeProperty, value);
+                            if (!(expandedValue instanceof List)) {
+                                final List<Object> tmp = new ArrayList<Object>();
+                                tmp.add(expandedValue);
+                                expandedValue = tmp;
+                            }
+                            for (final Object o : (List<Object>) expandedValue) {
+                                if (o instanceof Map && ((Map<String, Object>) o).containsKey(JsonLdConsts.LIST)) {
+                                    throw new JsonLdError(Error.LIST_OF_LISTS, "A list may not contain another list");
+                                }
+                            }
+                            break;
+                        case Keywords.SET:
+                            expandedValue = expand(activeCtx, activeProperty, value);
+                            break;
+                        case Keywords.REVERSE:
+                            if (!(value instanceof Map)) {
+                                throw new JsonLdError(Error.INVALID_REVERSE_VALUE, "@reverse value must be an object");
+                            }
+                            expandedValue = expand(activeCtx, JsonLdConsts.REVERSE, value);
+                            if (((Map<String, Object>) expandedValue).containsKey(JsonLdConsts.REVERSE)) {
+                                final Map<String, Object> reverse = (Map<String, Object>) ((Map<String, Object>) expandedValue).get(JsonLdConsts.REVERSE);
+                                for (final String property : reverse.keySet()) {
+                                    final Object item = reverse.get(property);
+                                    if (!result.containsKey(property)) {
+                                        result.put(property, new ArrayList<Object>());
+                                    }
+                                    if (item instanceof List) {
+                                        ((List<Object>) result.get(property)).addAll((List<Object>) item);
                                     } else {
-                                        if (value instanceof Map) {
-                                            if (((Map<String, Object>) value).size() != 0) {
-                                                throw new JsonLdError(Error.INVALID_TYPE_VALUE, "@type value must be a an empty object for framing");
-                                            }
-                                            expandedValue = value;
-                                        } else {
-                                            throw new JsonLdError(Error.INVALID_TYPE_VALUE, "@type value must be a string or array of strings");
-                                        }
+                                        ((List<Object>) result.get(property)).add(item);
                                     }
                                 }
-                            } else {
-                                if (JsonLdConsts.GRAPH.equals(expandedProperty)) {
-                                    expandedValue = expand(activeCtx, JsonLdConsts.GRAPH, value);
-                                } else {
-                                    if (JsonLdConsts.VALUE.equals(expandedProperty)) {
-                                        if (value != null && (value instanceof Map || value instanceof List)) {
-                                            throw new JsonLdError(Error.INVALID_VALUE_OBJECT_VALUE, "value of " + expandedProperty + " must be a scalar or null");
-                                        }
-                                        expandedValue = value;
-                                        if (expandedValue == null) {
-                                            result.put(JsonLdConsts.VALUE, null);
-                                            continue;
+                            }
+                            if (((Map<String, Object>) expandedValue).size() > (((Map<String, Object>) expandedValue).containsKey(JsonLdConsts.REVERSE) ? 1 : 0)) {
+                                if (!result.containsKey(JsonLdConsts.REVERSE)) {
+                                    result.put(JsonLdConsts.REVERSE, newMap());
+                                }
+                                final Map<String, Object> reverseMap = (Map<String, Object>) result.get(JsonLdConsts.REVERSE);
+                                for (final String property : ((Map<String, Object>) expandedValue).keySet()) {
+                                    if (JsonLdConsts.REVERSE.equals(property)) {
+                                        continue;
+                                    }
+                                    final List<Object> items = (List<Object>) ((Map<String, Object>) expandedValue).get(property);
+                                    for (final Object item : items) {
+                                        if (item instanceof Map && (((Map<String, Object>) item).containsKey(JsonLdConsts.VALUE) || ((Map<String, Object>) item).containsKey(JsonLdConsts.LIST))) {
+                                            throw new JsonLdError(Error.INVALID_REVERSE_PROPERTY_VALUE);
                                         }
-                                    } else {
-                                        if (JsonLdConsts.LANGUAGE.equals(expandedProperty)) {
-                                            if (!(value instanceof String)) {
-                                                throw new JsonLdError(Error.INVALID_LANGUAGE_TAGGED_STRING, "Value of " + expandedProperty + " must be a string");
-                                            }
-                                            expandedValue = ((String) value).toLowerCase();
-                                        } else {
-                                            if (JsonLdConsts.INDEX.equals(expandedProperty)) {
-                                                if (!(value instanceof String)) {
-                                                    throw new JsonLdError(Error.INVALID_INDEX_VALUE, "Value of " + expandedProperty + " must be a string");
-                                                }
-                                                expandedValue = value;
-                                            } else {
-                                                if (JsonLdConsts.LIST.equals(expandedProperty)) {
-                                                    if (activeProperty == null || JsonLdConsts.GRAPH.equals(activeProperty)) {
-                                                        continue;
-                                                    }
-                                                    expandedValue = expand(activeCtx, activeProperty, value);
-                                                    if (!(expandedValue instanceof List)) {
-                                                        final List<Object> tmp = new ArrayList<Object>();
-                                                        tmp.add(expandedValue);
-                                                        expandedValue = tmp;
-                                                    }
-                                                    for (final Object o : (List<Object>) expandedValue) {
-                                                        if (o instanceof Map && ((Map<String, Object>) o).containsKey(JsonLdConsts.LIST)) {
-                                                            throw new JsonLdError(Error.LIST_OF_LISTS, "A list may not contain another list");
-                                                        }
-                                                    }
-                                                } else {
-                                                    if (JsonLdConsts.SET.equals(expandedProperty)) {
-                                                        expandedValue = expand(activeCtx, activeProperty, value);
-                                                    } else {
-                                                        if (JsonLdConsts.REVERSE.equals(expandedProperty)) {
-                                                            if (!(value instanceof Map)) {
-                                                                throw new JsonLdError(Error.INVALID_REVERSE_VALUE, "@reverse value must be an object");
-                                                            }
-                                                            expandedValue = expand(activeCtx, JsonLdConsts.REVERSE, value);
-                                                            if (((Map<String, Object>) expandedValue).containsKey(JsonLdConsts.REVERSE)) {
-                                                                final Map<String, Object> reverse = (Map<String, Object>) ((Map<String, Object>) expandedValue).get(JsonLdConsts.REVERSE);
-                                                                for (final String property : reverse.keySet()) {
-                                                                    final Object item = reverse.get(property);
-                                                                    if (!result.containsKey(property)) {
-                                                                        result.put(property, new ArrayList<Object>());
-                                                                    }
-                                                                    if (item instanceof List) {
-                                                                        ((List<Object>) result.get(property)).addAll((List<Object>) item);
-                                                                    } else {
-                                                                        ((List<Object>) result.get(property)).add(item);
-                                                                    }
-                                                                }
-                                                            }
-                                                            if (((Map<String, Object>) expandedValue).size() > (((Map<String, Object>) expandedValue).containsKey(JsonLdConsts.REVERSE) ? 1 : 0)) {
-                                                                if (!result.containsKey(JsonLdConsts.REVERSE)) {
-                                                                    result.put(JsonLdConsts.REVERSE, newMap());
-                                                                }
-                                                                final Map<String, Object> reverseMap = (Map<String, Object>) result.get(JsonLdConsts.REVERSE);
-                                                                for (final String property : ((Map<String, Object>) expandedValue).keySet()) {
-                                                                    if (JsonLdConsts.REVERSE.equals(property)) {
-                                                                        continue;
-                                                                    }
-                                                                    final List<Object> items = (List<Object>) ((Map<String, Object>) expandedValue).get(property);
-                                                                    for (final Object item : items) {
-                                                                        if (item instanceof Map && (((Map<String, Object>) item).containsKey(JsonLdConsts.VALUE) || ((Map<String, Object>) item).containsKey(JsonLdConsts.LIST))) {
-                                                                            throw new JsonLdError(Error.INVALID_REVERSE_PROPERTY_VALUE);
-                                                                        }
-                                                                        if (!reverseMap.containsKey(property)) {
-                                                                            reverseMap.put(property, new ArrayList<Object>());
-                                                                        }
-                                                                        ((List<Object>) reverseMap.get(property)).add(item);
-                                                                    }
-                                                                }
-                                                            }
-                                                            continue;
-                                                        } else {
-                                                            if (JsonLdConsts.EXPLICIT.equals(expandedProperty) || JsonLdConsts.DEFAULT.equals(expandedProperty) || JsonLdConsts.EMBED.equals(expandedProperty) || JsonLdConsts.EMBED_CHILDREN.equals(expandedProperty) || JsonLdConsts.OMIT_DEFAULT.equals(expandedProperty)) {
-                                                                expandedValue = expand(activeCtx, expandedProperty, value);
-                                                            }
-                                                        }
-                                                    }
-                                                }
-                                            }
+                                        if (!reverseMap.containsKey(property)) {
+                                            reverseMap.put(property, new ArrayList<Object>());
                                         }
+                                        ((List<Object>) reverseMap.get(property)).add(item);
                                     }
                                 }
                             }
+                            continue;
+                        case Keywords.EXPLICIT:
+                        case Keywords.DEFAULT:
+                        case Keywords.EMBED:
+                        case Keywords.OMIT_DEFAULT:
+                            expandedValue = expand(activeCtx, expandedProperty, value);
+                            break;
+                        default:
+                            break;
                         }
                         if (expandedValue != null) {
                             result.put(expandedProperty, expandedValue);
@@ -534,9 +590,7 @@ public class JsonLdApi {
                         } else {
                             if (JsonLdConsts.INDEX.equals(activeCtx.getContainer(key)) && value instanceof Map) {
                                 expandedValue = new ArrayList<Object>();
-                                final List<String> indexKeys = new ArrayList<String>(((Map<String, Object>) value).keySet());
-                                Collections.sort(indexKeys);
-                                for (final String index : indexKeys) {
+                                for (final String index : keys((Map<String, Object>) value)) {
                                     Object indexValue = ((Map<String, Object>) value).get(index);
                                     if (!(indexValue instanceof List)) {
                                         final Object tmp = indexValue;
@@ -684,6 +738,103 @@ public class JsonLdApi {
         return expand(activeCtx, null, element);
     }
 
+    /**
+     * Streaming variant of the Expansion Algorithm, which reads the document
+     * from the given parser and passes each expanded top-level node object to
+     * the callback as soon as it is complete, so that only one of them is held
+     * in memory at a time.
+     *
+     * The elements of a top-level array, and of a top-level @graph array which
+     * directly follows a top-level @context and nothing else, are read one at
+     * a time. Any other top-level object, including one whose @context
+     * follows its @graph, is read whole before it is expanded.
+     *
+     * A streamed @graph array must be the last member of its object, as
+     * members after it, such as an @id that would make it a named graph,
+     * could change how its nodes are expanded. Such members cause an
+     * {@link Error#INVALID_INPUT} error after the nodes of the @graph array
+     * have already been passed to the callback, and the caller must then
+     * discard those nodes.
+     *
+     * @param activeCtx
+     *            The Active Context
+     * @param parser
+     *            The parser to read the document from, either before its first
+     *            token or positioned on it.
+     * @param callback
+     *            The callback receiving the expanded node objects.
+     * @throws JsonLdError
+     *             If there was an error reading or expanding the document, or
+     *             if a top-level @graph array that has already been streamed
+     *             is followed by other members, in which case the nodes passed
+     *             to the callback so far must be discarded.
+     */
+    public void expand(Context activeCtx, JsonParser parser, JsonLdExpansionCallback callback) throws JsonLdError {
+        try {
+            JsonToken token = parser.getCurrentToken();
+            if (token == null) {
+                token = parser.nextToken();
+            }
+            if (token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    emitExpanded(expand(activeCtx, null, JsonUtils.fromJsonParser(parser)), callback);
+                }
+            } else if (token == JsonToken.START_OBJECT) {
+                expandTopLevelObject(activeCtx, parser, callback);
+            }
+            // any other top-level value is a free-floating value, which is
+            // dropped
+        } catch (final IOException e) {
+            throw new JsonLdError(Error.LOADING_DOCUMENT_FAILED, e.getMessage(), e);
+        }
+    }
+
+    private void expandTopLevelObject(Context activeCtx, JsonParser parser, JsonLdExpansionCallback callback) throws JsonLdError, IOException {
+        final Map<String, Object> element = newMap();
+        Context localCtx = activeCtx;
+        boolean streamed = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String key = parser.getCurrentName();
+            final JsonToken token = parser.nextToken();
+            if (streamed) {
+                throw new JsonLdError(Error.INVALID_INPUT, "streaming expansion does not support members following a top-level @graph: " + key);
+            }
+            if (JsonLdConsts.CONTEXT.equals(key)) {
+                final Object context = JsonUtils.fromJsonParser(parser);
+                element.put(key, context);
+                localCtx = localCtx.parse(context);
+            } else if (token == JsonToken.START_ARRAY && element.size() == 1 && element.containsKey(JsonLdConsts.CONTEXT)
+                    && JsonLdConsts.GRAPH.equals(localCtx.expandIri(key, false, true, null, null))) {
+                // the expanded document is the expanded content of @graph
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    emitExpanded(expand(localCtx, JsonLdConsts.GRAPH, JsonUtils.fromJsonParser(parser)), callback);
+                }
+                streamed = true;
+            } else {
+                element.put(key, JsonUtils.fromJsonParser(parser));
+            }
+        }
+        if (!streamed) {
+            // the context has been parsed already
+            element.remove(JsonLdConsts.CONTEXT);
+            Object expanded = expand(localCtx, null, element);
+            if (expanded instanceof Map && ((Map<String, Object>) expanded).containsKey(JsonLdConsts.GRAPH) && ((Map<String, Object>) expanded).size() == 1) {
+                expanded = ((Map<String, Object>) expanded).get(JsonLdConsts.GRAPH);
+            }
+            emitExpanded(expanded, callback);
+        }
+    }
+
+    private static void emitExpanded(Object expanded, JsonLdExpansionCallback callback) throws JsonLdError {
+        if (expanded instanceof List) {
+            for (final Object item : (List<Object>) expanded) {
+                emitExpanded(item, callback);
+            }
+        } else if (expanded instanceof Map) {
+            callback.call((Map<String, Object>) expanded);
+        }
+    }
+
     /***
      * _____ _ _ _ _ _ _ _ _ | ___| | __ _| |_| |_ ___ _ __ / \ | | __ _ ___ _
      * __(_) |_| |__ _ __ ___ | |_ | |/ _` | __| __/ _ \ '_ \ / _ \ | |/ _` |/ _
@@ -799,15 +950,13 @@ public class JsonLdApi {
                 if (elem.containsKey(JsonLdConsts.GRAPH)) {
                     generateNodeMap(elem.remove(JsonLdConsts.GRAPH), nodeMap, id, null, null, null);
                 }
-                final List<String> keys = new ArrayList<String>(elem.keySet());
-                Collections.sort(keys);
-                for (String property : keys) {
+                for (String property : keys(elem)) {
                     final Object value = elem.get(property);
                     if (property.startsWith("_:")) {
                         property = generateBlankNodeIdentifier(property);
                     }
                     if (!node.containsKey(property)) {
-                        node.put(property, new ArrayList<Object>(4));
+                        node.put(property, new ValueList());
                     }
                     generateNodeMap(value, nodeMap, activeGraph, id, property, null);
                 }
@@ -986,9 +1135,7 @@ public class JsonLdApi {
             } else {
                 state.embeds.put(id, embeddedNode);
                 final Map<String, Object> element = (Map<String, Object>) matches.get(id);
-                List<String> props = new ArrayList<String>(element.keySet());
-                Collections.sort(props);
-                for (final String prop : props) {
+                for (final String prop : sortedKeys.of(element)) {
                     if (isKeyword(prop)) {
                         output.put(prop, JsonLdUtils.clone(element.get(prop)));
                         continue;
@@ -1027,9 +1174,7 @@ public class JsonLdApi {
                         }
                     }
                 }
-                props = new ArrayList<String>(frame.keySet());
-                Collections.sort(props);
-                for (final String prop : props) {
+                for (final String prop : sortedKeys.of(frame)) {
                     if (isKeyword(prop)) {
                         continue;
                     }
@@ -1409,15 +1554,11 @@ public class JsonLdApi {
             }
         }
         final List<Object> result = new ArrayList<Object>(4);
-        final List<String> ids = new ArrayList<String>(defaultGraph.keySet());
-        Collections.sort(ids);
-        for (final String subject : ids) {
+        for (final String subject : ids(defaultGraph)) {
             final NodeMapNode node = defaultGraph.get(subject);
             if (graphMap.containsKey(subject)) {
                 node.put(JsonLdConsts.GRAPH, new ArrayList<Object>(4));
-                final List<String> keys = new ArrayList<String>(graphMap.get(subject).keySet());
-                Collections.sort(keys);
-                for (final String s : keys) {
+                for (final String s : ids(graphMap.get(subject))) {
                     final NodeMapNode n = graphMap.get(subject).get(s);
                     if (n.size() == 1 && n.containsKey(JsonLdConsts.ID)) {
                         continue;
@@ -1465,6 +1606,59 @@ public class JsonLdApi {
         return dataset;
     }
 
+    /**
+     * Streaming variant of the Convert to RDF Algorithm, which passes the quads
+     * to the given sink instead of collecting them in an RDFDataset. The node
+     * map is generated separately for each top-level node object, and its
+     * quads are passed to the sink as soon as it is complete, so only one
+     * top-level node object is held in the node map at a time.
+     *
+     * Blank node identifiers are consistent across the whole input. As RDF
+     * datasets are sets, a quad which results from more than one top-level
+     * node object may be passed to the sink more than once.
+     *
+     * @param sink
+     *            The sink receiving the quads.
+     * @throws JsonLdError
+     *             If there was an error converting from JSON-LD to RDF.
+     */
+    public void toRDF(QuadSink sink) throws JsonLdError {
+        final RDFDataset converter = new RDFDataset(this);
+        if (this.value instanceof List) {
+            for (final Object element : (List<Object>) this.value) {
+                toRDF(element, converter, sink);
+            }
+        } else if (this.value != null) {
+            toRDF(this.value, converter, sink);
+        }
+    }
+
+    /**
+     * Converts a single expanded top-level node object to RDF.
+     *
+     * @param element
+     *            The expanded node object.
+     * @param converter
+     *            The dataset used to convert the node map to quads, which is
+     *            left empty.
+     * @param sink
+     *            The sink receiving the quads.
+     * @throws JsonLdError
+     *             If there was an error converting from JSON-LD to RDF.
+     */
+    void toRDF(Object element, RDFDataset converter, QuadSink sink) throws JsonLdError {
+        final Map<String, Object> nodeMap = newMap();
+        nodeMap.put(JsonLdConsts.DEFAULT, newMap());
+        generateNodeMap(element, nodeMap);
+        for (final String graphName : nodeMap.keySet()) {
+            if (JsonLdUtils.isRelativeIri(graphName)) {
+                continue;
+            }
+            final Map<String, Object> graph = (Map<String, Object>) nodeMap.get(graphName);
+            converter.graphToRDF(graphName, graph, sink);
+        }
+    }
+
     /***
      * _ _ _ _ _ _ _ _ _ _ _ | \ | | ___ _ __ _ __ ___ __ _| (_)______ _| |_(_)
      * ___ _ __ / \ | | __ _ ___ _ __(_) |_| |__ _ __ ___ | \| |/ _ \| '__| '_ `
@@ -1484,46 +1678,68 @@ public class JsonLdApi {
      *             If there was an error while normalizing.
      */
     public Object normalize(Map<String, Object> dataset) throws JsonLdError {
-        final List<Object> quads = new ArrayList<Object>();
-        final Map<String, Object> bnodes = newMap();
+        final List<RDFDataset.Quad> quads = normalizationQuads(dataset);
+        if (JsonLdConsts.URDNA2015.equals(opts.getAlgorithm())) {
+            return new Urdna2015(quads, opts).normalize();
+        }
+        return new NormalizeUtils(quads, new UniqueNamer("_:c14n"), opts).hashBlankNodes();
+    }
+
+    /**
+     * Performs RDF normalization on the given JSON-LD input and writes it to
+     * the given stream as a sorted N-Quads document. The serialized quads are
+     * sorted in runs of {@link JsonLdOptions#getNormalizationRunSize()}
+     * quads, which are written to temporary files and merged into the stream.
+     *
+     * @param dataset
+     *            the expanded JSON-LD object to normalize.
+     * @param output
+     *            the stream, which is flushed but not closed.
+     * @throws JsonLdError
+     *             If there was an error while normalizing or writing.
+     */
+    public void normalize(Map<String, Object> dataset, OutputStream output) throws JsonLdError {
+        final List<RDFDataset.Quad> quads = normalizationQuads(dataset);
+        if (JsonLdConsts.URDNA2015.equals(opts.getAlgorithm())) {
+            new Urdna2015(quads, opts).normalize(output);
+        } else {
+            new NormalizeUtils(quads, new UniqueNamer("_:c14n"), opts).hashBlankNodes(output);
+        }
+    }
+
+    /**
+     * Performs RDF normalization on the given JSON-LD input and returns a
+     * digest of the normalized dataset, which is the same for any two inputs
+     * that normalize to the same set of quads.
+     *
+     * @param dataset
+     *            the expanded JSON-LD object to normalize.
+     * @return the digest in lower case hex.
+     * @throws JsonLdError
+     *             If there was an error while normalizing.
+     */
+    public String normalizedDigest(Map<String, Object> dataset) throws JsonLdError {
+        final List<RDFDataset.Quad> quads = normalizationQuads(dataset);
+        if (JsonLdConsts.URDNA2015.equals(opts.getAlgorithm())) {
+            return new Urdna2015(quads, opts).digest();
+        }
+        return new NormalizeUtils(quads, new UniqueNamer("_:c14n"), opts).digest();
+    }
+
+    private static List<RDFDataset.Quad> normalizationQuads(Map<String, Object> dataset) {
+        final List<RDFDataset.Quad> quads = new ArrayList<RDFDataset.Quad>();
         for (String graphName : dataset.keySet()) {
-            final List<Map<String, Object>> triples = (List<Map<String, Object>>) dataset.get(graphName);
+            final List<RDFDataset.Quad> triples = (List<RDFDataset.Quad>) dataset.get(graphName);
             if (JsonLdConsts.DEFAULT.equals(graphName)) {
                 graphName = null;
             }
-            for (final Map<String, Object> quad : triples) {
-                if (graphName != null) {
-                    if (graphName.indexOf("_:") == 0) {
-                        final Map<String, Object> tmp = newMap();
-                        tmp.put("type", "blank node");
-                        tmp.put("value", graphName);
-                        quad.put("name", tmp);
-                    } else {
-                        final Map<String, Object> tmp = newMap();
-                        tmp.put("type", "IRI");
-                        tmp.put("value", graphName);
-                        quad.put("name", tmp);
-                    }
+            for (RDFDataset.Quad quad : triples) {
+                if (graphName != null && quad.getGraph() == null) {
+                    quad = new RDFDataset.Quad(quad.getSubject(), quad.getPredicate(), quad.getObject(), graphName);
                 }
                 quads.add(quad);
-                final String[] attrs = new String[] { "subject", "object", "name" };
-                for (final String attr : attrs) {
-                    if (quad.containsKey(attr) && "blank node".equals(((Map<String, Object>) quad.get(attr)).get("type"))) {
-                        final String id = (String) ((Map<String, Object>) quad.get(attr)).get("value");
-                        if (!bnodes.containsKey(id)) {
-                            bnodes.put(id, new LinkedHashMap<String, List<Object>>() {
-
-                                {
-                                    put("quads", new ArrayList<Object>());
-                                }
-                            });
-                        }
-                        ((List<Object>) ((Map<String, Object>) bnodes.get(id)).get("quads")).add(quad);
-                    }
-                }
             }
         }
-        final NormalizeUtils normalizeUtils = new NormalizeUtils(quads, bnodes, new UniqueNamer("_:c14n"), opts);
-        return normalizeUtils.hashBlankNodes(bnodes.keySet());
+        return quads;
     }
 }
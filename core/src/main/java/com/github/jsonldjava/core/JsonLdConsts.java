@@ -30,6 +30,9 @@ public final class JsonLdConsts {
     
     public static final String TEXT_TURTLE = "text/turtle";
     public static final String APPLICATION_NQUADS = "application/nquads";
+
+    public static final String URGNA2012 = "URGNA2012";
+    public static final String URDNA2015 = "URDNA2015";
     
     public static final String FLATTENED = "flattened";
     public static final String COMPACTED = "compacted";
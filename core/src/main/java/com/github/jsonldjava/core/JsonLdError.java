@@ -18,6 +18,11 @@ public class JsonLdError extends Exception {
         this.type = type;
     }
 
+    public JsonLdError(Error type, Object detail, Throwable cause) {
+        super(detail == null ? "" : detail.toString(), cause);
+        this.type = type;
+    }
+
     public enum Error {
         LOADING_DOCUMENT_FAILED("loading document failed"),
 
@@ -100,6 +105,8 @@ public class JsonLdError extends Exception {
 
         PARSE_ERROR("parse error"),
 
+        NORMALIZATION_LIMIT_EXCEEDED("normalization limit exceeded"),
+
         UNKNOWN_ERROR("unknown error");
 
         private final String error;
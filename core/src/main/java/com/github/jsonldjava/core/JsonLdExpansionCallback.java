@@ -0,0 +1,23 @@
+package com.github.jsonldjava.core;
+
+import java.util.Map;
+
+/**
+ * Receives the expanded top-level node objects of a document one at a time,
+ * as they are produced by
+ * {@link JsonLdProcessor#expand(com.fasterxml.jackson.core.JsonParser, JsonLdOptions, JsonLdExpansionCallback)}
+ * .
+ */
+public interface JsonLdExpansionCallback {
+
+    /**
+     * Called once for each expanded top-level node object, in document order.
+     *
+     * @param node
+     *            The expanded node object. It is not used again after this
+     *            call returns, so it may be kept or modified.
+     * @throws JsonLdError
+     *             To stop the expansion.
+     */
+    public void call(Map<String, Object> node) throws JsonLdError;
+}
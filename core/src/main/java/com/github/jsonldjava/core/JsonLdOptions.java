@@ -1,5 +1,8 @@
 package com.github.jsonldjava.core;
 
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+
 /**
  * The JsonLdOptions type as specified in the <a
  * href="http://www.w3.org/TR/json-ld-api/#the-jsonldoptions-type">JSON-LD-API
@@ -27,6 +30,38 @@ public class JsonLdOptions {
         this.setBase(base);
     }
 
+    /**
+     * Returns a copy of these options, so that an option can be changed for
+     * one step of an operation without changing it for the caller.
+     *
+     * @return The copy.
+     */
+    JsonLdOptions copy() {
+        final JsonLdOptions copy = new JsonLdOptions(base);
+        copy.compactArrays = compactArrays;
+        copy.expandContext = expandContext;
+        copy.processingMode = processingMode;
+        copy.documentLoader = documentLoader;
+        copy.ordered = ordered;
+        copy.contextCache = contextCache;
+        copy.embed = embed;
+        copy.explicit = explicit;
+        copy.omitDefault = omitDefault;
+        copy.useRdfType = useRdfType;
+        copy.useNativeTypes = useNativeTypes;
+        copy.produceGeneralizedRdf = produceGeneralizedRdf;
+        copy.algorithm = algorithm;
+        copy.normalizationWorkLimit = normalizationWorkLimit;
+        copy.normalizationExecutor = normalizationExecutor;
+        copy.hashAlgorithm = hashAlgorithm;
+        copy.normalizationRunSize = normalizationRunSize;
+        copy.normalizationTempDirectory = normalizationTempDirectory;
+        copy.format = format;
+        copy.useNamespaces = useNamespaces;
+        copy.outputForm = outputForm;
+        return copy;
+    }
+
     // Base options : http://www.w3.org/TR/json-ld-api/#idl-def-JsonLdOptions
 
     /**
@@ -50,6 +85,16 @@ public class JsonLdOptions {
      * http://www.w3.org/TR/json-ld-api/#widl-JsonLdOptions-documentLoader
      */
     private DocumentLoader documentLoader = new DocumentLoader();
+    /**
+     * https://www.w3.org/TR/json-ld11-api/#dom-jsonldoptions-ordered
+     */
+    private boolean ordered = true;
+
+    /**
+     * Cache of processed contexts, shared between calls using these options.
+     * Null disables caching.
+     */
+    private ContextCache contextCache = null;
 
     // Frame options : http://json-ld.org/spec/latest/json-ld-framing/
 
@@ -64,6 +109,15 @@ public class JsonLdOptions {
     Boolean useNativeTypes = false;
     private boolean produceGeneralizedRdf = false;
 
+    // Normalization options : http://json-ld.github.io/normalization/spec/
+
+    private String algorithm = JsonLdConsts.URGNA2012;
+    private long normalizationWorkLimit = 0;
+    private ExecutorService normalizationExecutor = null;
+    private String hashAlgorithm = null;
+    private int normalizationRunSize = 100000;
+    private File normalizationTempDirectory = null;
+
     public Boolean getEmbed() {
         return embed;
     }
@@ -112,6 +166,27 @@ public class JsonLdOptions {
         this.processingMode = processingMode;
     }
 
+    public boolean getOrdered() {
+        return ordered;
+    }
+
+    /**
+     * Sets whether the keys of objects are processed in lexicographical order
+     * while expanding, compacting, flattening and converting from RDF, so that
+     * the output does not depend on the order of the input.
+     *
+     * Without ordering, members and values may come out in another order and
+     * blank nodes may be labelled differently, but the output describes the
+     * same graph. Framing always orders nodes and properties, as which node is
+     * embedded depends on the order.
+     *
+     * @param ordered
+     *            True, the default, to order keys.
+     */
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+
     public String getBase() {
         return base;
     }
@@ -144,6 +219,101 @@ public class JsonLdOptions {
         this.produceGeneralizedRdf = produceGeneralizedRdf;
     }
 
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Sets the normalization algorithm.
+     *
+     * @param algorithm
+     *            {@link JsonLdConsts#URGNA2012}, the default, or
+     *            {@link JsonLdConsts#URDNA2015}.
+     */
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public long getNormalizationWorkLimit() {
+        return normalizationWorkLimit;
+    }
+
+    /**
+     * Sets how much work URDNA2015 normalization may do on blank nodes that
+     * cannot be told apart by their own quads, counted in recursive hashing
+     * steps and permutations tried, before it gives up with a
+     * {@link JsonLdError}.
+     *
+     * @param normalizationWorkLimit
+     *            The limit, or zero for no limit.
+     */
+    public void setNormalizationWorkLimit(long normalizationWorkLimit) {
+        this.normalizationWorkLimit = normalizationWorkLimit;
+    }
+
+    public ExecutorService getNormalizationExecutor() {
+        return normalizationExecutor;
+    }
+
+    /**
+     * Sets an executor to hash blank nodes on during URGNA2012 normalization.
+     * The quads of every blank node are hashed in parallel, as are the paths
+     * of blank nodes that share a hash. The output is the same as without an
+     * executor. The executor is not shut down.
+     *
+     * @param normalizationExecutor
+     *            The executor, or null to hash on the calling thread.
+     */
+    public void setNormalizationExecutor(ExecutorService normalizationExecutor) {
+        this.normalizationExecutor = normalizationExecutor;
+    }
+
+    public String getHashAlgorithm() {
+        return hashAlgorithm;
+    }
+
+    /**
+     * Sets the digest algorithm normalization hashes blank nodes with.
+     *
+     * @param hashAlgorithm
+     *            The name of a {@link java.security.MessageDigest} algorithm,
+     *            or null for the one the normalization algorithm specifies:
+     *            SHA-1 for URGNA2012 and SHA-256 for URDNA2015.
+     */
+    public void setHashAlgorithm(String hashAlgorithm) {
+        this.hashAlgorithm = hashAlgorithm;
+    }
+
+    public int getNormalizationRunSize() {
+        return normalizationRunSize;
+    }
+
+    /**
+     * Sets how many quads normalization to a stream sorts in memory. Once
+     * there are more, each sorted run is written to a temporary file and the
+     * runs are merged into the stream.
+     *
+     * @param normalizationRunSize
+     *            The number of quads, or zero to sort them all in memory.
+     */
+    public void setNormalizationRunSize(int normalizationRunSize) {
+        this.normalizationRunSize = normalizationRunSize;
+    }
+
+    public File getNormalizationTempDirectory() {
+        return normalizationTempDirectory;
+    }
+
+    /**
+     * Sets the directory normalization to a stream writes its sorted runs to.
+     *
+     * @param normalizationTempDirectory
+     *            The directory, or null for the default temporary directory.
+     */
+    public void setNormalizationTempDirectory(File normalizationTempDirectory) {
+        this.normalizationTempDirectory = normalizationTempDirectory;
+    }
+
     public DocumentLoader getDocumentLoader() {
         return documentLoader;
     }
@@ -152,6 +322,22 @@ public class JsonLdOptions {
         this.documentLoader = documentLoader;
     }
 
+    public ContextCache getContextCache() {
+        return contextCache;
+    }
+
+    /**
+     * Sets the cache consulted before processing a context. The same
+     * {@link ContextCache} may be shared by many JsonLdOptions and threads.
+     *
+     * @param contextCache
+     *            The cache to use, or null to process every context from
+     *            scratch.
+     */
+    public void setContextCache(ContextCache contextCache) {
+        this.contextCache = contextCache;
+    }
+
     // TODO: THE FOLLOWING ONLY EXIST SO I DON'T HAVE TO DELETE A LOT OF CODE,
     // REMOVE IT WHEN DONE
     public String format = null;
@@ -2,12 +2,13 @@ package com.github.jsonldjava.core;
 
 import static com.github.jsonldjava.utils.Obj.newMap;
 
+import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.github.jsonldjava.core.JsonLdError.Error;
 import com.github.jsonldjava.impl.NQuadRDFParser;
 import com.github.jsonldjava.impl.NQuadTripleCallback;
@@ -127,16 +128,8 @@ public class JsonLdProcessor {
             }
         }
 
-        // 3)
-        Context activeCtx = new Context(opts);
-        // 4)
-        if (opts.getExpandContext() != null) {
-            Object exCtx = opts.getExpandContext();
-            if (exCtx instanceof Map && ((Map<String, Object>) exCtx).containsKey(JsonLdConsts.CONTEXT)) {
-                exCtx = ((Map<String, Object>) exCtx).get(JsonLdConsts.CONTEXT);
-            }
-            activeCtx = activeCtx.parse(exCtx);
-        }
+        // 3) + 4)
+        final Context activeCtx = initialExpansionContext(opts);
 
         // 5)
         // TODO: add support for getting a context from HTTP when content-type
@@ -162,6 +155,45 @@ public class JsonLdProcessor {
         return (List<Object>) expanded;
     }
 
+    private static Context initialExpansionContext(JsonLdOptions opts) throws JsonLdError {
+        Context activeCtx = new Context(opts);
+        if (opts.getExpandContext() != null) {
+            Object exCtx = opts.getExpandContext();
+            if (exCtx instanceof Map && ((Map<String, Object>) exCtx).containsKey(JsonLdConsts.CONTEXT)) {
+                exCtx = ((Map<String, Object>) exCtx).get(JsonLdConsts.CONTEXT);
+            }
+            activeCtx = activeCtx.parse(exCtx);
+        }
+        return activeCtx;
+    }
+
+    /**
+     * Expands the JSON-LD document read from the given parser according to the
+     * steps in the <a
+     * href="http://www.w3.org/TR/json-ld-api/#expansion-algorithm">Expansion
+     * algorithm</a>, passing each expanded top-level node object to the
+     * callback as soon as it is complete instead of collecting them in a list.
+     *
+     * The elements of a top-level array, and of a top-level @graph array which
+     * is preceded by nothing but @context, are read and expanded one at a
+     * time, so memory use is bounded by the largest of them rather than by the
+     * whole document.
+     *
+     * @param parser
+     *            The parser to read the JSON-LD document from.
+     * @param opts
+     *            The {@link JsonLdOptions} that are to be sent to the expansion
+     *            algorithm.
+     * @param callback
+     *            The callback receiving the expanded node objects.
+     * @throws JsonLdError
+     *             If there is an error while reading or expanding the document.
+     */
+    public static void expand(JsonParser parser, JsonLdOptions opts,
+            JsonLdExpansionCallback callback) throws JsonLdError {
+        new JsonLdApi(opts).expand(initialExpansionContext(opts), parser, callback);
+    }
+
     /**
      * Expands the given input according to the steps in the <a
      * href="http://www.w3.org/TR/json-ld-api/#expansion-algorithm">Expansion
@@ -193,7 +225,8 @@ public class JsonLdProcessor {
         final Map<String, Object> nodeMap = newMap();
         nodeMap.put(JsonLdConsts.DEFAULT, newMap());
         // 2)
-        new JsonLdApi(opts).generateNodeMap(expanded, nodeMap);
+        final JsonLdApi api = new JsonLdApi(opts);
+        api.generateNodeMap(expanded, nodeMap);
         // 3)
         final Map<String, Object> defaultGraph = (Map<String, Object>) nodeMap.remove(JsonLdConsts.DEFAULT);
         // 4)
@@ -214,9 +247,7 @@ public class JsonLdProcessor {
             if (!entry.containsKey(JsonLdConsts.GRAPH)) {
                 entry.put(JsonLdConsts.GRAPH, new ArrayList<Object>());
             }
-            final List<String> keys = new ArrayList<String>(graph.keySet());
-            Collections.sort(keys);
-            for (final String id : keys) {
+            for (final String id : api.ids(graph)) {
                 final Map<String, Object> node = (Map<String, Object>) graph.get(id);
                 if (!(node.containsKey(JsonLdConsts.ID) && node.size() == 1)) {
                     ((List<Object>) entry.get(JsonLdConsts.GRAPH)).add(node);
@@ -227,9 +258,7 @@ public class JsonLdProcessor {
         // 5)
         final List<Object> flattened = new ArrayList<Object>();
         // 6)
-        final List<String> keys = new ArrayList<String>(defaultGraph.keySet());
-        Collections.sort(keys);
-        for (final String id : keys) {
+        for (final String id : api.ids(defaultGraph)) {
             final Map<String, Object> node = (Map<String, Object>) defaultGraph.get(id);
             if (!(node.containsKey(JsonLdConsts.ID) && node.size() == 1)) {
                 flattened.add(node);
@@ -302,7 +331,7 @@ public class JsonLdProcessor {
         final Object expandedInput = expand(input, opts);
         final List<Object> expandedFrame = expand(frame, opts);
 
-        final JsonLdApi api = new JsonLdApi(expandedInput, opts);
+        final JsonLdApi api = JsonLdApi.owning(expandedInput, opts);
         final List<Object> framed = api.frame(expandedInput, expandedFrame);
         final Context activeCtx = api.context.parse(((Map<String, Object>) frame).get(JsonLdConsts.CONTEXT));
 
@@ -481,7 +510,7 @@ public class JsonLdProcessor {
 
         final Object expandedInput = expand(input, options);
 
-        final JsonLdApi api = new JsonLdApi(expandedInput, options);
+        final JsonLdApi api = JsonLdApi.owning(expandedInput, options);
         final RDFDataset dataset = api.toRDF();
 
         // generate namespaces from context
@@ -516,6 +545,63 @@ public class JsonLdProcessor {
         return dataset;
     }
 
+    /**
+     * Outputs the RDF dataset found in the given JSON-LD object, passing each
+     * quad to the given sink as soon as the top-level node object it results
+     * from has been converted, instead of collecting them in an
+     * {@link RDFDataset}. A quad may be passed to the sink more than once if
+     * it results from more than one top-level node object.
+     *
+     * @param input
+     *            the JSON-LD input.
+     * @param options
+     *            the options to use: [base] the base IRI to use.
+     *            [loadContext(url, callback(err, url, result))] the context
+     *            loader.
+     * @param sink
+     *            The sink receiving the quads.
+     * @throws JsonLdError
+     *             If there is an error converting the input to RDF.
+     */
+    public static void toRDF(Object input, JsonLdOptions options, QuadSink sink)
+            throws JsonLdError {
+        final Object expandedInput = expand(input, options);
+        JsonLdApi.owning(expandedInput, options).toRDF(sink);
+    }
+
+    /**
+     * Outputs the RDF dataset found in the JSON-LD document read from the
+     * given parser. The document is expanded as it is read, as described for
+     * {@link #expand(JsonParser, JsonLdOptions, JsonLdExpansionCallback)}, and
+     * the quads of each top-level node object are passed to the sink as soon
+     * as it has been expanded, so the whole document is never held in memory.
+     * A quad may be passed to the sink more than once if it results from more
+     * than one top-level node object.
+     *
+     * @param parser
+     *            The parser to read the JSON-LD document from.
+     * @param options
+     *            the options to use: [base] the base IRI to use.
+     *            [loadContext(url, callback(err, url, result))] the context
+     *            loader.
+     * @param sink
+     *            The sink receiving the quads.
+     * @throws JsonLdError
+     *             If there is an error reading the document or converting it
+     *             to RDF.
+     */
+    public static void toRDF(JsonParser parser, JsonLdOptions options, final QuadSink sink)
+            throws JsonLdError {
+        final JsonLdApi api = new JsonLdApi(options);
+        final RDFDataset converter = new RDFDataset(api);
+        expand(parser, options, new JsonLdExpansionCallback() {
+            @Override
+            public void call(Map<String, Object> node) throws JsonLdError {
+                api.toRDF(node, converter, sink);
+            }
+        });
+    }
+
     /**
      * Outputs the RDF dataset found in the given JSON-LD object.
      *
@@ -574,8 +660,9 @@ public class JsonLdProcessor {
      * @param options
      *            the options to use: [base] the base IRI to use. [format] the
      *            format if output is a string: 'application/nquads' for
-     *            N-Quads. [loadContext(url, callback(err, url, result))] the
-     *            context loader.
+     *            N-Quads. [algorithm] the normalization algorithm, URGNA2012
+     *            or URDNA2015. [loadContext(url, callback(err, url, result))]
+     *            the context loader.
      * @return The JSON-LD object
      * @throws JsonLdError
      *             If there is an error normalizing the dataset.
@@ -589,6 +676,64 @@ public class JsonLdProcessor {
         return new JsonLdApi(options).normalize(dataset);
     }
 
+    /**
+     * Performs RDF dataset normalization on the given JSON-LD input and writes
+     * it to the given stream as an N-Quads document, encoded as UTF-8. Large
+     * datasets are sorted through temporary files instead of in memory, as
+     * set by {@link JsonLdOptions#setNormalizationRunSize(int)}.
+     *
+     * @param input
+     *            the JSON-LD input to normalize.
+     * @param output
+     *            the stream, which is flushed but not closed.
+     * @param options
+     *            the options to use, as for
+     *            {@link #normalize(Object, JsonLdOptions)}. The 'format'
+     *            option is ignored.
+     * @throws JsonLdError
+     *             If there is an error normalizing the dataset or writing it.
+     */
+    public static void normalize(Object input, OutputStream output, JsonLdOptions options)
+            throws JsonLdError {
+
+        final JsonLdOptions opts = options.copy();
+        opts.format = null;
+        final RDFDataset dataset = (RDFDataset) toRDF(input, opts);
+
+        new JsonLdApi(options).normalize(dataset, output);
+    }
+
+    /**
+     * Normalizes the given JSON-LD input and returns a digest of the
+     * normalized dataset, for telling whether two inputs describe the same
+     * dataset. Each quad is hashed as a line of N-Quads, and the digest is
+     * the hash of the distinct quad hashes in ascending order, so it does not
+     * depend on the order or duplication of quads. No N-Quads document is
+     * built, so this needs much less memory than
+     * {@link #normalize(Object, JsonLdOptions)}.
+     *
+     * @param input
+     *            the JSON-LD input to normalize.
+     * @param options
+     *            the options to use, as for
+     *            {@link #normalize(Object, JsonLdOptions)}. The 'hashAlgorithm'
+     *            option also chooses the digest, which defaults to SHA-1 for
+     *            URGNA2012 and SHA-256 for URDNA2015. The 'format' option is
+     *            ignored.
+     * @return the digest in lower case hex.
+     * @throws JsonLdError
+     *             If there is an error normalizing the dataset.
+     */
+    public static String normalizedDigest(Object input, JsonLdOptions options)
+            throws JsonLdError {
+
+        final JsonLdOptions opts = options.copy();
+        opts.format = null;
+        final RDFDataset dataset = (RDFDataset) toRDF(input, opts);
+
+        return new JsonLdApi(options).normalizedDigest(dataset);
+    }
+
     /**
      * Performs RDF dataset normalization on the given JSON-LD input. The output
      * is an RDF dataset unless the 'format' option is used. Uses the default
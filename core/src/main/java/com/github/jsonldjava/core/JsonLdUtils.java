@@ -6,8 +6,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 import com.github.jsonldjava.utils.JsonLdUrl;
 import com.github.jsonldjava.utils.Obj;
@@ -26,28 +28,26 @@ public class JsonLdUtils {
      * @return true if the value is a keyword, false if not.
      */
     static boolean isKeyword(Object key) {
-        if (!isString(key)) {
-            return false;
-        }
-        return "@base".equals(key) || "@context".equals(key) || "@container".equals(key)
-                || "@default".equals(key) || "@embed".equals(key) || "@explicit".equals(key)
-                || "@graph".equals(key) || "@id".equals(key) || "@index".equals(key)
-                || "@language".equals(key) || "@list".equals(key) || "@omitDefault".equals(key)
-                || "@reverse".equals(key) || "@preserve".equals(key) || "@set".equals(key)
-                || "@type".equals(key) || "@value".equals(key) || "@vocab".equals(key);
+        return Keywords.of(key) != Keywords.NONE;
     }
 
     public static Boolean deepCompare(Object v1, Object v2, Boolean listOrderMatters) {
-        if (v1 == null) {
-            return v2 == null;
-        } else if (v2 == null) {
-            return v1 == null;
+        if (v1 == v2) {
+            return true;
+        } else if (v1 == null || v2 == null) {
+            return false;
         } else if (v1 instanceof Map && v2 instanceof Map) {
             final Map<String, Object> m1 = (Map<String, Object>) v1;
             final Map<String, Object> m2 = (Map<String, Object>) v2;
             if (m1.size() != m2.size()) {
                 return false;
             }
+            // node references are compared without walking their members
+            if (m1.size() == 1 && m1.containsKey(JsonLdConsts.ID)) {
+                return m2.containsKey(JsonLdConsts.ID)
+                        && deepCompare(m1.get(JsonLdConsts.ID), m2.get(JsonLdConsts.ID),
+                                listOrderMatters);
+            }
             for (final String key : m1.keySet()) {
                 if (!m2.containsKey(key)
                         || !deepCompare(m1.get(key), m2.get(key), listOrderMatters)) {
@@ -58,25 +58,33 @@ public class JsonLdUtils {
         } else if (v1 instanceof List && v2 instanceof List) {
             final List<Object> l1 = (List<Object>) v1;
             final List<Object> l2 = (List<Object>) v2;
-            if (l1.size() != l2.size()) {
-
+            final int size = l1.size();
+            if (size != l2.size()) {
                 return false;
             }
-            // used to mark members of l2 that we have already matched to avoid
+            if (listOrderMatters) {
+                for (int i = 0; i < size; i++) {
+                    if (!deepCompare(l1.get(i), l2.get(i), listOrderMatters)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            if (size > MAX_SCANNED_ITEMS) {
+                return sameItems(l1, l2);
+            }
+            // mark members of l2 that we have already matched to avoid
             // matching the same item twice for lists that have duplicates
-            final boolean alreadyMatched[] = new boolean[l2.size()];
-            for (int i = 0; i < l1.size(); i++) {
+            int matched = 0;
+            for (int i = 0; i < size; i++) {
                 final Object o1 = l1.get(i);
-                Boolean gotmatch = false;
-                if (listOrderMatters) {
-                    gotmatch = deepCompare(o1, l2.get(i), listOrderMatters);
-                } else {
-                    for (int j = 0; j < l2.size(); j++) {
-                        if (!alreadyMatched[j] && deepCompare(o1, l2.get(j), listOrderMatters)) {
-                            alreadyMatched[j] = true;
-                            gotmatch = true;
-                            break;
-                        }
+                boolean gotmatch = false;
+                for (int j = 0; j < size; j++) {
+                    if ((matched & (1 << j)) == 0
+                            && deepCompare(o1, l2.get(j), listOrderMatters)) {
+                        matched |= 1 << j;
+                        gotmatch = true;
+                        break;
                     }
                 }
                 if (!gotmatch) {
@@ -93,6 +101,88 @@ public class JsonLdUtils {
         return deepCompare(v1, v2, false);
     }
 
+    /**
+     * The length of the longest arrays whose items are compared with each
+     * other, rather than by their hash codes first.
+     */
+    private static final int MAX_SCANNED_ITEMS = 16;
+
+    private static final int ID_HASH = JsonLdConsts.ID.hashCode();
+
+    /**
+     * Tells whether two lists of the same length hold the same items in any
+     * order, only comparing the items that have the same
+     * {@link #deepHashCode(Object)}.
+     */
+    private static boolean sameItems(List<Object> l1, List<Object> l2) {
+        final int size = l1.size();
+        // the hash code of each item of l2 followed by its index, in order
+        final long[] byHash = new long[size];
+        for (int j = 0; j < size; j++) {
+            byHash[j] = ((long) deepHashCode(l2.get(j)) << 32) | j;
+        }
+        Arrays.sort(byHash);
+        final boolean[] alreadyMatched = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            final Object o1 = l1.get(i);
+            final int hash = deepHashCode(o1);
+            int k = Arrays.binarySearch(byHash, (long) hash << 32);
+            if (k < 0) {
+                k = -k - 1;
+            }
+            boolean gotmatch = false;
+            for (; k < size && (int) (byHash[k] >> 32) == hash; k++) {
+                final int j = (int) byHash[k];
+                if (!alreadyMatched[j] && deepCompare(o1, l2.get(j), false)) {
+                    alreadyMatched[j] = true;
+                    gotmatch = true;
+                    break;
+                }
+            }
+            if (!gotmatch) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash code for a JSON-LD value that is the same for values that
+     * {@link #deepCompare(Object, Object)} finds equal, so it does not depend
+     * on the order of the members of objects or the items of arrays.
+     *
+     * Node references are hashed from their @id, without walking their
+     * members.
+     *
+     * @param value
+     *            the value.
+     * @return The hash code.
+     */
+    static int deepHashCode(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof Map) {
+            final Map<String, Object> map = (Map<String, Object>) value;
+            // the same sum as for any other map
+            if (map.size() == 1 && map.containsKey(JsonLdConsts.ID)) {
+                return ID_HASH ^ deepHashCode(map.get(JsonLdConsts.ID));
+            }
+            int hash = 0;
+            for (final Map.Entry<String, Object> entry : map.entrySet()) {
+                hash += entry.getKey().hashCode() ^ deepHashCode(entry.getValue());
+            }
+            return hash;
+        } else if (value instanceof List) {
+            final List<Object> list = (List<Object>) value;
+            int hash = list.size();
+            for (int i = 0; i < list.size(); i++) {
+                hash += deepHashCode(list.get(i));
+            }
+            return hash;
+        }
+        return value.hashCode();
+    }
+
     public static boolean deepContains(List<Object> values, Object value) {
         for (final Object item : values) {
             if (deepCompare(item, value, false)) {
@@ -108,12 +198,15 @@ public class JsonLdUtils {
         }
         List<Object> values = (List<Object>) obj.get(key);
         if (values == null) {
-            values = new ArrayList<Object>();
+            values = new ValueList();
             obj.put(key, values);
         }
         if ("@list".equals(key)
-                || (value instanceof Map && ((Map<String, Object>) value).containsKey("@list"))
-                || !deepContains(values, value)) {
+                || (value instanceof Map && ((Map<String, Object>) value).containsKey("@list"))) {
+            values.add(value);
+        } else if (values instanceof ValueList) {
+            ((ValueList) values).addDistinct(value);
+        } else if (!deepContains(values, value)) {
             values.add(value);
         }
     }
@@ -682,6 +775,14 @@ public class JsonLdUtils {
      * @return true if v1 and v2 are considered equal, false if not.
      */
     static boolean compareValues(Object v1, Object v2) {
+        // nodes are compared by @id before the maps are walked
+        if (v1 instanceof Map && v2 instanceof Map) {
+            final Object id = ((Map<String, Object>) v1).get("@id");
+            if (id != null && id.equals(((Map<String, Object>) v2).get("@id"))) {
+                return true;
+            }
+        }
+
         if (v1.equals(v2)) {
             return true;
         }
@@ -699,13 +800,6 @@ public class JsonLdUtils {
             return true;
         }
 
-        if ((v1 instanceof Map && ((Map<String, Object>) v1).containsKey("@id"))
-                && (v2 instanceof Map && ((Map<String, Object>) v2).containsKey("@id"))
-                && ((Map<String, Object>) v1).get("@id").equals(
-                        ((Map<String, Object>) v2).get("@id"))) {
-            return true;
-        }
-
         return false;
     }
 
@@ -848,33 +942,65 @@ public class JsonLdUtils {
         return false;
     }
 
-    static Object clone(Object value) {// throws
-        // CloneNotSupportedException {
-        Object rval = null;
-        if (value instanceof Cloneable) {
-            try {
-                rval = value.getClass().getMethod("clone").invoke(value);
-            } catch (final Exception e) {
-                rval = e;
+    /**
+     * Returns a deep copy of a JSON tree. Maps and lists are copied into new
+     * {@link LinkedHashMap}s and {@link ArrayList}s, and strings, numbers,
+     * booleans and null are shared, as they are immutable.
+     *
+     * @param value
+     *            the value to copy.
+     * @return The copy.
+     */
+    @SuppressWarnings("unchecked")
+    static Object clone(Object value) {
+        if (value instanceof Map) {
+            final Map<String, Object> map = (Map<String, Object>) value;
+            final Map<String, Object> copy = new LinkedHashMap<String, Object>(
+                    capacity(map.size()));
+            for (final Map.Entry<String, Object> entry : map.entrySet()) {
+                copy.put(entry.getKey(), clone(entry.getValue()));
             }
+            return copy;
         }
-        if (rval == null || rval instanceof Exception) {
-            // the object wasn't cloneable, or an error occured
-            if (value == null || value instanceof String || value instanceof Number
-                    || value instanceof Boolean) {
-                // strings numbers and booleans are immutable
-                rval = value;
+        if (value instanceof List) {
+            final List<Object> list = (List<Object>) value;
+            final int size = list.size();
+            final List<Object> copy = new ArrayList<Object>(size);
+            if (list instanceof RandomAccess) {
+                for (int i = 0; i < size; i++) {
+                    copy.add(clone(list.get(i)));
+                }
             } else {
-                // TODO: making this throw runtime exception so it doesn't have
-                // to be caught
-                // because simply it should never fail in the case of JSON-LD
-                // and means that
-                // the input JSON-LD is invalid
-                throw new RuntimeException(new CloneNotSupportedException(
-                        (rval instanceof Exception ? ((Exception) rval).getMessage() : "")));
+                for (final Object item : list) {
+                    copy.add(clone(item));
+                }
             }
+            return copy;
         }
-        return rval;
+        if (value == null || value instanceof String || value instanceof Number
+                || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Cloneable) {
+            // not JSON, but kept working as it did before
+            try {
+                return value.getClass().getMethod("clone").invoke(value);
+            } catch (final Exception e) {
+                throw new RuntimeException(new CloneNotSupportedException(e.getMessage()));
+            }
+        }
+        // TODO: making this throw runtime exception so it doesn't have to be
+        // caught because simply it should never fail in the case of JSON-LD
+        // and means that the input JSON-LD is invalid
+        throw new RuntimeException(new CloneNotSupportedException(value.getClass().getName()));
+    }
+
+    /**
+     * Returns the capacity of a hash map that holds the given number of
+     * entries without being resized.
+     */
+    private static int capacity(int size) {
+        return size < 3 ? size + 1 : (int) (size / 0.75f) + 1;
     }
 
     /**
@@ -0,0 +1,93 @@
+package com.github.jsonldjava.core;
+
+/**
+ * Numbers the JSON-LD keywords, so that code handling a key can switch on
+ * its number instead of comparing it with each keyword in turn.
+ *
+ * A key is looked up by its second character, and its length or third
+ * character, and then compared with a single keyword. Keys that do not start with '@', which are
+ * most keys, are rejected by their first character. This does not need keys
+ * to be interned, which the JSON parser avoids on purpose.
+ */
+final class Keywords {
+
+    static final int NONE = 0;
+    static final int BASE = 1;
+    static final int CONTAINER = 2;
+    static final int CONTEXT = 3;
+    static final int DEFAULT = 4;
+    static final int EMBED = 5;
+    static final int EXPLICIT = 6;
+    static final int GRAPH = 7;
+    static final int ID = 8;
+    static final int INDEX = 9;
+    static final int LANGUAGE = 10;
+    static final int LIST = 11;
+    static final int OMIT_DEFAULT = 12;
+    static final int PRESERVE = 13;
+    static final int REVERSE = 14;
+    static final int SET = 15;
+    static final int TYPE = 16;
+    static final int VALUE = 17;
+    static final int VOCAB = 18;
+
+    private Keywords() {
+    }
+
+    /**
+     * Returns the number of a keyword.
+     *
+     * @param key
+     *            the key, which may be null or not a string.
+     * @return The number of the keyword, or {@link #NONE} if the key is not a
+     *         keyword.
+     */
+    static int of(Object key) {
+        if (!(key instanceof String)) {
+            return NONE;
+        }
+        final String k = (String) key;
+        if (k.length() < 3 || k.charAt(0) != '@') {
+            return NONE;
+        }
+        switch (k.charAt(1)) {
+        case 'b':
+            return is(k, JsonLdConsts.BASE, BASE);
+        case 'c':
+            return k.length() == 8 ? is(k, JsonLdConsts.CONTEXT, CONTEXT)
+                    : is(k, JsonLdConsts.CONTAINER, CONTAINER);
+        case 'd':
+            return is(k, JsonLdConsts.DEFAULT, DEFAULT);
+        case 'e':
+            return k.length() == 6 ? is(k, JsonLdConsts.EMBED, EMBED)
+                    : is(k, JsonLdConsts.EXPLICIT, EXPLICIT);
+        case 'g':
+            return is(k, JsonLdConsts.GRAPH, GRAPH);
+        case 'i':
+            return k.length() == 3 ? is(k, JsonLdConsts.ID, ID) : is(k, JsonLdConsts.INDEX,
+                    INDEX);
+        case 'l':
+            return k.length() == 5 ? is(k, JsonLdConsts.LIST, LIST) : is(k,
+                    JsonLdConsts.LANGUAGE, LANGUAGE);
+        case 'o':
+            return is(k, JsonLdConsts.OMIT_DEFAULT, OMIT_DEFAULT);
+        case 'p':
+            return is(k, JsonLdConsts.PRESERVE, PRESERVE);
+        case 'r':
+            return is(k, JsonLdConsts.REVERSE, REVERSE);
+        case 's':
+            return is(k, JsonLdConsts.SET, SET);
+        case 't':
+            return is(k, JsonLdConsts.TYPE, TYPE);
+        case 'v':
+            return k.charAt(2) == 'a' ? is(k, JsonLdConsts.VALUE, VALUE) : is(k,
+                    JsonLdConsts.VOCAB, VOCAB);
+        default:
+            return NONE;
+        }
+    }
+
+    private static int is(String key, String keyword, int number) {
+        return keyword.equals(key) ? number : NONE;
+    }
+}
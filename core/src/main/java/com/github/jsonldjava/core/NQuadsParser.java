@@ -0,0 +1,479 @@
+package com.github.jsonldjava.core;
+
+import static com.github.jsonldjava.core.JsonLdConsts.RDF_LANGSTRING;
+import static com.github.jsonldjava.core.JsonLdConsts.XSD_STRING;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * A streaming N-Quads parser.
+ *
+ * The input is read one character at a time, looking ahead no further than a
+ * run of dots in a blank node label, and each quad is handed to a
+ * {@link QuadSink} as soon as its line has been read, so documents of any size
+ * can be parsed. Syntax errors report the line and column they were found at.
+ */
+public class NQuadsParser {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int pos = 0;
+    private int limit = 0;
+
+    private int line = 1;
+    private int column = 0;
+
+    // reused for the text of every term
+    private final StringBuilder token = new StringBuilder();
+
+    /**
+     * Creates a parser over the given reader. The reader is not closed.
+     *
+     * @param reader
+     *            The N-Quads document.
+     */
+    public NQuadsParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Creates a parser over the given UTF-8 encoded stream. The stream is not
+     * closed.
+     *
+     * @param input
+     *            The N-Quads document.
+     */
+    public NQuadsParser(InputStream input) {
+        this(new InputStreamReader(input, UTF_8));
+    }
+
+    /**
+     * Creates a parser over the remaining bytes of the given UTF-8 encoded
+     * buffer, which are consumed as the document is parsed.
+     *
+     * @param input
+     *            The N-Quads document.
+     */
+    public NQuadsParser(ByteBuffer input) {
+        this(new ByteBufferInputStream(input));
+    }
+
+    /**
+     * Parses the whole document into a new dataset. Duplicate quads are only
+     * added once.
+     *
+     * @return The dataset.
+     * @throws JsonLdError
+     *             If the document is not valid N-Quads or could not be read.
+     */
+    public RDFDataset parse() throws JsonLdError {
+        final RDFDataset dataset = new RDFDataset();
+        parse(new QuadSink() {
+            @Override
+            public void onQuad(RDFDataset.Node subject, RDFDataset.Node predicate,
+                    RDFDataset.Node object, String graph) {
+                dataset.addQuad(new RDFDataset.Quad(subject, predicate, object, graph));
+            }
+        });
+        return dataset;
+    }
+
+    /**
+     * Parses the whole document, passing each quad to the given sink in
+     * document order.
+     *
+     * @param sink
+     *            The sink to receive the quads.
+     * @throws JsonLdError
+     *             If the document is not valid N-Quads or could not be read,
+     *             or if the sink throws it.
+     */
+    public void parse(QuadSink sink) throws JsonLdError {
+        try {
+            while (true) {
+                skipWhitespace();
+                final int c = peek();
+                if (c == EOF) {
+                    return;
+                }
+                if (c != '#' && c != '\n' && c != '\r') {
+                    statement(sink);
+                    skipWhitespace();
+                }
+                if (peek() == '#') {
+                    skipComment();
+                }
+                endOfLine();
+            }
+        } catch (final IOException e) {
+            throw new JsonLdError(JsonLdError.Error.LOADING_DOCUMENT_FAILED,
+                    "Error while reading N-Quads", e);
+        }
+    }
+
+    private void statement(QuadSink sink) throws IOException, JsonLdError {
+        final RDFDataset.Node subject = subjectOrGraph("subject");
+        skipWhitespace();
+        if (peek() != '<') {
+            throw error("expected predicate IRI");
+        }
+        final RDFDataset.Node predicate = new RDFDataset.IRI(iri());
+        skipWhitespace();
+        final RDFDataset.Node object;
+        if (peek() == '"') {
+            object = literal();
+        } else {
+            object = subjectOrGraph("object");
+        }
+        skipWhitespace();
+        String graph = null;
+        if (peek() != '.') {
+            graph = subjectOrGraph("graph name or '.'").getValue();
+            skipWhitespace();
+            if (peek() != '.') {
+                throw error("expected '.'");
+            }
+        }
+        next();
+        sink.onQuad(subject, predicate, object, graph);
+    }
+
+    private RDFDataset.Node subjectOrGraph(String expected) throws IOException, JsonLdError {
+        final int c = peek();
+        if (c == '<') {
+            return new RDFDataset.IRI(iri());
+        } else if (c == '_') {
+            return new RDFDataset.BlankNode(blankNode());
+        }
+        throw error("expected " + expected);
+    }
+
+    private String iri() throws IOException, JsonLdError {
+        next();
+        token.setLength(0);
+        while (true) {
+            final int c = peek();
+            if (c == '>') {
+                next();
+                return token.toString();
+            } else if (c == '\\') {
+                next();
+                final int e = peek();
+                if (e != 'u' && e != 'U') {
+                    throw error("invalid escape in IRI");
+                }
+                escape();
+            } else if (c == EOF || c == '\n' || c == '\r') {
+                throw error("unterminated IRI");
+            } else {
+                token.append((char) next());
+            }
+        }
+    }
+
+    private String blankNode() throws IOException, JsonLdError {
+        next();
+        if (peek() != ':') {
+            throw error("expected ':'");
+        }
+        next();
+        token.setLength(0);
+        token.append("_:");
+        int c = peekCodePoint(0);
+        if (!isLabelStart(c)) {
+            throw error("invalid blank node label");
+        }
+        appendNext(c);
+        while (true) {
+            c = peekCodePoint(0);
+            if (isLabelChar(c)) {
+                appendNext(c);
+            } else if (c == '.') {
+                // a label may contain, but not end with, a run of '.'
+                int dots = 1;
+                while (peek(dots) == '.') {
+                    dots++;
+                }
+                if (!isLabelChar(peekCodePoint(dots))) {
+                    return token.toString();
+                }
+                for (int i = 0; i < dots; i++) {
+                    token.append((char) next());
+                }
+            } else {
+                return token.toString();
+            }
+        }
+    }
+
+    /**
+     * Appends the next character, or the two that make up a supplementary
+     * code point, to the token.
+     */
+    private void appendNext(int codePoint) throws IOException {
+        for (int i = Character.charCount(codePoint); i > 0; i--) {
+            token.append((char) next());
+        }
+    }
+
+    private RDFDataset.Literal literal() throws IOException, JsonLdError {
+        next();
+        token.setLength(0);
+        while (true) {
+            final int c = peek();
+            if (c == '"') {
+                next();
+                break;
+            } else if (c == '\\') {
+                next();
+                escape();
+            } else if (c == EOF || c == '\n' || c == '\r') {
+                throw error("unterminated string");
+            } else {
+                token.append((char) next());
+            }
+        }
+        final String value = token.toString();
+        if (peek() == '^') {
+            next();
+            if (peek() != '^') {
+                throw error("expected '^^'");
+            }
+            next();
+            if (peek() != '<') {
+                throw error("expected datatype IRI");
+            }
+            return new RDFDataset.Literal(value, iri(), null);
+        } else if (peek() == '@') {
+            next();
+            token.setLength(0);
+            // [a-zA-Z]+ ('-' [a-zA-Z0-9]+)*
+            int c = peek();
+            if (!isAsciiLetter(c)) {
+                throw error("invalid language tag");
+            }
+            while (isAsciiLetter(c)) {
+                token.append((char) next());
+                c = peek();
+            }
+            while (c == '-') {
+                token.append((char) next());
+                c = peek();
+                if (!isAsciiLetter(c) && !isAsciiDigit(c)) {
+                    throw error("invalid language tag");
+                }
+                while (isAsciiLetter(c) || isAsciiDigit(c)) {
+                    token.append((char) next());
+                    c = peek();
+                }
+            }
+            return new RDFDataset.Literal(value, RDF_LANGSTRING, token.toString());
+        }
+        return new RDFDataset.Literal(value, XSD_STRING, null);
+    }
+
+    /**
+     * Reads the escape sequence after a backslash and appends the character
+     * it stands for to the token.
+     */
+    private void escape() throws IOException, JsonLdError {
+        final int c = peek();
+        switch (c) {
+        case 't':
+            token.append('\t');
+            break;
+        case 'b':
+            token.append('\b');
+            break;
+        case 'n':
+            token.append('\n');
+            break;
+        case 'r':
+            token.append('\r');
+            break;
+        case 'f':
+            token.append('\f');
+            break;
+        case '"':
+        case '\'':
+        case '\\':
+            token.append((char) c);
+            break;
+        case 'u':
+        case 'U':
+            next();
+            int codePoint = 0;
+            for (int i = c == 'u' ? 4 : 8; i > 0; i--) {
+                final int digit = Character.digit(peek(), 16);
+                if (digit < 0) {
+                    throw error("invalid unicode escape");
+                }
+                next();
+                codePoint = (codePoint << 4) | digit;
+            }
+            if (!Character.isValidCodePoint(codePoint)) {
+                throw error("invalid unicode escape");
+            }
+            token.appendCodePoint(codePoint);
+            return;
+        default:
+            throw error("invalid escape");
+        }
+        next();
+    }
+
+    private void skipWhitespace() throws IOException {
+        int c = peek();
+        while (c == ' ' || c == '\t') {
+            next();
+            c = peek();
+        }
+    }
+
+    private void skipComment() throws IOException {
+        int c = peek();
+        while (c != EOF && c != '\n' && c != '\r') {
+            next();
+            c = peek();
+        }
+    }
+
+    private void endOfLine() throws IOException, JsonLdError {
+        final int c = peek();
+        if (c == EOF) {
+            return;
+        } else if (c == '\r') {
+            next();
+            if (peek() == '\n') {
+                next();
+            }
+        } else if (c == '\n') {
+            next();
+        } else {
+            throw error("expected end of line");
+        }
+        line++;
+        column = 0;
+    }
+
+    private static boolean isAsciiLetter(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLabelStart(int c) {
+        return c >= 0
+                && (Character.isLetterOrDigit(c) || c == '_' || (c >= 0x10000 && c <= 0xEFFFF));
+    }
+
+    private static boolean isLabelChar(int c) {
+        return isLabelStart(c) || c == '-' || c == 0xB7;
+    }
+
+    private JsonLdError error(String message) {
+        return new JsonLdError(JsonLdError.Error.SYNTAX_ERROR, "Error while parsing N-Quads; "
+                + message + ". line:" + line + " column:" + (column + 1));
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[pos];
+    }
+
+    /**
+     * @return The character the given number of characters after the next
+     *         one, or EOF if the input ends first or it is further ahead than
+     *         the buffer holds.
+     */
+    private int peek(int offset) throws IOException {
+        while (pos + offset >= limit) {
+            final int buffered = limit - pos;
+            if (!fill() || limit - pos == buffered) {
+                return EOF;
+            }
+        }
+        return buffer[pos + offset];
+    }
+
+    /**
+     * @return The code point starting the given number of characters after
+     *         the next one, or EOF.
+     */
+    private int peekCodePoint(int offset) throws IOException {
+        final int c = offset == 0 ? peek() : peek(offset);
+        if (c != EOF && Character.isHighSurrogate((char) c)) {
+            final int low = peek(offset + 1);
+            if (low != EOF && Character.isLowSurrogate((char) low)) {
+                return Character.toCodePoint((char) c, (char) low);
+            }
+        }
+        return c;
+    }
+
+    private int next() throws IOException {
+        final int c = peek();
+        if (c != EOF) {
+            pos++;
+            column++;
+        }
+        return c;
+    }
+
+    /**
+     * Moves any unread characters to the start of the buffer and reads more
+     * after them.
+     *
+     * @return False if the end of the input has been reached.
+     */
+    private boolean fill() throws IOException {
+        final int remaining = limit - pos;
+        System.arraycopy(buffer, pos, buffer, 0, remaining);
+        pos = 0;
+        limit = remaining;
+        final int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read <= 0) {
+            return remaining > 0;
+        }
+        limit += read;
+        return true;
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.github.jsonldjava.core;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts serialized quads and writes them to a stream as an N-Quads document.
+ *
+ * Quads are kept in memory until there are more than the run size. Then they
+ * are sorted and written to a temporary file, and at the end the sorted files
+ * are merged into the output, so only one quad of each file is held in memory
+ * at a time. At most {@link #MAX_FAN_IN} files are read at once: if there are
+ * more, the oldest are first merged into larger temporary files until the
+ * rest can be merged into the output in one pass. The temporary files are
+ * deleted when the sorter is closed.
+ *
+ * Quads are compared as strings, which orders them as
+ * {@link Collections#sort(List)} does in the in-memory normalization.
+ */
+class NQuadsSorter implements Closeable {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int BUFFER_SIZE = 65536;
+
+    /**
+     * The number of files merged at once by default.
+     */
+    static final int MAX_FAN_IN = 64;
+
+    /**
+     * The number of characters buffered for all the files of a merge, which
+     * is shared between them.
+     */
+    private static final int MERGE_BUFFER_SIZE = 1 << 20;
+    private static final int MIN_BUFFER_SIZE = 4096;
+
+    private final int runSize;
+    private final File directory;
+    private final int fanIn;
+    private final List<String> run = new ArrayList<String>();
+    private final List<File> files = new ArrayList<File>();
+
+    /**
+     * Creates a sorter.
+     *
+     * @param runSize
+     *            the number of quads to sort in memory, or zero for no limit.
+     * @param directory
+     *            the directory for the temporary files, or null for the default
+     *            temporary directory.
+     */
+    NQuadsSorter(int runSize, File directory) {
+        this(runSize, directory, MAX_FAN_IN);
+    }
+
+    /**
+     * Creates a sorter that merges the given number of files at once.
+     *
+     * @param runSize
+     *            the number of quads to sort in memory, or zero for no limit.
+     * @param directory
+     *            the directory for the temporary files, or null for the default
+     *            temporary directory.
+     * @param fanIn
+     *            the number of files to merge at once, at least 2.
+     */
+    NQuadsSorter(int runSize, File directory, int fanIn) {
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("fanIn must be at least 2: " + fanIn);
+        }
+        this.runSize = runSize;
+        this.directory = directory;
+        this.fanIn = fanIn;
+    }
+
+    /**
+     * Adds a quad.
+     *
+     * @param nquad
+     *            the quad as a single line of N-Quads, ending with a newline.
+     * @throws IOException
+     *             If a sorted run could not be written.
+     */
+    void add(String nquad) throws IOException {
+        run.add(nquad);
+        if (runSize > 0 && run.size() >= runSize) {
+            spill();
+        }
+    }
+
+    private void spill() throws IOException {
+        Collections.sort(run);
+        final Writer writer = newRun();
+        try {
+            for (final String nquad : run) {
+                writer.write(nquad);
+            }
+        } finally {
+            writer.close();
+        }
+        run.clear();
+    }
+
+    /**
+     * Creates a temporary file at the end of the list of runs.
+     *
+     * @return A writer to the file.
+     */
+    private Writer newRun() throws IOException {
+        final File file = File.createTempFile("jsonld-normalize", ".nq", directory);
+        files.add(file);
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF_8),
+                BUFFER_SIZE);
+    }
+
+    /**
+     * Writes all quads to the given stream in sorted order, encoded as UTF-8.
+     * The stream is flushed but not closed.
+     *
+     * @param output
+     *            the stream.
+     * @throws IOException
+     *             If a temporary file could not be read or the stream could
+     *             not be written.
+     */
+    void writeTo(OutputStream output) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(output, UTF_8),
+                BUFFER_SIZE);
+        if (files.isEmpty()) {
+            Collections.sort(run);
+            for (final String nquad : run) {
+                writer.write(nquad);
+            }
+            writer.flush();
+            return;
+        }
+        if (!run.isEmpty()) {
+            spill();
+        }
+
+        // merge the oldest runs until the rest can be merged at once, merging
+        // only as many as needed for the last pass to be full
+        while (files.size() > fanIn) {
+            final int count = Math.min(fanIn, files.size() - fanIn + 1);
+            final List<File> group = new ArrayList<File>(files.subList(0, count));
+            final Writer merged = newRun();
+            try {
+                merge(group, merged);
+            } finally {
+                merged.close();
+            }
+            files.subList(0, count).clear();
+            for (final File file : group) {
+                file.delete();
+            }
+        }
+        merge(files, writer);
+        writer.flush();
+    }
+
+    /**
+     * Merges sorted files, taking the least quad of any file each time. A
+     * newline sorts before every character of a serialized quad, so the lines
+     * compare as the quads do.
+     */
+    private static void merge(List<File> group, Writer writer) throws IOException {
+        final int bufferSize = Math.max(MIN_BUFFER_SIZE, MERGE_BUFFER_SIZE / group.size());
+        final PriorityQueue<Run> runs = new PriorityQueue<Run>(group.size());
+        try {
+            for (final File file : group) {
+                final Run next = new Run(file, bufferSize);
+                if (next.advance()) {
+                    runs.add(next);
+                }
+            }
+            while (!runs.isEmpty()) {
+                final Run least = runs.poll();
+                writer.write(least.line);
+                writer.write('\n');
+                if (least.advance()) {
+                    runs.add(least);
+                }
+            }
+        } finally {
+            for (final Run remaining : runs) {
+                remaining.reader.close();
+            }
+        }
+    }
+
+    /**
+     * Deletes the temporary files.
+     */
+    @Override
+    public void close() {
+        for (final File file : files) {
+            file.delete();
+        }
+        files.clear();
+        run.clear();
+    }
+
+    /**
+     * A sorted temporary file and the line read last.
+     */
+    private static final class Run implements Comparable<Run> {
+        final BufferedReader reader;
+        String line;
+
+        Run(File file, int bufferSize) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                    UTF_8), bufferSize);
+        }
+
+        /**
+         * Reads the next line, closing the file at its end.
+         *
+         * @return false if there are no more lines.
+         */
+        boolean advance() throws IOException {
+            line = reader.readLine();
+            if (line == null) {
+                reader.close();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int compareTo(Run other) {
+            return line.compareTo(other.line);
+        }
+    }
+}
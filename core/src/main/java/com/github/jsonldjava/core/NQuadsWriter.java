@@ -0,0 +1,144 @@
+package com.github.jsonldjava.core;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * A streaming N-Quads writer.
+ *
+ * Each quad is escaped into a reused buffer, which is passed on to the
+ * underlying writer whenever it fills up, so a dataset of any size can be
+ * serialized without holding the whole document in memory. Quads are written
+ * in the order they are received, which unlike
+ * {@link RDFDatasetUtils#toNQuads(RDFDataset)} is not sorted.
+ *
+ * The writer can be passed as a {@link QuadSink} to
+ * {@link JsonLdProcessor#toRDF(Object, JsonLdOptions, QuadSink)}, to write
+ * each quad as soon as it is produced, or as a {@link JsonLdTripleCallback}
+ * to {@link JsonLdProcessor#toRDF(Object, JsonLdTripleCallback, JsonLdOptions)}
+ * to write a whole dataset.
+ */
+public class NQuadsWriter implements QuadSink, JsonLdTripleCallback, Flushable, Closeable {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Writer writer;
+    private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE + 256);
+    private final char[] chars = new char[BUFFER_SIZE + 256];
+
+    /**
+     * Creates a writer that writes to the given writer.
+     *
+     * @param writer
+     *            The writer for the N-Quads document.
+     */
+    public NQuadsWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Creates a writer that writes to the given stream, encoded as UTF-8.
+     *
+     * @param output
+     *            The stream for the N-Quads document.
+     */
+    public NQuadsWriter(OutputStream output) {
+        this(new OutputStreamWriter(output, UTF_8));
+    }
+
+    /**
+     * Writes a single quad.
+     *
+     * @throws JsonLdError
+     *             If the quad could not be written.
+     */
+    @Override
+    public void onQuad(RDFDataset.Node subject, RDFDataset.Node predicate,
+            RDFDataset.Node object, String graph) throws JsonLdError {
+        RDFDatasetUtils.toNQuad(subject, predicate, object, graph, null, buffer);
+        if (buffer.length() >= BUFFER_SIZE) {
+            try {
+                drain();
+            } catch (final IOException e) {
+                throw new JsonLdError(JsonLdError.Error.UNKNOWN_ERROR,
+                        "Error while writing N-Quads", e);
+            }
+        }
+    }
+
+    /**
+     * Writes a single quad.
+     *
+     * @param quad
+     *            The quad to write.
+     * @throws JsonLdError
+     *             If the quad could not be written.
+     */
+    public void write(RDFDataset.Quad quad) throws JsonLdError {
+        final RDFDataset.Node graph = quad.getGraph();
+        onQuad(quad.getSubject(), quad.getPredicate(), quad.getObject(),
+                graph == null ? null : graph.getValue());
+    }
+
+    /**
+     * Writes every quad of the dataset, graph by graph, and flushes the
+     * writer.
+     *
+     * @return Null, as the quads have been written to the underlying writer.
+     */
+    @Override
+    public Object call(RDFDataset dataset) {
+        try {
+            for (final String graphName : dataset.graphNames()) {
+                final List<RDFDataset.Quad> quads = dataset.getQuads(graphName);
+                final String graph = "@default".equals(graphName) ? null : graphName;
+                for (final RDFDataset.Quad quad : quads) {
+                    onQuad(quad.getSubject(), quad.getPredicate(), quad.getObject(), graph);
+                }
+            }
+            flush();
+        } catch (final JsonLdError e) {
+            throw new RuntimeException(e);
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+        return null;
+    }
+
+    /**
+     * Writes any buffered quads and flushes the underlying writer.
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        writer.flush();
+    }
+
+    /**
+     * Writes any buffered quads and closes the underlying writer.
+     */
+    @Override
+    public void close() throws IOException {
+        drain();
+        writer.close();
+    }
+
+    private void drain() throws IOException {
+        int start = 0;
+        final int length = buffer.length();
+        while (start < length) {
+            final int end = Math.min(length, start + chars.length);
+            buffer.getChars(start, end, chars, 0);
+            writer.write(chars, 0, end - start);
+            start = end;
+        }
+        buffer.setLength(0);
+    }
+}
@@ -1,42 +1,254 @@
 package com.github.jsonldjava.core;
 
-import static com.github.jsonldjava.core.RDFDatasetUtils.parseNQuads;
 import static com.github.jsonldjava.core.RDFDatasetUtils.toNQuad;
 
-import java.io.UnsupportedEncodingException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
-import com.github.jsonldjava.utils.Obj;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 class NormalizeUtils {
 
+    private static final int HASH_BATCH_SIZE = 1024;
+
     private final UniqueNamer namer;
-    private final Map<String, Object> bnodes;
-    private final List<Object> quads;
+    private final Map<String, BlankNodeInfo> bnodes = new LinkedHashMap<String, BlankNodeInfo>();
+    // the same blank nodes, indexed by their id
+    private final List<BlankNodeInfo> bnodeIds = new ArrayList<BlankNodeInfo>();
+    private final List<RDFDataset.Quad> quads;
     private final JsonLdOptions options;
 
-    public NormalizeUtils(List<Object> quads, Map<String, Object> bnodes, UniqueNamer namer,
-            JsonLdOptions options) {
+    private final String hashAlgorithm;
+    // hashes blank nodes in parallel if not null
+    private final ExecutorService executor;
+
+    public NormalizeUtils(List<RDFDataset.Quad> quads, UniqueNamer namer, JsonLdOptions options)
+            throws JsonLdError {
         this.options = options;
         this.quads = quads;
-        this.bnodes = bnodes;
         this.namer = namer;
+        this.executor = options.getNormalizationExecutor();
+        this.hashAlgorithm = options.getHashAlgorithm() == null ? "SHA-1" : options
+                .getHashAlgorithm();
+        Hasher.check(hashAlgorithm);
+
+        // map each bnode to the quads it appears in, once for each position
+        for (final RDFDataset.Quad quad : quads) {
+            final BlankNodeInfo subject = blankNode(quad.getSubject());
+            final BlankNodeInfo object = blankNode(quad.getObject());
+            final BlankNodeInfo graph = blankNode(quad.getGraph());
+            if (subject == null && object == null && graph == null) {
+                continue;
+            }
+            final QuadTemplate template = new QuadTemplate(quad, subject, object);
+            for (final BlankNodeInfo bnode : new BlankNodeInfo[] { subject, object, graph }) {
+                if (bnode != null) {
+                    bnode.quads.add(template);
+                }
+            }
+        }
+    }
+
+    private BlankNodeInfo blankNode(RDFDataset.Node node) {
+        if (node == null || !node.isBlankNode()) {
+            return null;
+        }
+        BlankNodeInfo bnode = bnodes.get(node.getValue());
+        if (bnode == null) {
+            bnode = new BlankNodeInfo(bnodeIds.size(), node.getValue());
+            bnodes.put(bnode.name, bnode);
+            bnodeIds.add(bnode);
+        }
+        return bnode;
+    }
+
+    /**
+     * A blank node of the dataset being normalized.
+     */
+    private static final class BlankNodeInfo {
+        final int id;
+        final String name;
+        final List<QuadTemplate> quads = new ArrayList<QuadTemplate>();
+        // the hash of the quads, once computed
+        String hash;
+
+        BlankNodeInfo(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    /**
+     * A quad serialized once, leaving out the blank nodes in the subject and
+     * object position, which are filled in as _:a or _:z for whichever blank
+     * node the quad is hashed for. A blank node graph name is always _:g.
+     */
+    private static final class QuadTemplate {
+        // the blank node ids of the subject and object, or -1 if not blank
+        final int subject;
+        final int object;
+        final String predicate;
+        final String serializedSubject;
+        final String serializedPredicate;
+        final String serializedObject;
+        final String serializedGraph;
+
+        QuadTemplate(RDFDataset.Quad quad, BlankNodeInfo subject, BlankNodeInfo object) {
+            this.subject = subject == null ? -1 : subject.id;
+            this.object = object == null ? -1 : object.id;
+            this.predicate = quad.getPredicate().getValue();
+            final StringBuilder output = new StringBuilder();
+            if (subject == null) {
+                RDFDatasetUtils.toNQuadTerm(quad.getSubject(), output);
+            }
+            this.serializedSubject = output.toString();
+            output.setLength(0);
+            RDFDatasetUtils.toNQuadPredicate(quad.getPredicate(), output);
+            this.serializedPredicate = output.toString();
+            output.setLength(0);
+            if (object == null) {
+                RDFDatasetUtils.toNQuadTerm(quad.getObject(), output);
+            }
+            this.serializedObject = output.toString();
+            output.setLength(0);
+            final RDFDataset.Node graph = quad.getGraph();
+            if (graph != null && graph.isBlankNode()) {
+                output.append(" _:g");
+            } else if (graph != null) {
+                output.append(" <");
+                RDFDatasetUtils.escape(graph.getValue(), output);
+                output.append(">");
+            }
+            output.append(" .\n");
+            this.serializedGraph = output.toString();
+        }
+
+        /**
+         * Appends the quad as serialized for hashing the given blank node.
+         */
+        void serialize(int bnode, StringBuilder output) {
+            if (subject < 0) {
+                output.append(serializedSubject);
+            } else {
+                output.append(subject == bnode ? "_:a" : "_:z");
+            }
+            output.append(serializedPredicate);
+            if (object < 0) {
+                output.append(serializedObject);
+            } else {
+                output.append(object == bnode ? "_:a" : "_:z");
+            }
+            output.append(serializedGraph);
+        }
+    }
+
+    /**
+     * Assigns canonical names to all blank nodes and serializes the dataset.
+     *
+     * @return the normalized dataset, as an N-Quads document or an RDF dataset
+     *         depending on the format option.
+     * @throws JsonLdError
+     *             If the format is not supported.
+     */
+    public Object hashBlankNodes() throws JsonLdError {
+        nameBlankNodes();
+        final List<CanonicalQuad> normalized = new ArrayList<CanonicalQuad>(quads.size());
+        for (final RDFDataset.Quad quad : quads) {
+            final RDFDataset.Quad canonical = canonicalize(quad);
+            normalized.add(new CanonicalQuad(serialize(canonical), canonical));
+        }
+        return output(normalized, options);
+    }
+
+    /**
+     * Assigns canonical names to all blank nodes and writes the dataset to the
+     * given stream as a sorted N-Quads document, through temporary files if
+     * it has more quads than the run size option.
+     *
+     * @param output
+     *            the stream, which is flushed but not closed.
+     * @throws JsonLdError
+     *             If the document could not be written.
+     */
+    public void hashBlankNodes(OutputStream output) throws JsonLdError {
+        nameBlankNodes();
+        final NQuadsSorter sorter = new NQuadsSorter(options.getNormalizationRunSize(),
+                options.getNormalizationTempDirectory());
+        try {
+            for (final RDFDataset.Quad quad : quads) {
+                sorter.add(serialize(canonicalize(quad)));
+            }
+            sorter.writeTo(output);
+        } catch (final IOException e) {
+            throw new JsonLdError(JsonLdError.Error.UNKNOWN_ERROR,
+                    "Error while writing N-Quads", e);
+        } finally {
+            sorter.close();
+        }
+    }
+
+    /**
+     * Assigns canonical names to all blank nodes and returns the digest of the
+     * normalized dataset, as computed by {@link DatasetDigest}, without
+     * sorting or keeping its serialization.
+     *
+     * @return the digest in lower case hex.
+     * @throws JsonLdError
+     *             If there was an error while hashing.
+     */
+    public String digest() throws JsonLdError {
+        nameBlankNodes();
+        final DatasetDigest digest = new DatasetDigest(hashAlgorithm, quads.size());
+        final StringBuilder line = new StringBuilder(128);
+        for (final RDFDataset.Quad quad : quads) {
+            line.setLength(0);
+            serializeCanonical(quad, line);
+            digest.add(line);
+        }
+        return digest.digest();
+    }
+
+    // Note: once all bnodes in the set of RDF quads have been assigned
+    // canonical names, which are stored in the 'namer' object, each quad is
+    // updated by assigning each of its bnodes its new name
+    private RDFDataset.Quad canonicalize(RDFDataset.Quad quad) {
+        final RDFDataset.Node name = canonicalize(quad.getGraph());
+        return new RDFDataset.Quad(canonicalize(quad.getSubject()), quad.getPredicate(),
+                canonicalize(quad.getObject()), name != null ? name.getValue() : null);
+    }
+
+    private static String serialize(RDFDataset.Quad quad) {
+        return toNQuad(quad, quad.getGraph() != null ? quad.getGraph().getValue() : null);
+    }
+
+    /**
+     * Appends a quad with the canonical names of its blank nodes, without
+     * creating the canonical quad or its line.
+     */
+    private void serializeCanonical(RDFDataset.Quad quad, StringBuilder output) {
+        final RDFDataset.Node name = canonicalize(quad.getGraph());
+        RDFDatasetUtils.toNQuad(canonicalize(quad.getSubject()), quad.getPredicate(),
+                canonicalize(quad.getObject()), name != null ? name.getValue() : null, null,
+                output);
     }
 
     // generates unique and duplicate hashes for bnodes 
-    public Object hashBlankNodes(Collection<String> unnamed_) throws JsonLdError {
-        List<String> unnamed = new ArrayList<String>(unnamed_);
-        List<String> nextUnnamed = new ArrayList<String>();
-        Map<String, List<String>> duplicates = new LinkedHashMap<String, List<String>>();
-        Map<String, String> unique = new LinkedHashMap<String, String>();
+    private void nameBlankNodes() throws JsonLdError {
+        if (executor != null) {
+            hashAllQuads();
+        }
+        List<BlankNodeInfo> unnamed = new ArrayList<BlankNodeInfo>(bnodes.values());
+        List<BlankNodeInfo> nextUnnamed = new ArrayList<BlankNodeInfo>();
+        Map<String, List<BlankNodeInfo>> duplicates = new LinkedHashMap<String, List<BlankNodeInfo>>();
+        Map<String, BlankNodeInfo> unique = new LinkedHashMap<String, BlankNodeInfo>();
 
         // NOTE: not using the same structure as javascript here to avoid
         // possible stack overflows
@@ -48,8 +260,7 @@ class NormalizeUtils {
                 List<String> hashes = new ArrayList<String>(unique.keySet());
                 Collections.sort(hashes);
                 for (final String hash : hashes) {
-                    final String bnode = unique.get(hash);
-                    namer.getName(bnode);
+                    namer.getName(unique.get(hash).name);
                     named = true;
                 }
 
@@ -62,9 +273,9 @@ class NormalizeUtils {
                     // hashBlankNodes(unnamed);
                     hui = -1;
                     unnamed = nextUnnamed;
-                    nextUnnamed = new ArrayList<String>();
-                    duplicates = new LinkedHashMap<String, List<String>>();
-                    unique = new LinkedHashMap<String, String>();
+                    nextUnnamed = new ArrayList<BlankNodeInfo>();
+                    duplicates = new LinkedHashMap<String, List<BlankNodeInfo>>();
+                    unique = new LinkedHashMap<String, BlankNodeInfo>();
                     continue;
                 }
                 // name the duplicate hash bnods
@@ -77,70 +288,17 @@ class NormalizeUtils {
                     // process each group
                     for (int pgi = 0;; pgi++) {
                         if (pgi == hashes.size()) {
-                            // done, create JSON-LD array
-                            // return createArray();
-                            final List<String> normalized = new ArrayList<String>();
-
-                            // Note: At this point all bnodes in the set of RDF
-                            // quads have been
-                            // assigned canonical names, which have been stored
-                            // in the 'namer' object.
-                            // Here each quad is updated by assigning each of
-                            // its bnodes its new name
-                            // via the 'namer' object
-
-                            // update bnode names in each quad and serialize
-                            for (int cai = 0; cai < quads.size(); ++cai) {
-                                final Map<String, Object> quad = (Map<String, Object>) quads
-                                        .get(cai);
-                                for (final String attr : new String[] { "subject", "object", "name" }) {
-                                    if (quad.containsKey(attr)) {
-                                        final Map<String, Object> qa = (Map<String, Object>) quad
-                                                .get(attr);
-                                        if (qa != null
-                                                && "blank node".equals(qa.get("type"))
-                                                && ((String) qa.get("value")).indexOf("_:c14n") != 0) {
-                                            qa.put("value",
-                                                    namer.getName((String) qa.get(("value"))));
-                                        }
-                                    }
-                                }
-                                normalized
-                                .add(toNQuad(
-                                        (RDFDataset.Quad) quad,
-                                        quad.containsKey("name")
-                                        && quad.get("name") != null ? (String) ((Map<String, Object>) quad
-                                                .get("name")).get("value") : null));
-                            }
-
-                            // sort normalized output
-                            Collections.sort(normalized);
-
-                            // handle output format
-                            if (options.format != null) {
-                                if ("application/nquads".equals(options.format)) {
-                                    StringBuilder rval = new StringBuilder();
-                                    for (final String n : normalized) {
-                                        rval.append(n);
-                                    }
-                                    return rval.toString();
-                                } else {
-                                    throw new JsonLdError(JsonLdError.Error.UNKNOWN_FORMAT,
-                                            options.format);
-                                }
-                            }
-                            StringBuilder rval = new StringBuilder();
-                            for (final String n : normalized) {
-                                rval.append(n);
-                            }
-                            return parseNQuads(rval.toString());
+                            // done
+                            return;
                         }
 
                         // name each group member
-                        final List<String> group = duplicates.get(hashes.get(pgi));
+                        final List<BlankNodeInfo> group = duplicates.get(hashes.get(pgi));
                         final List<HashResult> results = new ArrayList<HashResult>();
+                        final List<Future<HashResult>> futures = new ArrayList<Future<HashResult>>();
                         for (int n = 0;; n++) {
                             if (n == group.size()) {
+                                results.addAll(getAll(futures));
                                 // name bnodes in hash order
                                 Collections.sort(results, new Comparator<HashResult>() {
                                     @Override
@@ -162,17 +320,28 @@ class NormalizeUtils {
                                 break;
                             } else {
                                 // skip already-named bnodes
-                                final String bnode = group.get(n);
-                                if (namer.isNamed(bnode)) {
+                                final BlankNodeInfo bnode = group.get(n);
+                                if (namer.isNamed(bnode.name)) {
                                     continue;
                                 }
 
                                 // hash bnode paths
                                 final UniqueNamer pathNamer = new UniqueNamer("_:b");
-                                pathNamer.getName(bnode);
+                                pathNamer.getName(bnode.name);
 
-                                final HashResult result = hashPaths(bnode, bnodes, namer, pathNamer);
-                                results.add(result);
+                                if (executor == null) {
+                                    results.add(hashPaths(bnode, pathNamer, 0));
+                                } else {
+                                    // the members of a group only read the
+                                    // canonical names, which are assigned
+                                    // once all of them are hashed
+                                    futures.add(executor.submit(new Callable<HashResult>() {
+                                        @Override
+                                        public HashResult call() {
+                                            return hashPaths(bnode, pathNamer, 0);
+                                        }
+                                    }));
+                                }
                             }
                         }
                     }
@@ -180,15 +349,15 @@ class NormalizeUtils {
             }
 
             // hash unnamed bnode
-            final String bnode = unnamed.get(hui);
-            final String hash = hashQuads(bnode, bnodes, namer);
+            final BlankNodeInfo bnode = unnamed.get(hui);
+            final String hash = hashQuads(bnode);
 
             // store hash as unique or a duplicate
             if (duplicates.containsKey(hash)) {
                 duplicates.get(hash).add(bnode);
                 nextUnnamed.add(bnode);
             } else if (unique.containsKey(hash)) {
-                final List<String> tmp = new ArrayList<String>();
+                final List<BlankNodeInfo> tmp = new ArrayList<BlankNodeInfo>();
                 tmp.add(unique.get(hash));
                 tmp.add(bnode);
                 duplicates.put(hash, tmp);
@@ -201,6 +370,80 @@ class NormalizeUtils {
         }
     }
 
+    /**
+     * A quad of a normalized dataset, with its canonical blank node names,
+     * and its serialization, which it is sorted by.
+     */
+    static final class CanonicalQuad implements Comparable<CanonicalQuad> {
+        final String nquad;
+        final RDFDataset.Quad quad;
+
+        CanonicalQuad(String nquad, RDFDataset.Quad quad) {
+            this.nquad = nquad;
+            this.quad = quad;
+        }
+
+        @Override
+        public int compareTo(CanonicalQuad other) {
+            return nquad.compareTo(other.nquad);
+        }
+    }
+
+    /**
+     * Sorts the quads of a normalized dataset and returns them in the format
+     * the options ask for.
+     *
+     * @param normalized
+     *            the quads, with their canonical blank node names.
+     * @param options
+     *            the options, of which only the format is used.
+     * @return the N-Quads document, or an RDF dataset if no format is given,
+     *         which is built from the quads themselves rather than by parsing
+     *         the document.
+     * @throws JsonLdError
+     *             If the format is not supported.
+     */
+    static Object output(List<CanonicalQuad> normalized, JsonLdOptions options)
+            throws JsonLdError {
+        // handle output format
+        if (options.format != null && !JsonLdConsts.APPLICATION_NQUADS.equals(options.format)) {
+            throw new JsonLdError(JsonLdError.Error.UNKNOWN_FORMAT, options.format);
+        }
+
+        // sort normalized output
+        Collections.sort(normalized);
+
+        if (options.format != null) {
+            int length = 0;
+            for (final CanonicalQuad n : normalized) {
+                length += n.nquad.length();
+            }
+            final StringBuilder rval = new StringBuilder(length);
+            for (final CanonicalQuad n : normalized) {
+                rval.append(n.nquad);
+            }
+            return rval.toString();
+        }
+        // added in the order of the document, so the graphs and quads are in
+        // the order parsing it would give them
+        final RDFDataset rval = new RDFDataset();
+        for (final CanonicalQuad n : normalized) {
+            rval.addQuad(n.quad);
+        }
+        return rval;
+    }
+
+    /**
+     * Returns the given node, or a blank node with its canonical name if the
+     * given node is a blank node that has not been renamed yet.
+     */
+    private RDFDataset.Node canonicalize(RDFDataset.Node node) {
+        if (node != null && node.isBlankNode() && node.getValue().indexOf("_:c14n") != 0) {
+            return new RDFDataset.BlankNode(namer.getName(node.getValue()));
+        }
+        return node;
+    }
+
     private static class HashResult {
         String hash;
         UniqueNamer pathNamer;
@@ -213,285 +456,258 @@ class NormalizeUtils {
      * lexicographically-least 'path' serializations.
      *
      * @param id
-     *            the ID of the bnode to hash paths for.
-     * @param bnodes
-     *            the map of bnode quads.
-     * @param namer
-     *            the canonical bnode namer.
+     *            the bnode to hash paths for.
      * @param pathNamer
      *            the namer used to assign names to adjacent bnodes.
-     * @param callback
-     *            (err, result) called once the operation completes.
+     * @param depth
+     *            the level of recursion, which picks the hasher to use.
      */
-    private static HashResult hashPaths(String id, Map<String, Object> bnodes, UniqueNamer namer,
-            UniqueNamer pathNamer) {
-        try {
-            // create SHA-1 digest
-            final MessageDigest md = MessageDigest.getInstance("SHA-1");
-
-            final Map<String, List<String>> groups = new LinkedHashMap<String, List<String>>();
-            List<String> groupHashes;
-            final List<Object> quads = (List<Object>) ((Map<String, Object>) bnodes.get(id))
-                    .get("quads");
-
-            for (int hpi = 0;; hpi++) {
-                if (hpi == quads.size()) {
-                    // done , hash groups
-                    groupHashes = new ArrayList<String>(groups.keySet());
-                    Collections.sort(groupHashes);
-                    for (int hgi = 0;; hgi++) {
-                        if (hgi == groupHashes.size()) {
-                            final HashResult res = new HashResult();
-                            res.hash = encodeHex(md.digest());
-                            res.pathNamer = pathNamer;
-                            return res;
-                        }
-
-                        // digest group hash
-                        final String groupHash = groupHashes.get(hgi);
-                        md.update(groupHash.getBytes("UTF-8"));
-
-                        // choose a path and namer from the permutations
-                        String chosenPath = null;
-                        UniqueNamer chosenNamer = null;
-                        final Permutator permutator = new Permutator(groups.get(groupHash));
-                        while (true) {
-                            Boolean contPermutation = false;
-                            Boolean breakOut = false;
-                            final List<String> permutation = permutator.next();
-                            UniqueNamer pathNamerCopy = pathNamer.clone();
-
-                            // build adjacent path
-                            String path = "";
-                            final List<String> recurse = new ArrayList<String>();
-                            for (final String bnode : permutation) {
-                                // use canonical name if available
-                                if (namer.isNamed(bnode)) {
-                                    path += namer.getName(bnode);
-                                } else {
-                                    // recurse if bnode isn't named in the path
-                                    // yet
-                                    if (!pathNamerCopy.isNamed(bnode)) {
-                                        recurse.add(bnode);
-                                    }
-                                    path += pathNamerCopy.getName(bnode);
-                                }
+    private HashResult hashPaths(BlankNodeInfo id, UniqueNamer pathNamer, int depth) {
+        // the hasher of each level after the one for quads and groups
+        final Hasher md = Hasher.get(hashAlgorithm, depth + 1);
+
+        final Map<String, List<String>> groups = new LinkedHashMap<String, List<String>>();
+        List<String> groupHashes;
+        final List<QuadTemplate> quads = id.quads;
+
+        for (int hpi = 0;; hpi++) {
+            if (hpi == quads.size()) {
+                // done , hash groups
+                groupHashes = new ArrayList<String>(groups.keySet());
+                Collections.sort(groupHashes);
+                for (int hgi = 0;; hgi++) {
+                    if (hgi == groupHashes.size()) {
+                        final HashResult res = new HashResult();
+                        res.hash = md.digest();
+                        res.pathNamer = pathNamer;
+                        return res;
+                    }
 
-                                // skip permutation if path is already >= chosen
-                                // path
-                                if (chosenPath != null && path.length() >= chosenPath.length()
-                                        && path.compareTo(chosenPath) > 0) {
-                                    // return nextPermutation(true);
-                                    if (permutator.hasNext()) {
-                                        contPermutation = true;
-                                    } else {
-                                        // digest chosen path and update namer
-                                        md.update(chosenPath.getBytes("UTF-8"));
-                                        pathNamer = chosenNamer;
-                                        // hash the nextGroup
-                                        breakOut = true;
-                                    }
-                                    break;
+                    // digest group hash
+                    final String groupHash = groupHashes.get(hgi);
+                    md.update(groupHash);
+
+                    // choose a path and namer from the permutations
+                    String chosenPath = null;
+                    UniqueNamer chosenNamer = null;
+                    final Permutator permutator = new Permutator(groups.get(groupHash));
+                    while (true) {
+                        Boolean contPermutation = false;
+                        Boolean breakOut = false;
+                        final List<String> permutation = permutator.next();
+                        UniqueNamer pathNamerCopy = pathNamer.clone();
+
+                        // build adjacent path
+                        String path = "";
+                        final List<String> recurse = new ArrayList<String>();
+                        for (final String bnode : permutation) {
+                            // use canonical name if available
+                            if (namer.isNamed(bnode)) {
+                                path += namer.getName(bnode);
+                            } else {
+                                // recurse if bnode isn't named in the path
+                                // yet
+                                if (!pathNamerCopy.isNamed(bnode)) {
+                                    recurse.add(bnode);
                                 }
+                                path += pathNamerCopy.getName(bnode);
                             }
 
-                            // if we should do the next permutation
-                            if (contPermutation) {
-                                continue;
-                            }
-                            // if we should stop processing this group
-                            if (breakOut) {
+                            // skip permutation if path is already >= chosen
+                            // path
+                            if (chosenPath != null && path.length() >= chosenPath.length()
+                                    && path.compareTo(chosenPath) > 0) {
+                                // return nextPermutation(true);
+                                if (permutator.hasNext()) {
+                                    contPermutation = true;
+                                } else {
+                                    // digest chosen path and update namer
+                                    md.update(chosenPath);
+                                    pathNamer = chosenNamer;
+                                    // hash the nextGroup
+                                    breakOut = true;
+                                }
                                 break;
                             }
+                        }
 
-                            // does the next recursion
-                            for (int nrn = 0;; nrn++) {
-                                if (nrn == recurse.size()) {
-                                    // return nextPermutation(false);
-                                    if (chosenPath == null || path.compareTo(chosenPath) < 0) {
-                                        chosenPath = path;
-                                        chosenNamer = pathNamerCopy;
-                                    }
-                                    if (!permutator.hasNext()) {
-                                        // digest chosen path and update namer
-                                        md.update(chosenPath.getBytes("UTF-8"));
-                                        pathNamer = chosenNamer;
-                                        // hash the nextGroup
-                                        breakOut = true;
-                                    }
-                                    break;
-                                }
+                        // if we should do the next permutation
+                        if (contPermutation) {
+                            continue;
+                        }
+                        // if we should stop processing this group
+                        if (breakOut) {
+                            break;
+                        }
 
-                                // do recursion
-                                final String bnode = recurse.get(nrn);
-                                final HashResult result = hashPaths(bnode, bnodes, namer,
-                                        pathNamerCopy);
-                                path += pathNamerCopy.getName(bnode) + "<" + result.hash + ">";
-                                pathNamerCopy = result.pathNamer;
-
-                                // skip permutation if path is already >= chosen
-                                // path
-                                if (chosenPath != null && path.length() >= chosenPath.length()
-                                        && path.compareTo(chosenPath) > 0) {
-                                    // return nextPermutation(true);
-                                    if (!permutator.hasNext()) {
-                                        // digest chosen path and update namer
-                                        md.update(chosenPath.getBytes("UTF-8"));
-                                        pathNamer = chosenNamer;
-                                        // hash the nextGroup
-                                        breakOut = true;
-                                    }
-                                    break;
+                        // does the next recursion
+                        for (int nrn = 0;; nrn++) {
+                            if (nrn == recurse.size()) {
+                                // return nextPermutation(false);
+                                if (chosenPath == null || path.compareTo(chosenPath) < 0) {
+                                    chosenPath = path;
+                                    chosenNamer = pathNamerCopy;
                                 }
-                                // do next recursion
+                                if (!permutator.hasNext()) {
+                                    // digest chosen path and update namer
+                                    md.update(chosenPath);
+                                    pathNamer = chosenNamer;
+                                    // hash the nextGroup
+                                    breakOut = true;
+                                }
+                                break;
                             }
 
-                            // if we should stop processing this group
-                            if (breakOut) {
+                            // do recursion
+                            final String bnode = recurse.get(nrn);
+                            final HashResult result = hashPaths(bnodes.get(bnode),
+                                    pathNamerCopy, depth + 1);
+                            path += pathNamerCopy.getName(bnode) + "<" + result.hash + ">";
+                            pathNamerCopy = result.pathNamer;
+
+                            // skip permutation if path is already >= chosen
+                            // path
+                            if (chosenPath != null && path.length() >= chosenPath.length()
+                                    && path.compareTo(chosenPath) > 0) {
+                                // return nextPermutation(true);
+                                if (!permutator.hasNext()) {
+                                    // digest chosen path and update namer
+                                    md.update(chosenPath);
+                                    pathNamer = chosenNamer;
+                                    // hash the nextGroup
+                                    breakOut = true;
+                                }
                                 break;
                             }
+                            // do next recursion
+                        }
+
+                        // if we should stop processing this group
+                        if (breakOut) {
+                            break;
                         }
                     }
                 }
+            }
 
-                // get adjacent bnode
-                final Map<String, Object> quad = (Map<String, Object>) quads.get(hpi);
-                String bnode = getAdjacentBlankNodeName((Map<String, Object>) quad.get("subject"),
-                        id);
-                String direction = null;
-                if (bnode != null) {
-                    // normal property
-                    direction = "p";
+            // get adjacent bnode
+            final QuadTemplate quad = quads.get(hpi);
+            BlankNodeInfo adjacent = null;
+            String direction = null;
+            if (quad.subject >= 0 && quad.subject != id.id) {
+                // normal property
+                adjacent = bnodeIds.get(quad.subject);
+                direction = "p";
+            } else if (quad.object >= 0 && quad.object != id.id) {
+                // reverse property
+                adjacent = bnodeIds.get(quad.object);
+                direction = "r";
+            }
+
+            if (adjacent != null) {
+                final String bnode = adjacent.name;
+                // get bnode name (try canonical, path, then hash)
+                String name;
+                if (namer.isNamed(bnode)) {
+                    name = namer.getName(bnode);
+                } else if (pathNamer.isNamed(bnode)) {
+                    name = pathNamer.getName(bnode);
                 } else {
-                    bnode = getAdjacentBlankNodeName((Map<String, Object>) quad.get("object"), id);
-                    if (bnode != null) {
-                        // reverse property
-                        direction = "r";
-                    }
+                    name = hashQuads(adjacent);
                 }
 
-                if (bnode != null) {
-                    // get bnode name (try canonical, path, then hash)
-                    String name;
-                    if (namer.isNamed(bnode)) {
-                        name = namer.getName(bnode);
-                    } else if (pathNamer.isNamed(bnode)) {
-                        name = pathNamer.getName(bnode);
-                    } else {
-                        name = hashQuads(bnode, bnodes, namer);
-                    }
-
-                    // hash direction, property, end bnode name/hash
-                    final MessageDigest md1 = MessageDigest.getInstance("SHA-1");
-                    // String toHash = direction + (String) ((Map<String,
-                    // Object>) quad.get("predicate")).get("value") + name;
-                    md1.update(direction.getBytes("UTF-8"));
-                    md1.update(((String) ((Map<String, Object>) quad.get("predicate")).get("value"))
-                            .getBytes("UTF-8"));
-                    md1.update(name.getBytes("UTF-8"));
-                    final String groupHash = encodeHex(md1.digest());
-                    if (groups.containsKey(groupHash)) {
-                        groups.get(groupHash).add(bnode);
-                    } else {
-                        final List<String> tmp = new ArrayList<String>();
-                        tmp.add(bnode);
-                        groups.put(groupHash, tmp);
-                    }
+                // hash direction, property, end bnode name/hash
+                final String groupHash = Hasher.get(hashAlgorithm, 0).update(direction)
+                        .update(quad.predicate).update(name).digest();
+                if (groups.containsKey(groupHash)) {
+                    groups.get(groupHash).add(bnode);
+                } else {
+                    final List<String> tmp = new ArrayList<String>();
+                    tmp.add(bnode);
+                    groups.put(groupHash, tmp);
                 }
             }
-        } catch (final NoSuchAlgorithmException e) {
-            // TODO: i don't expect that SHA-1 is even NOT going to be
-            // available?
-            // look into this further
-            throw new RuntimeException(e);
-        } catch (final UnsupportedEncodingException e) {
-            // TODO: i don't expect that UTF-8 is ever not going to be available
-            // either
-            throw new RuntimeException(e);
         }
     }
 
     /**
      * Hashes all of the quads about a blank node.
      *
-     * @param id
-     *            the ID of the bnode to hash quads for.
-     * @param bnodes
-     *            the mapping of bnodes to quads.
-     * @param namer
-     *            the canonical bnode namer.
+     * @param bnode
+     *            the bnode to hash quads for.
      *
      * @return the new hash.
      */
-    private static String hashQuads(String id, Map<String, Object> bnodes, UniqueNamer namer) {
+    private String hashQuads(BlankNodeInfo bnode) {
         // return cached hash
-        if (((Map<String, Object>) bnodes.get(id)).containsKey("hash")) {
-            return (String) ((Map<String, Object>) bnodes.get(id)).get("hash");
+        if (bnode.hash != null) {
+            return bnode.hash;
         }
 
         // serialize all of bnode's quads
-        final List<Map<String, Object>> quads = (List<Map<String, Object>>) ((Map<String, Object>) bnodes
-                .get(id)).get("quads");
-        final List<String> nquads = new ArrayList<String>();
-        for (int i = 0; i < quads.size(); ++i) {
-            nquads.add(toNQuad((RDFDataset.Quad) quads.get(i),
-                    quads.get(i).get("name") != null ? (String) ((Map<String, Object>) quads.get(i)
-                            .get("name")).get("value") : null, id));
+        final List<String> nquads = new ArrayList<String>(bnode.quads.size());
+        final StringBuilder nquad = new StringBuilder();
+        for (final QuadTemplate quad : bnode.quads) {
+            nquad.setLength(0);
+            quad.serialize(bnode.id, nquad);
+            nquads.add(nquad.toString());
         }
         // sort serialized quads
         Collections.sort(nquads);
         // return hashed quads
-        final String hash = sha1hash(nquads);
-        ((Map<String, Object>) bnodes.get(id)).put("hash", hash);
-        return hash;
+        final Hasher md = Hasher.get(hashAlgorithm, 0);
+        for (final String n : nquads) {
+            md.update(n);
+        }
+        bnode.hash = md.digest();
+        return bnode.hash;
     }
 
     /**
-     * A helper class to sha1 hash all the strings in a collection
-     *
-     * @param nquads
-     * @return
+     * Hashes the quads of every bnode on the executor, in batches, so that
+     * the hashes are only read from then on.
      */
-    private static String sha1hash(Collection<String> nquads) {
-        try {
-            // create SHA-1 digest
-            final MessageDigest md = MessageDigest.getInstance("SHA-1");
-            for (final String nquad : nquads) {
-                md.update(nquad.getBytes("UTF-8"));
-            }
-            return encodeHex(md.digest());
-        } catch (final NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-        } catch (final UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
+    private void hashAllQuads() throws JsonLdError {
+        final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        final List<BlankNodeInfo> all = new ArrayList<BlankNodeInfo>(bnodes.values());
+        for (int start = 0; start < all.size(); start += HASH_BATCH_SIZE) {
+            final List<BlankNodeInfo> batch = all.subList(start,
+                    Math.min(all.size(), start + HASH_BATCH_SIZE));
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (final BlankNodeInfo bnode : batch) {
+                        hashQuads(bnode);
+                    }
+                    return null;
+                }
+            }));
         }
+        getAll(futures);
     }
 
-    // TODO: this is something to optimize
-    private static String encodeHex(final byte[] data) {
-        String rval = "";
-        for (final byte b : data) {
-            rval += String.format("%02x", b);
+    private static <T> List<T> getAll(List<Future<T>> futures) throws JsonLdError {
+        final List<T> results = new ArrayList<T>(futures.size());
+        try {
+            for (final Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JsonLdError(JsonLdError.Error.UNKNOWN_ERROR,
+                    "Interrupted while hashing blank nodes", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new JsonLdError(JsonLdError.Error.UNKNOWN_ERROR,
+                    "Error while hashing blank nodes", e.getCause());
+        } finally {
+            for (final Future<T> future : futures) {
+                future.cancel(true);
+            }
         }
-        return rval;
-    }
-
-    /**
-     * A helper function that gets the blank node name from an RDF quad node
-     * (subject or object). If the node is a blank node and its value does not
-     * match the given blank node ID, it will be returned.
-     *
-     * @param node
-     *            the RDF quad node.
-     * @param id
-     *            the ID of the blank node to look next to.
-     *
-     * @return the adjacent blank node name or null if none was found.
-     */
-    private static String getAdjacentBlankNodeName(Map<String, Object> node, String id) {
-        return "blank node".equals(node.get("type"))
-                && (!node.containsKey("value") || !Obj.equals(node.get("value"), id)) ? (String) node
-                        .get("value") : null;
+        return results;
     }
 
     private static class Permutator {
@@ -501,7 +717,7 @@ class NormalizeUtils {
         private final Map<String, Boolean> left;
 
         public Permutator(List<String> list) {
-            this.list = (List<String>) JsonLdUtils.clone(list);
+            this.list = new ArrayList<String>(list);
             Collections.sort(this.list);
             this.done = false;
             this.left = new LinkedHashMap<String, Boolean>();
@@ -526,7 +742,7 @@ class NormalizeUtils {
          * @return the next permutation.
          */
         public List<String> next() {
-            final List<String> rval = (List<String>) JsonLdUtils.clone(this.list);
+            final List<String> rval = new ArrayList<String>(this.list);
 
             // Calculate the next permutation using Steinhaus-Johnson-Trotter
             // permutation algoritm
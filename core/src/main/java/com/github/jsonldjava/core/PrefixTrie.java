@@ -0,0 +1,126 @@
+package com.github.jsonldjava.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A character trie over the IRI mappings of the term definitions of a
+ * {@link Context}, used by step 5 of the IRI Compaction Algorithm to find
+ * every term whose IRI mapping is a prefix of the IRI being compacted without
+ * looking at every term definition.
+ *
+ * Instances are immutable once built.
+ */
+final class PrefixTrie {
+
+    /**
+     * A term together with the length of its IRI mapping.
+     */
+    static final class Match {
+        final String term;
+        final int length;
+
+        Match(String term, int length) {
+            this.term = term;
+            this.length = length;
+        }
+    }
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Match[] NO_MATCHES = new Match[0];
+
+    private static final class Node {
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        Match[] matches = NO_MATCHES;
+
+        Node child(char c) {
+            final int i = Arrays.binarySearch(keys, c);
+            return i < 0 ? null : children[i];
+        }
+
+        Node getOrAddChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            i = -i - 1;
+            final char[] newKeys = new char[keys.length + 1];
+            final Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            newKeys[i] = c;
+            newChildren[i] = new Node();
+            System.arraycopy(keys, i, newKeys, i + 1, keys.length - i);
+            System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[i];
+        }
+
+        void addMatch(Match match) {
+            matches = Arrays.copyOf(matches, matches.length + 1);
+            matches[matches.length - 1] = match;
+        }
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * Builds the trie for the given term definitions, skipping the terms that
+     * step 5.1 and 5.2 of the IRI Compaction Algorithm would skip regardless
+     * of the IRI being compacted.
+     *
+     * @param termDefinitions
+     *            The term definitions of the active context.
+     */
+    PrefixTrie(Map<String, Object> termDefinitions) {
+        for (final Map.Entry<String, Object> entry : termDefinitions.entrySet()) {
+            final String term = entry.getKey();
+            // 5.1)
+            if (term.contains(":") || !(entry.getValue() instanceof Map)) {
+                continue;
+            }
+            final Object id = ((Map<String, Object>) entry.getValue()).get(JsonLdConsts.ID);
+            if (!(id instanceof String)) {
+                continue;
+            }
+            final String iri = (String) id;
+            Node node = root;
+            for (int i = 0; i < iri.length(); i++) {
+                node = node.getOrAddChild(iri.charAt(i));
+            }
+            node.addMatch(new Match(term, iri.length()));
+        }
+    }
+
+    /**
+     * Finds the terms whose IRI mapping is a prefix of, but not equal to, the
+     * given IRI.
+     *
+     * @param iri
+     *            The IRI being compacted.
+     * @return The matching terms, shortest IRI mapping first.
+     */
+    List<Match> findProperPrefixes(String iri) {
+        List<Match> rval = null;
+        Node node = root;
+        for (int i = 0; node != null && i < iri.length(); i++) {
+            if (node.matches.length > 0) {
+                if (rval == null) {
+                    rval = new ArrayList<Match>();
+                }
+                rval.addAll(Arrays.asList(node.matches));
+            }
+            node = node.child(iri.charAt(i));
+        }
+        if (rval == null) {
+            return Collections.emptyList();
+        }
+        return rval;
+    }
+}
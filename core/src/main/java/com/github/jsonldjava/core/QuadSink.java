@@ -0,0 +1,30 @@
+package com.github.jsonldjava.core;
+
+import com.github.jsonldjava.core.RDFDataset.Node;
+
+/**
+ * Receives RDF quads one at a time as they are produced, for instance by
+ * {@link JsonLdProcessor#toRDF(Object, JsonLdOptions, QuadSink)}, so that they
+ * do not have to be collected in an {@link RDFDataset} first.
+ */
+public interface QuadSink {
+
+    /**
+     * Called once for each quad.
+     *
+     * @param subject
+     *            The subject, an IRI or a blank node.
+     * @param predicate
+     *            The predicate, an IRI, or a blank node if generalized RDF is
+     *            produced.
+     * @param object
+     *            The object, an IRI, a blank node or a literal.
+     * @param graph
+     *            The name of the graph, an IRI or a blank node identifier, or
+     *            null for the default graph.
+     * @throws JsonLdError
+     *             To stop the conversion.
+     */
+    public void onQuad(Node subject, Node predicate, Node object, String graph)
+            throws JsonLdError;
+}
@@ -16,22 +16,30 @@ import static com.github.jsonldjava.core.JsonLdUtils.isString;
 import static com.github.jsonldjava.core.JsonLdUtils.isValue;
 import static com.github.jsonldjava.utils.Obj.newMap;
 
+import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.regex.Pattern;
 
+import com.github.jsonldjava.utils.Obj;
+
 /**
  * Starting to migrate away from using plain java Maps as the internal RDF
- * dataset store. Currently each item just wraps a Map based on the old format
- * so everything doesn't break. Will phase this out once everything is using the
- * new format.
+ * dataset store. Quads and nodes are plain value objects, with
+ * {@link Quad#asMap()} and {@link Node#asMap()} giving read-only views in the
+ * old map format. The dataset itself is still a Map from graph names to lists
+ * of quads.
  *
  * @author Tristan
  *
@@ -43,8 +51,18 @@ public class RDFDataset extends LinkedHashMap<String, Object> {
     private static final Pattern PATTERN_DOUBLE = Pattern
             .compile("^(\\+|-)?([0-9]+(\\.[0-9]*)?|\\.[0-9]+)([Ee](\\+|-)?[0-9]+)?$");
 
-    public static class Quad extends LinkedHashMap<String, Object> implements Comparable<Quad> {
-        private static final long serialVersionUID = -7021918051975883082L;
+    /**
+     * An RDF quad. Quads are immutable; the graph name is null for quads in
+     * the default graph.
+     */
+    public static final class Quad implements Comparable<Quad>, Serializable {
+        private static final long serialVersionUID = -1851247432938463702L;
+
+        private final Node subject;
+        private final Node predicate;
+        private final Node object;
+        private final Node graph;
+        private final int hash;
 
         public Quad(final String subject, final String predicate, final String object,
                 final String graph) {
@@ -64,31 +82,56 @@ public class RDFDataset extends LinkedHashMap<String, Object> {
         };
 
         public Quad(final Node subject, final Node predicate, final Node object, final String graph) {
-            super();
-            put("subject", subject);
-            put("predicate", predicate);
-            put("object", object);
+            this.subject = subject;
+            this.predicate = predicate;
+            this.object = object;
             if (graph != null && !"@default".equals(graph)) {
-                // TODO: i'm not yet sure if this should be added or if the
-                // graph should only be represented by the keys in the dataset
-                put("name", graph.startsWith("_:") ? new BlankNode(graph) : new IRI(graph));
+                this.graph = graph.startsWith("_:") ? new BlankNode(graph) : new IRI(graph);
+            } else {
+                this.graph = null;
             }
+            int h = hashOf(subject);
+            h = 31 * h + hashOf(predicate);
+            h = 31 * h + hashOf(object);
+            this.hash = 31 * h + hashOf(this.graph);
         }
 
         public Node getSubject() {
-            return (Node) get("subject");
+            return subject;
         }
 
         public Node getPredicate() {
-            return (Node) get("predicate");
+            return predicate;
         }
 
         public Node getObject() {
-            return (Node) get("object");
+            return object;
         }
 
+        /**
+         * @return The name of the graph this quad belongs to, or null if it is
+         *         in the default graph.
+         */
         public Node getGraph() {
-            return (Node) get("name");
+            return graph;
+        }
+
+        /**
+         * Returns a read-only view of this quad in the map layout used by
+         * earlier versions, with "subject", "predicate", "object" and, for
+         * named graphs, "name" keys mapped to {@link Node#asMap()} views.
+         *
+         * @return A new unmodifiable map.
+         */
+        public Map<String, Object> asMap() {
+            final Map<String, Object> rval = newMap();
+            rval.put("subject", subject.asMap());
+            rval.put("predicate", predicate.asMap());
+            rval.put("object", object.asMap());
+            if (graph != null) {
+                rval.put("name", graph.asMap());
+            }
+            return Collections.unmodifiableMap(rval);
         }
 
         @Override
@@ -96,7 +139,13 @@ public class RDFDataset extends LinkedHashMap<String, Object> {
             if (o == null) {
                 return 1;
             }
-            int rval = getGraph().compareTo(o.getGraph());
+            // the default graph sorts before any named graph
+            int rval;
+            if (getGraph() == null || o.getGraph() == null) {
+                rval = getGraph() == null ? (o.getGraph() == null ? 0 : -1) : 1;
+            } else {
+                rval = getGraph().compareTo(o.getGraph());
+            }
             if (rval != 0) {
                 return rval;
             }
@@ -110,11 +159,46 @@ public class RDFDataset extends LinkedHashMap<String, Object> {
             }
             return getObject().compareTo(o.getObject());
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (!(o instanceof Quad)) {
+                return false;
+            }
+            final Quad other = (Quad) o;
+            return hash == other.hash && Obj.equals(subject, other.subject)
+                    && Obj.equals(predicate, other.predicate) && Obj.equals(object, other.object)
+                    && Obj.equals(graph, other.graph);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return asMap().toString();
+        }
     }
 
-    public static abstract class Node extends LinkedHashMap<String, Object> implements
-    Comparable<Node> {
-        private static final long serialVersionUID = 1460990331795672793L;
+    /**
+     * An RDF term. Nodes are immutable and are either a {@link Literal}, an
+     * {@link IRI} or a {@link BlankNode}.
+     */
+    public static abstract class Node implements Comparable<Node>, Serializable {
+        private static final long serialVersionUID = 4652413276391852398L;
+
+        private final String value;
+        private final int hash;
+
+        Node(int kind, String value, int detailHash) {
+            this.value = value;
+            this.hash = 31 * (31 * kind + hashOf(value)) + detailHash;
+        }
 
         public abstract boolean isLiteral();
 
@@ -122,16 +206,65 @@ public class RDFDataset extends LinkedHashMap<String, Object> {
 
         public abstract boolean isBlankNode();
 
+        /**
+         * @return "literal", "IRI" or "blank node".
+         */
+        abstract String getType();
+
         public String getValue() {
-            return (String) get("value");
+            return value;
         }
 
         public String getDatatype() {
-            return (String) get("datatype");
+            return null;
         }
 
         public String getLanguage() {
-            return (String) get("language");
+            return null;
+        }
+
+        /**
+         * Returns a read-only view of this node in the map layout used by
+         * earlier versions, with "type", "value" and, for literals,
+         * "datatype" and "language" keys.
+         *
+         * @return A new unmodifiable map.
+         */
+        public Map<String, Object> asMap() {
+            final Map<String, Object> rval = newMap();
+            rval.put("type", getType());
+            rval.put("value", getValue());
+            if (getDatatype() != null) {
+                rval.put("datatype", getDatatype());
+            }
+            if (getLanguage() != null) {
+                rval.put("language", getLanguage());
+            }
+            return Collections.unmodifiableMap(rval);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (o == null || o.getClass() != getClass()) {
+                return false;
+            }
+            final Node other = (Node) o;
+            return hash == other.hash && Obj.equals(value, other.value)
+                    && Obj.equals(getDatatype(), other.getDatatype())
+                    && Obj.equals(getLanguage(), other.getLanguage());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return asMap().toString();
         }
 
         @Override
@@ -235,17 +368,32 @@ public class RDFDataset extends LinkedHashMap<String, Object> {
         }
     }
 
-    public static class Literal extends Node {
-        private static final long serialVersionUID = 8124736271571220251L;
+    public static final class Literal extends Node {
+        private static final long serialVersionUID = -3417813404418470339L;
+
+        private final String datatype;
+        private final String language;
 
         public Literal(String value, String datatype, String language) {
-            super();
-            put("type", "literal");
-            put("value", value);
-            put("datatype", datatype != null ? datatype : XSD_STRING);
-            if (language != null) {
-                put("language", language);
-            }
+            super(3, value, 31 * hashOf(datatype != null ? datatype : XSD_STRING)
+                    + hashOf(language));
+            this.datatype = datatype != null ? datatype : XSD_STRING;
+            this.language = language;
+        }
+
+        @Override
+        String getType() {
+            return "literal";
+        }
+
+        @Override
+        public String getDatatype() {
+            return datatype;
+        }
+
+        @Override
+        public String getLanguage() {
+            return language;
         }
 
         @Override
@@ -292,13 +440,16 @@ public class RDFDataset extends LinkedHashMap<String, Object> {
         }
     }
 
-    public static class IRI extends Node {
-        private static final long serialVersionUID = 1540232072155490782L;
+    public static final class IRI extends Node {
+        private static final long serialVersionUID = -6010493719217466373L;
 
         public IRI(String iri) {
-            super();
-            put("type", "IRI");
-            put("value", iri);
+            super(1, iri, 0);
+        }
+
+        @Override
+        String getType() {
+            return "IRI";
         }
 
         @Override
@@ -317,13 +468,16 @@ public class RDFDataset extends LinkedHashMap<String, Object> {
         }
     }
 
-    public static class BlankNode extends Node {
-        private static final long serialVersionUID = -2842402820440697318L;
+    public static final class BlankNode extends Node {
+        private static final long serialVersionUID = 3280637213867216617L;
 
         public BlankNode(String attribute) {
-            super();
-            put("type", "blank node");
-            put("value", attribute);
+            super(2, attribute, 0);
+        }
+
+        @Override
+        String getType() {
+            return "blank node";
         }
 
         @Override
@@ -342,6 +496,123 @@ public class RDFDataset extends LinkedHashMap<String, Object> {
         }
     }
 
+    /**
+     * The quads of one graph. Adding a quad that is already in the graph does
+     * nothing, and membership tests are constant-time, by counting the copies
+     * of each quad in a hash map alongside the list.
+     *
+     * {@link #set(int, Quad)} may put a second copy of a quad in the list, as
+     * sorting in place briefly does, and each copy is counted, so the quad
+     * stays in the graph until all copies are removed.
+     */
+    static final class QuadList extends AbstractList<Quad> implements RandomAccess, Serializable {
+        private static final long serialVersionUID = 5271609322851361736L;
+
+        private final ArrayList<Quad> quads;
+        private final HashMap<Quad, Integer> counts;
+
+        QuadList() {
+            quads = new ArrayList<Quad>();
+            counts = new HashMap<Quad, Integer>();
+        }
+
+        QuadList(Collection<? extends Quad> quads) {
+            this();
+            addAll(quads);
+        }
+
+        private void count(Quad quad) {
+            final Integer count = counts.get(quad);
+            counts.put(quad, count == null ? 1 : count + 1);
+        }
+
+        private void uncount(Quad quad) {
+            final Integer count = counts.get(quad);
+            if (count == null) {
+                return;
+            }
+            if (count == 1) {
+                counts.remove(quad);
+            } else {
+                counts.put(quad, count - 1);
+            }
+        }
+
+        @Override
+        public Quad get(int i) {
+            return quads.get(i);
+        }
+
+        @Override
+        public int size() {
+            return quads.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return counts.containsKey(o);
+        }
+
+        /**
+         * Adds the quad unless it is already in this list.
+         *
+         * @return False if the quad was already in this list.
+         */
+        @Override
+        public boolean add(Quad quad) {
+            if (counts.containsKey(quad)) {
+                return false;
+            }
+            quads.add(quad);
+            counts.put(quad, 1);
+            modCount++;
+            return true;
+        }
+
+        /**
+         * Inserts a quad at the given position.
+         *
+         * @throws IllegalArgumentException
+         *             If the quad is already in this list.
+         */
+        @Override
+        public void add(int i, Quad quad) {
+            if (counts.containsKey(quad)) {
+                throw new IllegalArgumentException("Quad already in graph: " + quad);
+            }
+            quads.add(i, quad);
+            counts.put(quad, 1);
+            modCount++;
+        }
+
+        @Override
+        public Quad set(int i, Quad quad) {
+            final Quad rval = quads.set(i, quad);
+            uncount(rval);
+            count(quad);
+            return rval;
+        }
+
+        @Override
+        public Quad remove(int i) {
+            final Quad rval = quads.remove(i);
+            uncount(rval);
+            modCount++;
+            return rval;
+        }
+
+        @Override
+        public void clear() {
+            quads.clear();
+            counts.clear();
+            modCount++;
+        }
+    }
+
+    private static int hashOf(Object o) {
+        return o == null ? 0 : o.hashCode();
+    }
+
     private static final Node first = new IRI(RDF_FIRST);
     private static final Node rest = new IRI(RDF_REST);
     private static final Node nil = new IRI(RDF_NIL);
@@ -353,7 +624,7 @@ public class RDFDataset extends LinkedHashMap<String, Object> {
 
     public RDFDataset() {
         super();
-        put("@default", new ArrayList<Quad>());
+        put("@default", new QuadList());
         context = new LinkedHashMap<String, String>();
         // put("@context", context);
     }
@@ -478,13 +749,7 @@ public class RDFDataset extends LinkedHashMap<String, Object> {
      */
     public void addQuad(final String s, final String p, final String value, final String datatype,
             final String language, String graph) {
-        if (graph == null) {
-            graph = "@default";
-        }
-        if (!containsKey(graph)) {
-            put(graph, new ArrayList<Quad>());
-        }
-        ((ArrayList<Quad>) get(graph)).add(new Quad(s, p, value, datatype, language, graph));
+        addQuad(new Quad(s, p, value, datatype, language, graph));
     }
 
     /**
@@ -515,13 +780,29 @@ public class RDFDataset extends LinkedHashMap<String, Object> {
      */
     public void addQuad(final String subject, final String predicate, final String object,
             String graph) {
-        if (graph == null) {
-            graph = "@default";
-        }
-        if (!containsKey(graph)) {
-            put(graph, new ArrayList<Quad>());
+        addQuad(new Quad(subject, predicate, object, graph));
+    }
+
+    /**
+     * Adds a quad to the graph it names, unless that graph already contains
+     * it.
+     *
+     * @param quad
+     *            the quad to add
+     * @return false if the quad was already in this dataset
+     */
+    public boolean addQuad(Quad quad) {
+        final String graph = quad.getGraph() == null ? "@default" : quad.getGraph().getValue();
+        final Object quads = get(graph);
+        final QuadList list;
+        if (quads instanceof QuadList) {
+            list = (QuadList) quads;
+        } else {
+            // graphs put directly into this map may be any list
+            list = quads == null ? new QuadList() : new QuadList((List<Quad>) quads);
+            put(graph, list);
         }
-        ((ArrayList<Quad>) get(graph)).add(new Quad(subject, predicate, object, graph));
+        return list.add(quad);
     }
 
     /**
@@ -531,10 +812,40 @@ public class RDFDataset extends LinkedHashMap<String, Object> {
      *            The graph URI
      * @param graph
      *            the graph to create RDF triples for.
+     * @throws JsonLdError
+     *             If there was an error creating the triples.
      */
-    void graphToRDF(String graphName, Map<String, Object> graph) {
+    void graphToRDF(String graphName, Map<String, Object> graph) throws JsonLdError {
         // 4.2)
+        // a plain list, as the toRdf test suite expects duplicates to be kept
         final List<Quad> triples = new ArrayList<Quad>();
+        graphToRDF(graphName, graph, new QuadSink() {
+            @Override
+            public void onQuad(Node subject, Node predicate, Node object, String name) {
+                triples.add(new Quad(subject, predicate, object, name));
+            }
+        });
+        put(graphName, triples);
+    }
+
+    /**
+     * Creates the RDF triples for the given graph and passes them to the given
+     * sink instead of adding them to this dataset.
+     *
+     * @param graphName
+     *            The graph URI
+     * @param graph
+     *            the graph to create RDF triples for.
+     * @param sink
+     *            the sink receiving the triples.
+     * @throws JsonLdError
+     *             If the sink fails.
+     */
+    void graphToRDF(String graphName, Map<String, Object> graph, QuadSink sink)
+            throws JsonLdError {
+        if (JsonLdConsts.DEFAULT.equals(graphName)) {
+            graphName = null;
+        }
         // 4.3)
         final List<String> subjects = new ArrayList<String>(graph.keySet());
         // Collections.sort(subjects);
@@ -594,30 +905,29 @@ public class RDFDataset extends LinkedHashMap<String, Object> {
                             last = objectToRDF(list.get(list.size() - 1));
                             firstBNode = new BlankNode(api.generateBlankNodeIdentifier());
                         }
-                        triples.add(new Quad(subject, predicate, firstBNode, graphName));
+                        sink.onQuad(subject, predicate, firstBNode, graphName);
                         for (int i = 0; i < list.size() - 1; i++) {
                             final Node object = objectToRDF(list.get(i));
-                            triples.add(new Quad(firstBNode, first, object, graphName));
+                            sink.onQuad(firstBNode, first, object, graphName);
                             final Node restBNode = new BlankNode(api.generateBlankNodeIdentifier());
-                            triples.add(new Quad(firstBNode, rest, restBNode, graphName));
+                            sink.onQuad(firstBNode, rest, restBNode, graphName);
                             firstBNode = restBNode;
                         }
                         if (last != null) {
-                            triples.add(new Quad(firstBNode, first, last, graphName));
-                            triples.add(new Quad(firstBNode, rest, nil, graphName));
+                            sink.onQuad(firstBNode, first, last, graphName);
+                            sink.onQuad(firstBNode, rest, nil, graphName);
                         }
                     }
                     // convert value or node object to triple
                     else {
                         final Node object = objectToRDF(item);
                         if (object != null) {
-                            triples.add(new Quad(subject, predicate, object, graphName));
+                            sink.onQuad(subject, predicate, object, graphName);
                         }
                     }
                 }
             }
         }
-        put(graphName, triples);
     }
 
     /**
@@ -685,6 +995,15 @@ public class RDFDataset extends LinkedHashMap<String, Object> {
         return keySet();
     }
 
+    /**
+     * Returns the quads of a graph. The list holds each quad once: adding a
+     * quad that is already in it returns false, and inserting one at a
+     * position throws an {@link IllegalArgumentException}.
+     *
+     * @param graphName
+     *            the name of the graph, or {@code @default}.
+     * @return The quads, or null if there is no such graph.
+     */
     public List<Quad> getQuads(String graphName) {
         return (List<Quad>) get(graphName);
     }
@@ -16,6 +16,7 @@ import static com.github.jsonldjava.core.JsonLdUtils.isValue;
 import static com.github.jsonldjava.core.Regex.HEX;
 import static com.github.jsonldjava.utils.Obj.newMap;
 
+import java.io.StringReader;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
@@ -242,25 +243,50 @@ public class RDFDatasetUtils {
         return output.toString();
     }
     static void toNQuad(RDFDataset.Quad triple, String graphName, String bnode, StringBuilder output) {
-        final RDFDataset.Node s = triple.getSubject();
-        final RDFDataset.Node p = triple.getPredicate();
-        final RDFDataset.Node o = triple.getObject();
+        toNQuad(triple.getSubject(), triple.getPredicate(), triple.getObject(), graphName, bnode,
+                output);
+    }
 
+    static void toNQuad(RDFDataset.Node s, RDFDataset.Node p, RDFDataset.Node o,
+            String graphName, String bnode, StringBuilder output) {
         // subject is an IRI or bnode
-        if (s.isIRI()) {
-            output.append("<");
-            escape(s.getValue(), output);
-            output.append(">");
-        }
-        // normalization mode 
-        else if (bnode != null) {
+        if (s.isBlankNode() && bnode != null) {
+            // normalization mode
             output.append(bnode.equals(s.getValue()) ? "_:a" : "_:z");
+        } else {
+            toNQuadTerm(s, output);
         }
-        // normal mode
-        else {
-            output.append(s.getValue());
+
+        toNQuadPredicate(p, output);
+
+        // object is IRI, bnode or literal
+        if (o.isBlankNode() && bnode != null) {
+            // normalization mode
+            output.append(bnode.equals(o.getValue()) ? "_:a" : "_:z");
+        } else {
+            toNQuadTerm(o, output);
+        }
+
+        // graph
+        if (graphName != null) {
+            if (graphName.indexOf("_:") != 0) {
+                output.append(" <");
+                escape(graphName, output);
+                output.append(">");
+            } else if (bnode != null) {
+                output.append(" _:g");
+            } else {
+                output.append(" ").append(graphName);
+            }
         }
 
+        output.append(" .\n");
+    }
+
+    /**
+     * Appends the predicate of a quad, with the spaces around it.
+     */
+    static void toNQuadPredicate(RDFDataset.Node p, StringBuilder output) {
         if (p.isIRI()) {
             output.append(" <");
             escape(p.getValue(), output);
@@ -273,21 +299,19 @@ public class RDFDatasetUtils {
             escape(p.getValue(), output);
             output.append(" ");
         }
+    }
 
-        // object is IRI, bnode or literal
+    /**
+     * Appends an IRI, blank node or literal as it appears in the subject or
+     * object position of a quad.
+     */
+    static void toNQuadTerm(RDFDataset.Node o, StringBuilder output) {
         if (o.isIRI()) {
             output.append("<");
             escape(o.getValue(), output);
             output.append(">");
         } else if (o.isBlankNode()) {
-            // normalization mode
-            if (bnode != null) {
-                output.append(bnode.equals(o.getValue()) ? "_:a" : "_:z");
-            }
-            // normal mode
-            else {
-                output.append(o.getValue());
-            }
+            output.append(o.getValue());
         } else {
             output.append("\"");
             escape(o.getValue(), output);
@@ -300,23 +324,88 @@ public class RDFDatasetUtils {
                 output.append(">");
             }
         }
+    }
 
-        // graph
+    /**
+     * Appends a quad in the canonical N-Quads form that URDNA2015 hashes and
+     * outputs. Unlike {@link #toNQuad(RDFDataset.Quad, String)}, IRIs are
+     * written as they are, and literals only escape the characters
+     * {@link #escapeCanonical(String, StringBuilder)} does.
+     */
+    static void toCanonicalNQuad(RDFDataset.Node s, RDFDataset.Node p, RDFDataset.Node o,
+            String graphName, StringBuilder output) {
+        toCanonicalNQuadTerm(s, output);
+        output.append(' ');
+        toCanonicalNQuadTerm(p, output);
+        output.append(' ');
+        toCanonicalNQuadTerm(o, output);
         if (graphName != null) {
-            if (graphName.indexOf("_:") != 0) {
-                output.append(" <");
-                escape(graphName, output);
-                output.append(">");
-            } else if (bnode != null) {
-                output.append(" _:g");
+            output.append(' ');
+            if (graphName.startsWith("_:")) {
+                output.append(graphName);
             } else {
-                output.append(" ").append(graphName);
+                output.append('<').append(graphName).append('>');
             }
         }
-
         output.append(" .\n");
     }
 
+    private static void toCanonicalNQuadTerm(RDFDataset.Node o, StringBuilder output) {
+        if (o.isIRI()) {
+            output.append('<').append(o.getValue()).append('>');
+        } else if (o.isBlankNode()) {
+            output.append(o.getValue());
+        } else {
+            output.append('"');
+            escapeCanonical(o.getValue(), output);
+            output.append('"');
+            if (RDF_LANGSTRING.equals(o.getDatatype())) {
+                output.append('@').append(o.getLanguage());
+            } else if (!XSD_STRING.equals(o.getDatatype())) {
+                output.append("^^<").append(o.getDatatype()).append('>');
+            }
+        }
+    }
+
+    /**
+     * Escapes a literal for canonical N-Quads: quotation mark, backslash, line
+     * feed and carriage return as \", \\, \n and \r, and the other control
+     * characters from U+0000 to U+001F except tab, and U+007F, as UCHAR escapes
+     * with upper case hex digits. Every other character is written as it is.
+     */
+    static void escapeCanonical(String str, StringBuilder output) {
+        final int length = str.length();
+        for (int i = 0; i < length; i++) {
+            final char c = str.charAt(i);
+            switch (c) {
+            case '"':
+                output.append("\\\"");
+                break;
+            case '\\':
+                output.append("\\\\");
+                break;
+            case '\n':
+                output.append("\\n");
+                break;
+            case '\r':
+                output.append("\\r");
+                break;
+            case '\t':
+                output.append(c);
+                break;
+            default:
+                if (c <= 0x1F || c == 0x7F) {
+                    output.append("\\u00").append(UPPER_HEX_DIGITS[c >> 4]).append(
+                            UPPER_HEX_DIGITS[c & 0xF]);
+                } else {
+                    output.append(c);
+                }
+            }
+        }
+    }
+
+    private static final char[] UPPER_HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
     static String toNQuad(RDFDataset.Quad triple, String graphName) {
         return toNQuad(triple, graphName, null);
     }
@@ -409,89 +498,59 @@ public class RDFDatasetUtils {
      * @param rval The {@link StringBuilder} to append to.
      */
     public static void escape(String str, StringBuilder rval) {
-        for (int i = 0; i < str.length(); i++) {
+        final int length = str.length();
+        for (int i = 0; i < length; i++) {
             final char hi = str.charAt(i);
-            if (hi <= 0x8 || hi == 0xB || hi == 0xC || (hi >= 0xE && hi <= 0x1F)
-                    || (hi >= 0x7F && hi <= 0xA0) || // 0xA0 is end of
-                    // non-printable latin-1
-                    // supplement
-                    // characters
-                    ((hi >= 0x24F // 0x24F is the end of latin extensions
-                    && !Character.isHighSurrogate(hi))
-                    // TODO: there's probably a lot of other characters that
-                    // shouldn't be escaped that
-                    // fall outside these ranges, this is one example from the
-                    // json-ld tests
-                            )) {
-                rval.append(String.format("\\u%04x", (int) hi));
-            } else if (Character.isHighSurrogate(hi)) {
-                final char lo = str.charAt(++i);
-                final int c = (hi << 10) + lo + (0x10000 - (0xD800 << 10) - 0xDC00);
-                rval.append(String.format("\\U%08x", c));
-            } else {
-                switch (hi) {
-                case '\b':
-                    rval.append("\\b");
-                    break;
-                case '\n':
-                    rval.append("\\n");
-                    break;
-                case '\t':
-                    rval.append("\\t");
-                    break;
-                case '\f':
-                    rval.append("\\f");
-                    break;
-                case '\r':
-                    rval.append("\\r");
-                    break;
-                    // case '\'':
-                    // rval += "\\'";
-                    // break;
-                case '\"':
-                    rval.append("\\\"");
-                    // rval += "\\u0022";
-                    break;
-                case '\\':
-                    rval.append("\\\\");
-                    break;
-                default:
-                    // just put the char as is
+            if (hi < ESCAPES.length) {
+                final String escaped = ESCAPES[hi];
+                if (escaped == null) {
                     rval.append(hi);
-                    break;
+                } else {
+                    rval.append(escaped);
                 }
+            } else if (Character.isHighSurrogate(hi) && i + 1 < length
+                    && Character.isLowSurrogate(str.charAt(i + 1))) {
+                final char lo = str.charAt(++i);
+                rval.append("\\U");
+                appendHex(Character.toCodePoint(hi, lo), 8, rval);
+            } else {
+                rval.append("\\u");
+                appendHex(hi, 4, rval);
             }
         }
-        //return rval;
     }
 
-    private static class Regex {
-        // define partial regexes
-        // final public static Pattern IRI =
-        // Pattern.compile("(?:<([^:]+:[^>]*)>)");
-        final public static Pattern IRI = Pattern.compile("(?:<([^>]*)>)");
-        final public static Pattern BNODE = Pattern.compile("(_:(?:[A-Za-z][A-Za-z0-9]*))");
-        final public static Pattern PLAIN = Pattern.compile("\"([^\"\\\\]*(?:\\\\.[^\"\\\\]*)*)\"");
-        final public static Pattern DATATYPE = Pattern.compile("(?:\\^\\^" + IRI + ")");
-        final public static Pattern LANGUAGE = Pattern.compile("(?:@([a-z]+(?:-[a-zA-Z0-9]+)*))");
-        final public static Pattern LITERAL = Pattern.compile("(?:" + PLAIN + "(?:" + DATATYPE
-                + "|" + LANGUAGE + ")?)");
-        final public static Pattern WS = Pattern.compile("[ \\t]+");
-        final public static Pattern WSO = Pattern.compile("[ \\t]*");
-        final public static Pattern EOLN = Pattern.compile("(?:\r\n)|(?:\n)|(?:\r)");
-        final public static Pattern EMPTY = Pattern.compile("^" + WSO + "$");
-
-        // define quad part regexes
-        final public static Pattern SUBJECT = Pattern.compile("(?:" + IRI + "|" + BNODE + ")" + WS);
-        final public static Pattern PROPERTY = Pattern.compile(IRI.pattern() + WS.pattern());
-        final public static Pattern OBJECT = Pattern.compile("(?:" + IRI + "|" + BNODE + "|"
-                + LITERAL + ")" + WSO);
-        final public static Pattern GRAPH = Pattern.compile("(?:\\.|(?:(?:" + IRI + "|" + BNODE
-                + ")" + WSO + "\\.))");
-
-        // full quad regex
-        final public static Pattern QUAD = Pattern.compile("^" + WSO + SUBJECT + PROPERTY + OBJECT
-                + GRAPH + WSO + "$");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * The escaped form of each character up to the end of the latin
+     * extensions, or null if the character is written as is. Every character
+     * after that, other than a surrogate pair, is written as a unicode escape.
+     */
+    private static final String[] ESCAPES = new String[0x24F];
+
+    static {
+        for (char c = 0; c < ESCAPES.length; c++) {
+            // 0xA0 is the end of the non-printable latin-1 supplement
+            // characters
+            if (c <= 0x8 || c == 0xB || c == 0xC || (c >= 0xE && c <= 0x1F)
+                    || (c >= 0x7F && c <= 0xA0)) {
+                final StringBuilder escaped = new StringBuilder(6).append("\\u");
+                appendHex(c, 4, escaped);
+                ESCAPES[c] = escaped.toString();
+            }
+        }
+        ESCAPES['\n'] = "\\n";
+        ESCAPES['\t'] = "\\t";
+        ESCAPES['\r'] = "\\r";
+        ESCAPES['"'] = "\\\"";
+        ESCAPES['\\'] = "\\\\";
+    }
+
+    private static void appendHex(int value, int digits, StringBuilder rval) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            rval.append(HEX_DIGITS[(value >> shift) & 0xF]);
+        }
     }
 
     /**
@@ -505,77 +564,6 @@ public class RDFDatasetUtils {
      *             If there was an error parsing the N-Quads document.
      */
     public static RDFDataset parseNQuads(String input) throws JsonLdError {
-        // build RDF dataset
-        final RDFDataset dataset = new RDFDataset();
-
-        // split N-Quad input into lines
-        final String[] lines = Regex.EOLN.split(input);
-        int lineNumber = 0;
-        for (final String line : lines) {
-            lineNumber++;
-
-            // skip empty lines
-            if (Regex.EMPTY.matcher(line).matches()) {
-                continue;
-            }
-
-            // parse quad
-            final Matcher match = Regex.QUAD.matcher(line);
-            if (!match.matches()) {
-                throw new JsonLdError(JsonLdError.Error.SYNTAX_ERROR,
-                        "Error while parsing N-Quads; invalid quad. line:" + lineNumber);
-            }
-
-            // get subject
-            RDFDataset.Node subject;
-            if (match.group(1) != null) {
-                subject = new RDFDataset.IRI(unescape(match.group(1)));
-            } else {
-                subject = new RDFDataset.BlankNode(unescape(match.group(2)));
-            }
-
-            // get predicate
-            final RDFDataset.Node predicate = new RDFDataset.IRI(unescape(match.group(3)));
-
-            // get object
-            RDFDataset.Node object;
-            if (match.group(4) != null) {
-                object = new RDFDataset.IRI(unescape(match.group(4)));
-            } else if (match.group(5) != null) {
-                object = new RDFDataset.BlankNode(unescape(match.group(5)));
-            } else {
-                final String language = unescape(match.group(8));
-                final String datatype = match.group(7) != null ? unescape(match.group(7)) : match
-                        .group(8) != null ? RDF_LANGSTRING : XSD_STRING;
-                final String unescaped = unescape(match.group(6));
-                object = new RDFDataset.Literal(unescaped, datatype, language);
-            }
-
-            // get graph name ('@default' is used for the default graph)
-            String name = "@default";
-            if (match.group(9) != null) {
-                name = unescape(match.group(9));
-            } else if (match.group(10) != null) {
-                name = unescape(match.group(10));
-            }
-
-            final RDFDataset.Quad triple = new RDFDataset.Quad(subject, predicate, object, name);
-
-            // initialise graph in dataset
-            if (!dataset.containsKey(name)) {
-                final List<RDFDataset.Quad> tmp = new ArrayList<RDFDataset.Quad>();
-                tmp.add(triple);
-                dataset.put(name, tmp);
-            }
-            // add triple if unique to its graph
-            else {
-                final List<RDFDataset.Quad> triples = (List<RDFDataset.Quad>) dataset.get(name);
-                if (!triples.contains(triple)) {
-                    triples.add(triple);
-                }
-            }
-        }
-
-        return dataset;
+        return new NQuadsParser(new StringReader(input)).parse();
     }
 }
@@ -0,0 +1,71 @@
+package com.github.jsonldjava.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sorts the keys of maps, remembering the sorted keys of each set of keys it
+ * has seen, so that maps with the same keys, such as the many nodes of one
+ * type in a large document, are only sorted once.
+ *
+ * A set of keys is looked up by the sum of the hash codes of its keys, which
+ * does not depend on their order, and the remembered keys are only used if
+ * the map contains all of them and no others. Not thread safe.
+ */
+final class SortedKeys {
+
+    /**
+     * The number of sets of keys remembered, after which all are forgotten.
+     */
+    static final int MAX_SHAPES = 1024;
+
+    private final Map<Integer, List<String>> shapes = new HashMap<Integer, List<String>>();
+
+    /**
+     * Returns the keys of a map in lexicographical order.
+     *
+     * @param map
+     *            the map.
+     * @return The keys, which must not be modified.
+     */
+    List<String> of(Map<String, ?> map) {
+        final int size = map.size();
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        if (size == 1) {
+            return Collections.singletonList(map.keySet().iterator().next());
+        }
+
+        int hash = size;
+        for (final String key : map.keySet()) {
+            hash += key.hashCode();
+        }
+        final Integer shape = hash;
+        List<String> keys = shapes.get(shape);
+        if (keys != null && keys.size() == size && containsAll(map, keys)) {
+            return keys;
+        }
+
+        final String[] sorted = map.keySet().toArray(new String[size]);
+        Arrays.sort(sorted);
+        keys = Collections.unmodifiableList(Arrays.asList(sorted));
+        if (shapes.size() >= MAX_SHAPES) {
+            shapes.clear();
+        }
+        shapes.put(shape, keys);
+        return keys;
+    }
+
+    private static boolean containsAll(Map<String, ?> map, List<String> keys) {
+        for (int i = 0; i < keys.size(); i++) {
+            if (!map.containsKey(keys.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
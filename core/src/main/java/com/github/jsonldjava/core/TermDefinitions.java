@@ -0,0 +1,176 @@
+package com.github.jsonldjava.core;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The term definitions of a {@link Context}, stored as a stack of layers so
+ * that copying a context does not copy its term definitions.
+ *
+ * {@link #copy()} freezes the current top layer and shares it between the
+ * original and the copy. The next change made to either of them starts a new
+ * layer holding only the changed entries, with removals recorded as markers
+ * that hide the entry in the layers below. When the stack grows deeper than
+ * {@link #MAX_DEPTH} it is flattened into a single layer again.
+ *
+ * Iteration order is the same as for a {@link LinkedHashMap} whose entries
+ * are always removed before they are put, which is how the Create Term
+ * Definition Algorithm uses it.
+ */
+final class TermDefinitions extends AbstractMap<String, Object> {
+
+    private static final int MAX_DEPTH = 8;
+
+    private static final Object REMOVED = new Object();
+
+    private static final class Layer {
+        final Layer parent;
+        final int depth;
+        final Map<String, Object> entries;
+        int size;
+        boolean shared;
+
+        Layer(Layer parent) {
+            this.parent = parent;
+            this.depth = parent == null ? 1 : parent.depth + 1;
+            this.entries = new LinkedHashMap<String, Object>();
+            this.size = parent == null ? 0 : parent.size;
+        }
+    }
+
+    private Layer head;
+
+    TermDefinitions() {
+        this.head = new Layer(null);
+    }
+
+    private TermDefinitions(Layer head) {
+        this.head = head;
+    }
+
+    /**
+     * @return a copy of these term definitions which shares all current
+     *         entries with this one.
+     */
+    TermDefinitions copy() {
+        head.shared = true;
+        return new TermDefinitions(head);
+    }
+
+    private static boolean isDefined(Layer layer, Object key) {
+        for (Layer l = layer; l != null; l = l.parent) {
+            final Object value = l.entries.get(key);
+            if (value != null) {
+                return value != REMOVED;
+            }
+            if (l.entries.containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Object lookup(Layer layer, Object key) {
+        for (Layer l = layer; l != null; l = l.parent) {
+            final Object value = l.entries.get(key);
+            if (value != null) {
+                return value == REMOVED ? null : value;
+            }
+            if (l.entries.containsKey(key)) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private Layer writableHead() {
+        if (head.shared) {
+            head = head.depth >= MAX_DEPTH ? flatten(head) : new Layer(head);
+        }
+        return head;
+    }
+
+    private static Layer flatten(Layer layer) {
+        final Layer rval = new Layer(null);
+        collect(layer, rval.entries);
+        rval.size = rval.entries.size();
+        return rval;
+    }
+
+    private static void collect(Layer layer, Map<String, Object> into) {
+        if (layer.parent != null) {
+            collect(layer.parent, into);
+        }
+        for (final Map.Entry<String, Object> entry : layer.entries.entrySet()) {
+            into.remove(entry.getKey());
+            if (entry.getValue() != REMOVED) {
+                into.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        return lookup(head, key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return isDefined(head, key);
+    }
+
+    @Override
+    public int size() {
+        return head.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return head.size == 0;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        final boolean existed = isDefined(head, key);
+        final Object old = existed ? lookup(head, key) : null;
+        final Layer layer = writableHead();
+        // always move the entry to the end, as a remove followed by a put does
+        layer.entries.remove(key);
+        layer.entries.put(key, value);
+        if (!existed) {
+            layer.size++;
+        }
+        return old;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!isDefined(head, key)) {
+            return null;
+        }
+        final Object old = lookup(head, key);
+        final Layer layer = writableHead();
+        layer.entries.remove(key);
+        if (isDefined(layer.parent, key)) {
+            layer.entries.put((String) key, REMOVED);
+        }
+        layer.size--;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        head = new Layer(null);
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if (head.parent != null) {
+            head = flatten(head);
+        }
+        return Collections.unmodifiableMap(head.entries).entrySet();
+    }
+}
@@ -0,0 +1,454 @@
+package com.github.jsonldjava.core;
+
+import static com.github.jsonldjava.core.RDFDatasetUtils.toCanonicalNQuad;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The <a href="http://json-ld.github.io/normalization/spec/">URDNA2015</a>
+ * RDF dataset normalization algorithm.
+ *
+ * Unlike URGNA2012, as implemented by {@link NormalizeUtils}, the first degree
+ * hash of a blank node only depends on its own quads, so it is computed once
+ * and reused. Permutations of related blank nodes are only tried where their
+ * names still depend on the order they are visited in, and the work done on
+ * them is counted against {@link JsonLdOptions#getNormalizationWorkLimit()}.
+ */
+class Urdna2015 {
+
+    private static final RDFDataset.Node BNODE_A = new RDFDataset.BlankNode("_:a");
+    private static final RDFDataset.Node BNODE_Z = new RDFDataset.BlankNode("_:z");
+
+    private final List<RDFDataset.Quad> quads;
+    private final JsonLdOptions options;
+    private final long workLimit;
+    private long work = 0;
+
+    private final Map<String, List<RDFDataset.Quad>> bnodes = new LinkedHashMap<String, List<RDFDataset.Quad>>();
+    private final Map<String, String> firstDegreeHashes = new HashMap<String, String>();
+    private final UniqueNamer canonicalIssuer = new UniqueNamer("_:c14n");
+    private final String hashAlgorithm;
+
+    public Urdna2015(List<RDFDataset.Quad> quads, JsonLdOptions options) throws JsonLdError {
+        this.quads = quads;
+        this.options = options;
+        this.workLimit = options.getNormalizationWorkLimit();
+        this.hashAlgorithm = options.getHashAlgorithm() == null ? "SHA-256" : options
+                .getHashAlgorithm();
+        Hasher.check(hashAlgorithm);
+
+        // 1) map each blank node to the quads it appears in, once per quad
+        for (final RDFDataset.Quad quad : quads) {
+            addBlankNode(quad.getSubject(), quad, null, null);
+            addBlankNode(quad.getObject(), quad, quad.getSubject(), null);
+            addBlankNode(quad.getGraph(), quad, quad.getSubject(), quad.getObject());
+        }
+    }
+
+    private void addBlankNode(RDFDataset.Node node, RDFDataset.Quad quad, RDFDataset.Node before1,
+            RDFDataset.Node before2) {
+        if (node == null || !node.isBlankNode() || node.equals(before1) || node.equals(before2)) {
+            return;
+        }
+        List<RDFDataset.Quad> list = bnodes.get(node.getValue());
+        if (list == null) {
+            list = new ArrayList<RDFDataset.Quad>();
+            bnodes.put(node.getValue(), list);
+        }
+        list.add(quad);
+    }
+
+    /**
+     * Assigns canonical names to all blank nodes and serializes the dataset.
+     *
+     * @return the normalized dataset, as an N-Quads document or an RDF dataset
+     *         depending on the format option.
+     * @throws JsonLdError
+     *             If the work limit is exceeded or the format is not supported.
+     */
+    public Object normalize() throws JsonLdError {
+        issueCanonicalNames();
+
+        // 6) serialize the quads with their canonical blank node names
+        final List<NormalizeUtils.CanonicalQuad> normalized = new ArrayList<NormalizeUtils.CanonicalQuad>(
+                quads.size());
+        final StringBuilder nquad = new StringBuilder();
+        for (final RDFDataset.Quad quad : quads) {
+            final RDFDataset.Quad canonical = canonicalize(quad);
+            normalized.add(new NormalizeUtils.CanonicalQuad(serialize(canonical, nquad),
+                    canonical));
+        }
+        return NormalizeUtils.output(normalized, options);
+    }
+
+    /**
+     * Assigns canonical names to all blank nodes and writes the dataset to the
+     * given stream as a sorted N-Quads document, through temporary files if
+     * it has more quads than the run size option.
+     *
+     * @param output
+     *            the stream, which is flushed but not closed.
+     * @throws JsonLdError
+     *             If the work limit is exceeded or the document could not be
+     *             written.
+     */
+    public void normalize(OutputStream output) throws JsonLdError {
+        issueCanonicalNames();
+        final NQuadsSorter sorter = new NQuadsSorter(options.getNormalizationRunSize(),
+                options.getNormalizationTempDirectory());
+        try {
+            final StringBuilder nquad = new StringBuilder();
+            for (final RDFDataset.Quad quad : quads) {
+                sorter.add(serialize(canonicalize(quad), nquad));
+            }
+            sorter.writeTo(output);
+        } catch (final IOException e) {
+            throw new JsonLdError(JsonLdError.Error.UNKNOWN_ERROR,
+                    "Error while writing N-Quads", e);
+        } finally {
+            sorter.close();
+        }
+    }
+
+    /**
+     * Assigns canonical names to all blank nodes and returns the digest of the
+     * normalized dataset, as computed by {@link DatasetDigest}, without
+     * sorting or keeping its serialization.
+     *
+     * @return the digest in lower case hex.
+     * @throws JsonLdError
+     *             If the work limit is exceeded.
+     */
+    public String digest() throws JsonLdError {
+        issueCanonicalNames();
+        final DatasetDigest digest = new DatasetDigest(hashAlgorithm, quads.size());
+        final StringBuilder nquad = new StringBuilder();
+        for (final RDFDataset.Quad quad : quads) {
+            nquad.setLength(0);
+            append(canonicalize(quad), nquad);
+            digest.add(nquad);
+        }
+        return digest.digest();
+    }
+
+    private RDFDataset.Quad canonicalize(RDFDataset.Quad quad) {
+        final RDFDataset.Node graph = canonicalize(quad.getGraph());
+        return new RDFDataset.Quad(canonicalize(quad.getSubject()), quad.getPredicate(),
+                canonicalize(quad.getObject()), graph == null ? null : graph.getValue());
+    }
+
+    private static String serialize(RDFDataset.Quad quad, StringBuilder nquad) {
+        nquad.setLength(0);
+        append(quad, nquad);
+        return nquad.toString();
+    }
+
+    private static void append(RDFDataset.Quad quad, StringBuilder nquad) {
+        toCanonicalNQuad(quad.getSubject(), quad.getPredicate(), quad.getObject(),
+                quad.getGraph() == null ? null : quad.getGraph().getValue(), nquad);
+    }
+
+    private void issueCanonicalNames() throws JsonLdError {
+        // 3-4) group blank nodes by their first degree hash, in hash order
+        final Map<String, List<String>> hashToBlankNodes = new TreeMap<String, List<String>>();
+        for (final String bnode : bnodes.keySet()) {
+            final String hash = hashFirstDegreeQuads(bnode);
+            List<String> group = hashToBlankNodes.get(hash);
+            if (group == null) {
+                group = new ArrayList<String>();
+                hashToBlankNodes.put(hash, group);
+            }
+            group.add(bnode);
+        }
+
+        // 4.4) a blank node with a unique hash gets its canonical name at once
+        for (final List<String> group : hashToBlankNodes.values()) {
+            if (group.size() == 1) {
+                canonicalIssuer.getName(group.get(0));
+            }
+        }
+
+        // 5) the others are told apart by the blank nodes around them
+        for (final List<String> group : hashToBlankNodes.values()) {
+            if (group.size() == 1) {
+                continue;
+            }
+            final List<HashResult> results = new ArrayList<HashResult>();
+            for (final String bnode : group) {
+                if (canonicalIssuer.isNamed(bnode)) {
+                    continue;
+                }
+                final UniqueNamer issuer = new UniqueNamer("_:b");
+                issuer.getName(bnode);
+                results.add(hashNDegreeQuads(bnode, issuer));
+            }
+            Collections.sort(results, new Comparator<HashResult>() {
+                @Override
+                public int compare(HashResult a, HashResult b) {
+                    return a.hash.compareTo(b.hash);
+                }
+            });
+            for (final HashResult result : results) {
+                for (final String bnode : result.issuer.existing().keySet()) {
+                    canonicalIssuer.getName(bnode);
+                }
+            }
+        }
+    }
+
+    private RDFDataset.Node canonicalize(RDFDataset.Node node) {
+        if (node != null && node.isBlankNode()) {
+            return new RDFDataset.BlankNode(canonicalIssuer.getName(node.getValue()));
+        }
+        return node;
+    }
+
+    private static class HashResult {
+        final String hash;
+        final UniqueNamer issuer;
+
+        HashResult(String hash, UniqueNamer issuer) {
+            this.hash = hash;
+            this.issuer = issuer;
+        }
+    }
+
+    /**
+     * Hashes the quads of a blank node, with the blank node itself named _:a
+     * and every other blank node _:z. The result only depends on the quads, so
+     * it is computed once per blank node.
+     */
+    private String hashFirstDegreeQuads(String id) {
+        String hash = firstDegreeHashes.get(id);
+        if (hash != null) {
+            return hash;
+        }
+        final List<RDFDataset.Quad> bnodeQuads = bnodes.get(id);
+        final List<String> nquads = new ArrayList<String>(bnodeQuads.size());
+        final StringBuilder nquad = new StringBuilder();
+        for (final RDFDataset.Quad quad : bnodeQuads) {
+            final RDFDataset.Node graph = replace(quad.getGraph(), id);
+            nquad.setLength(0);
+            toCanonicalNQuad(replace(quad.getSubject(), id), quad.getPredicate(), replace(quad
+                    .getObject(), id), graph == null ? null : graph.getValue(), nquad);
+            nquads.add(nquad.toString());
+        }
+        Collections.sort(nquads);
+        final Hasher md = Hasher.get(hashAlgorithm, 0);
+        for (final String n : nquads) {
+            md.update(n);
+        }
+        hash = md.digest();
+        firstDegreeHashes.put(id, hash);
+        return hash;
+    }
+
+    private static RDFDataset.Node replace(RDFDataset.Node node, String id) {
+        if (node != null && node.isBlankNode()) {
+            return id.equals(node.getValue()) ? BNODE_A : BNODE_Z;
+        }
+        return node;
+    }
+
+    /**
+     * Hashes a blank node related to the one being hashed by the given quad,
+     * by the position it appears in, the predicate, and its name if it has one
+     * or else its first degree hash.
+     */
+    private String hashRelatedBlankNode(String related, RDFDataset.Quad quad, UniqueNamer issuer,
+            String position) {
+        final String name;
+        if (canonicalIssuer.isNamed(related)) {
+            name = canonicalIssuer.getName(related);
+        } else if (issuer.isNamed(related)) {
+            name = issuer.getName(related);
+        } else {
+            name = hashFirstDegreeQuads(related);
+        }
+        final Hasher md = Hasher.get(hashAlgorithm, 0);
+        md.update(position);
+        if (!"g".equals(position)) {
+            md.update("<").update(quad.getPredicate().getValue()).update(">");
+        }
+        return md.update(name).digest();
+    }
+
+    /**
+     * Hashes a blank node together with the paths to the blank nodes around
+     * it, naming the blank nodes along the lexicographically least path with
+     * a copy of the given issuer.
+     */
+    private HashResult hashNDegreeQuads(String id, UniqueNamer issuer) throws JsonLdError {
+        spend();
+
+        // 1-3) group the related blank nodes by their hash
+        final Map<String, List<String>> hashToRelated = new TreeMap<String, List<String>>();
+        for (final RDFDataset.Quad quad : bnodes.get(id)) {
+            addRelated(hashToRelated, quad.getSubject(), id, quad, issuer, "s");
+            addRelated(hashToRelated, quad.getObject(), id, quad, issuer, "o");
+            addRelated(hashToRelated, quad.getGraph(), id, quad, issuer, "g");
+        }
+
+        // 5) find the least path through each group
+        final StringBuilder dataToHash = new StringBuilder();
+        for (final Map.Entry<String, List<String>> entry : hashToRelated.entrySet()) {
+            dataToHash.append(entry.getKey());
+            final List<String> related = entry.getValue();
+
+            String chosenPath = leastNamedPath(related, issuer);
+            UniqueNamer chosenIssuer = issuer;
+            if (chosenPath == null) {
+                final String[] permutation = related.toArray(new String[related.size()]);
+                Arrays.sort(permutation);
+                do {
+                    spend();
+                    UniqueNamer issuerCopy = issuer.clone();
+                    final StringBuilder path = new StringBuilder();
+                    final List<String> recursionList = new ArrayList<String>();
+                    boolean skip = false;
+                    for (final String bnode : permutation) {
+                        if (canonicalIssuer.isNamed(bnode)) {
+                            path.append(canonicalIssuer.getName(bnode));
+                        } else {
+                            if (!issuerCopy.isNamed(bnode)) {
+                                recursionList.add(bnode);
+                            }
+                            path.append(issuerCopy.getName(bnode));
+                        }
+                        if (isWorse(path, chosenPath)) {
+                            skip = true;
+                            break;
+                        }
+                    }
+                    for (int i = 0; !skip && i < recursionList.size(); i++) {
+                        final String bnode = recursionList.get(i);
+                        final HashResult result = hashNDegreeQuads(bnode, issuerCopy);
+                        path.append(issuerCopy.getName(bnode)).append('<').append(result.hash)
+                                .append('>');
+                        issuerCopy = result.issuer;
+                        skip = isWorse(path, chosenPath);
+                    }
+                    if (!skip && (chosenPath == null || path.toString().compareTo(chosenPath) < 0)) {
+                        chosenPath = path.toString();
+                        chosenIssuer = issuerCopy;
+                    }
+                } while (nextPermutation(permutation));
+            }
+            dataToHash.append(chosenPath);
+            issuer = chosenIssuer;
+        }
+
+        return new HashResult(Hasher.get(hashAlgorithm, 0).update(dataToHash).digest(), issuer);
+    }
+
+    private void addRelated(Map<String, List<String>> hashToRelated, RDFDataset.Node node,
+            String id, RDFDataset.Quad quad, UniqueNamer issuer, String position) {
+        if (node == null || !node.isBlankNode() || id.equals(node.getValue())) {
+            return;
+        }
+        final String hash = hashRelatedBlankNode(node.getValue(), quad, issuer, position);
+        List<String> related = hashToRelated.get(hash);
+        if (related == null) {
+            related = new ArrayList<String>();
+            hashToRelated.put(hash, related);
+        }
+        related.add(node.getValue());
+    }
+
+    /**
+     * If every blank node of a group already has a name, no permutation
+     * issues any new name or recurses, so the least path is the least
+     * concatenation of the names, which sorting them finds directly.
+     *
+     * @return the least path, or null if a blank node of the group has no
+     *         name yet.
+     */
+    private String leastNamedPath(List<String> related, UniqueNamer issuer) {
+        final String[] names = new String[related.size()];
+        for (int i = 0; i < names.length; i++) {
+            final String bnode = related.get(i);
+            if (canonicalIssuer.isNamed(bnode)) {
+                names[i] = canonicalIssuer.getName(bnode);
+            } else if (issuer.isNamed(bnode)) {
+                names[i] = issuer.getName(bnode);
+            } else {
+                return null;
+            }
+        }
+        Arrays.sort(names, new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return (a + b).compareTo(b + a);
+            }
+        });
+        final StringBuilder path = new StringBuilder();
+        for (final String name : names) {
+            path.append(name);
+        }
+        return path.toString();
+    }
+
+    /**
+     * Returns true if the path, and so every path starting with it, is
+     * already greater than the chosen path.
+     */
+    private static boolean isWorse(StringBuilder path, String chosenPath) {
+        if (chosenPath == null || path.length() < chosenPath.length()) {
+            return false;
+        }
+        for (int i = 0; i < chosenPath.length(); i++) {
+            final char c = path.charAt(i);
+            final char d = chosenPath.charAt(i);
+            if (c != d) {
+                return c > d;
+            }
+        }
+        return path.length() > chosenPath.length();
+    }
+
+    /**
+     * Rearranges the array into the next permutation in lexicographic order,
+     * so that equal elements never produce the same permutation twice.
+     *
+     * @return false if the array held the last permutation.
+     */
+    private static boolean nextPermutation(String[] array) {
+        int i = array.length - 2;
+        while (i >= 0 && array[i].compareTo(array[i + 1]) >= 0) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
+        }
+        int j = array.length - 1;
+        while (array[j].compareTo(array[i]) <= 0) {
+            j--;
+        }
+        String tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+        for (int k = i + 1, l = array.length - 1; k < l; k++, l--) {
+            tmp = array[k];
+            array[k] = array[l];
+            array[l] = tmp;
+        }
+        return true;
+    }
+
+    private void spend() throws JsonLdError {
+        if (workLimit > 0 && ++work > workLimit) {
+            throw new JsonLdError(JsonLdError.Error.NORMALIZATION_LIMIT_EXCEEDED,
+                    "more than " + workLimit + " steps spent on blank nodes with the same hash");
+        }
+    }
+}
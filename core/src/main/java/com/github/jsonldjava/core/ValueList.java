@@ -0,0 +1,94 @@
+package com.github.jsonldjava.core;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The values of a property in a node map, which can tell whether it already
+ * holds a value without comparing it with each of them.
+ *
+ * Once there are more than a few values, they are indexed by
+ * {@link JsonLdUtils#deepHashCode(Object)}, so that adding a distinct value
+ * takes constant time on average instead of a {@link JsonLdUtils#deepCompare}
+ * with every value. The index is rebuilt if the list has been changed other
+ * than through {@link #addDistinct(Object)}, but it assumes that the values
+ * themselves are not changed while it is in use.
+ */
+final class ValueList extends ArrayList<Object> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of values under which they are compared one by one.
+     */
+    static final int INDEX_THRESHOLD = 8;
+
+    private transient Set<Value> index;
+    private transient int indexedModCount;
+
+    ValueList() {
+        super(4);
+    }
+
+    /**
+     * Adds a value unless an equal value, as told by
+     * {@link JsonLdUtils#deepCompare(Object, Object)}, is already present.
+     *
+     * @param value
+     *            the value.
+     * @return true if the value was added.
+     */
+    boolean addDistinct(Object value) {
+        if (size() < INDEX_THRESHOLD) {
+            if (JsonLdUtils.deepContains(this, value)) {
+                return false;
+            }
+            return add(value);
+        }
+        if (index == null || indexedModCount != modCount) {
+            index = new HashSet<Value>(size() * 2);
+            for (int i = 0; i < size(); i++) {
+                index.add(new Value(get(i)));
+            }
+        }
+        if (!index.add(new Value(value))) {
+            return false;
+        }
+        add(value);
+        indexedModCount = modCount;
+        return true;
+    }
+
+    @Override
+    public Object clone() {
+        final ValueList clone = (ValueList) super.clone();
+        clone.index = null;
+        return clone;
+    }
+
+    /**
+     * A value with its structural hash code, equal to the values it compares
+     * equal with.
+     */
+    private static final class Value {
+        final Object value;
+        final int hash;
+
+        Value(Object value) {
+            this.value = value;
+            this.hash = JsonLdUtils.deepHashCode(value);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Value && hash == ((Value) other).hash
+                    && JsonLdUtils.deepCompare(value, ((Value) other).value, false);
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package com.github.jsonldjava.utils;
 
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -112,6 +110,11 @@ public class JsonLdUrl {
      * @return The URL without the dot segments
      */
     public static String removeDotSegments(String path, boolean hasAuthority) {
+        // without dot or empty segments there is nothing to remove
+        if (path.indexOf("/.") == -1 && path.indexOf("//") == -1 && !path.startsWith(".")) {
+            return path;
+        }
+
         String rval = "";
 
         if (path.indexOf("/") == 0) {
@@ -162,125 +165,359 @@ public class JsonLdUrl {
         if (baseobj == null) {
             return iri;
         }
+        final Reference base = parsedBase(baseobj instanceof JsonLdUrl ? ((JsonLdUrl) baseobj).href
+                : (String) baseobj);
 
-        JsonLdUrl base;
-        if (baseobj instanceof String) {
-            base = JsonLdUrl.parse((String) baseobj);
+        final String root;
+        if ("".equals(base.iri)) {
+            // support network-path reference with empty base
+            if (!iri.startsWith("//")) {
+                return iri;
+            }
+            root = "";
         } else {
-            base = (JsonLdUrl) baseobj;
-        }
-
-        // establish base root
-        String root = "";
-        if (!"".equals(base.href)) {
-            root += (base.protocol) + "//" + base.authority;
-        }
-        // support network-path reference with empty base
-        else if (iri.indexOf("//") != 0) {
-            root += "//";
-        }
-
-        // IRI not relative to base
-        if (iri.indexOf(root) != 0) {
-            return iri;
+            root = base.root();
+            // IRI not relative to base, or only sharing a prefix with its
+            // authority
+            if (!iri.startsWith(root)) {
+                return iri;
+            }
+            if (iri.length() > root.length() && "/?#".indexOf(iri.charAt(root.length())) == -1) {
+                return iri;
+            }
         }
 
         // remove root from IRI and parse remainder
-        final JsonLdUrl rel = JsonLdUrl.parse(iri.substring(root.length()));
+        final Reference rel = new Reference(iri.substring(root.length()));
+        return relativize(base.normalizedPath(), base.query, rel.normalizedPath(), rel.query,
+                rel.fragment);
+    }
+
+    /**
+     * Makes a path relative to the path of a base IRI.
+     *
+     * @param basePath
+     *            the base path, without dot segments.
+     * @param baseQuery
+     *            the base query, or null.
+     * @param path
+     *            the path, without dot segments.
+     * @param query
+     *            the query to add, or null.
+     * @param fragment
+     *            the fragment to add, or null.
+     * @return The relative IRI reference.
+     */
+    private static String relativize(String basePath, String baseQuery, String path,
+            String query, String fragment) {
+        final String[] baseSegments = segments(basePath);
+        final String[] iriSegments = segments(path);
 
         // remove path segments that match
-        final List<String> baseSegments = new ArrayList<String>(Arrays.asList(base.normalizedPath
-                .split("/")));
-        if (base.normalizedPath.endsWith("/")) {
-            baseSegments.add("");
+        int common = 0;
+        while (common < baseSegments.length && common < iriSegments.length
+                && baseSegments[common].equals(iriSegments[common])) {
+            common++;
         }
-        final List<String> iriSegments = new ArrayList<String>(Arrays.asList(rel.normalizedPath
-                .split("/")));
-        if (rel.normalizedPath.endsWith("/")) {
-            iriSegments.add("");
-        }
-
-        while (baseSegments.size() > 0 && iriSegments.size() > 0) {
-            if (!baseSegments.get(0).equals(iriSegments.get(0))) {
-                break;
-            }
-            if (baseSegments.size() > 0) {
-                baseSegments.remove(0);
-            }
-            if (iriSegments.size() > 0) {
-                iriSegments.remove(0);
-            }
+        // an empty relative path would resolve to the base with its query,
+        // so keep the last segment
+        if (common == baseSegments.length && common == iriSegments.length
+                && (query == null || "".equals(query))
+                && (fragment == null || "".equals(fragment) || baseQuery != null
+                        && !"".equals(baseQuery))) {
+            common--;
         }
 
         // use '../' for each non-matching base segment
-        String rval = "";
-        if (baseSegments.size() > 0) {
+        final StringBuilder rval = new StringBuilder();
+        int remaining = baseSegments.length - common;
+        if (remaining > 0) {
             // don't count the last segment if it isn't a path (doesn't end in
             // '/')
             // don't count empty first segment, it means base began with '/'
-            if (!base.normalizedPath.endsWith("/") || "".equals(baseSegments.get(0))) {
-                baseSegments.remove(baseSegments.size() - 1);
+            if (!basePath.endsWith("/") || "".equals(baseSegments[common])) {
+                remaining--;
             }
-            for (int i = 0; i < baseSegments.size(); ++i) {
-                rval += "../";
+            for (int i = 0; i < remaining; ++i) {
+                rval.append("../");
             }
         }
 
         // prepend remaining segments
-        if (iriSegments.size() > 0) {
-            rval += iriSegments.get(0);
-        }
-        for (int i = 1; i < iriSegments.size(); i++) {
-            rval += "/" + iriSegments.get(i);
+        for (int i = common; i < iriSegments.length; i++) {
+            if (i > common) {
+                rval.append('/');
+            }
+            rval.append(iriSegments[i]);
         }
 
         // add query and hash
-        if (!"".equals(rel.query)) {
-            rval += "?" + rel.query;
+        if (query != null && !"".equals(query)) {
+            rval.append('?').append(query);
         }
-        if (!"".equals(rel.hash)) {
-            rval += rel.hash;
+        if (fragment != null && !"".equals(fragment)) {
+            rval.append('#').append(fragment);
         }
 
-        if ("".equals(rval)) {
-            rval = "./";
+        if (rval.length() == 0) {
+            return "./";
         }
+        return rval.toString();
+    }
 
+    /**
+     * Splits a path into segments, with an empty last segment if it ends with
+     * a slash.
+     */
+    private static String[] segments(String path) {
+        final String[] segments = path.split("/");
+        if (!path.endsWith("/")) {
+            return segments;
+        }
+        final String[] rval = new String[segments.length + 1];
+        System.arraycopy(segments, 0, rval, 0, segments.length);
+        rval[segments.length] = "";
         return rval;
     }
 
+    /**
+     * Resolves an IRI reference against a base IRI, as described in <a
+     * href="https://tools.ietf.org/html/rfc3986#section-5.2">RFC 3986 section
+     * 5.2</a>.
+     *
+     * @param baseUri
+     *            the base IRI, or null to return the reference as it is.
+     * @param pathToResolve
+     *            the IRI reference.
+     * @return The resolved IRI, or the base IRI if the reference is empty.
+     */
     public static String resolve(String baseUri, String pathToResolve) {
-        // TODO: some input will need to be normalized to perform the expected
-        // result with java
-        // TODO: we can do this without using java URI!
         if (baseUri == null) {
             return pathToResolve;
         }
         if (pathToResolve == null || "".equals(pathToResolve.trim())) {
             return baseUri;
         }
-        try {
-            URI uri = new URI(baseUri);
-            // query string parsing
-            if (pathToResolve.startsWith("?")) {
-                // drop fragment from uri if it has one
-                if (uri.getFragment() != null) {
-                    uri = new URI(uri.getScheme(), uri.getAuthority(), uri.getPath(), null, null);
+        final Reference base = parsedBase(baseUri);
+        final Reference ref = new Reference(pathToResolve);
+
+        // 5.2.2
+        final String scheme;
+        final String authority;
+        final String path;
+        final String query;
+        if (ref.scheme != null) {
+            scheme = ref.scheme;
+            authority = ref.authority;
+            path = removeDots(ref.path);
+            query = ref.query;
+        } else {
+            if (ref.authority != null) {
+                authority = ref.authority;
+                path = removeDots(ref.path);
+                query = ref.query;
+            } else {
+                if ("".equals(ref.path)) {
+                    path = base.path;
+                    query = ref.query != null ? ref.query : base.query;
+                } else {
+                    if (ref.path.startsWith("/")) {
+                        path = removeDots(ref.path);
+                    } else {
+                        // 5.2.3
+                        if (base.authority != null && "".equals(base.path)) {
+                            path = removeDots("/" + ref.path);
+                        } else {
+                            path = removeDots(base.path.substring(0,
+                                    base.path.lastIndexOf('/') + 1) + ref.path);
+                        }
+                    }
+                    query = ref.query;
+                }
+                authority = base.authority;
+            }
+            scheme = base.scheme;
+        }
+
+        // 5.3
+        final StringBuilder rval = new StringBuilder(baseUri.length() + pathToResolve.length());
+        if (scheme != null) {
+            rval.append(scheme).append(':');
+        }
+        if (authority != null) {
+            rval.append("//").append(authority);
+        }
+        rval.append(path);
+        if (query != null) {
+            rval.append('?').append(query);
+        }
+        if (ref.fragment != null) {
+            rval.append('#').append(ref.fragment);
+        }
+        return rval.toString();
+    }
+
+    /**
+     * Removes dot segments from a path, as described in <a
+     * href="https://tools.ietf.org/html/rfc3986#section-5.2.4">RFC 3986
+     * section 5.2.4</a>.
+     */
+    private static String removeDots(String path) {
+        if (path.indexOf("/.") == -1 && !path.startsWith(".")) {
+            return path;
+        }
+        final StringBuilder output = new StringBuilder(path.length());
+        final int length = path.length();
+        int i = 0;
+        while (i < length) {
+            // A)
+            if (path.startsWith("../", i)) {
+                i += 3;
+            } else if (path.startsWith("./", i)) {
+                i += 2;
+            }
+            // B)
+            else if (path.startsWith("/./", i)) {
+                i += 2;
+            } else if (i + 2 == length && path.startsWith("/.", i)) {
+                output.append('/');
+                i = length;
+            }
+            // C)
+            else if (path.startsWith("/../", i)) {
+                output.setLength(Math.max(output.lastIndexOf("/"), 0));
+                i += 3;
+            } else if (i + 3 == length && path.startsWith("/..", i)) {
+                output.setLength(Math.max(output.lastIndexOf("/"), 0));
+                output.append('/');
+                i = length;
+            }
+            // D)
+            else if (i + 1 == length && path.charAt(i) == '.' || i + 2 == length
+                    && path.startsWith("..", i)) {
+                i = length;
+            }
+            // E)
+            else {
+                int end = path.indexOf('/', path.charAt(i) == '/' ? i + 1 : i);
+                if (end == -1) {
+                    end = length;
                 }
-                // add query to the end manually (as URI.resolve does it wrong)
-                return uri.toString() + pathToResolve;
+                output.append(path, i, end);
+                i = end;
             }
+        }
+        return output.toString();
+    }
+
+    // the base IRI parsed last, as the same base is used for a whole document
+    private static volatile Reference lastBase;
+
+    private static Reference parsedBase(String base) {
+        Reference parsed = lastBase;
+        if (parsed == null || !parsed.iri.equals(base)) {
+            parsed = new Reference(base);
+            lastBase = parsed;
+        }
+        return parsed;
+    }
+
+    /**
+     * The components of an IRI reference, as described in <a
+     * href="https://tools.ietf.org/html/rfc3986#section-3">RFC 3986 section
+     * 3</a>, each null if it is not present except for the path.
+     */
+    private static final class Reference {
+        final String iri;
+        final String scheme;
+        final String authority;
+        final String path;
+        final String query;
+        final String fragment;
+        // for a base IRI, computed when needed
+        private String root;
+        private String normalizedPath;
+
+        Reference(String iri) {
+            this.iri = iri;
+            final int length = iri.length();
+            int start = 0;
+
+            // the scheme ends with the first colon, if it is in the first
+            // segment and only preceded by scheme characters
+            int end = 0;
+            while (end < length && isSchemeChar(iri.charAt(end), end)) {
+                end++;
+            }
+            if (end > 0 && end < length && iri.charAt(end) == ':') {
+                scheme = iri.substring(0, end);
+                start = end + 1;
+            } else {
+                scheme = null;
+            }
+
+            if (iri.startsWith("//", start)) {
+                end = start + 2;
+                while (end < length && "/?#".indexOf(iri.charAt(end)) == -1) {
+                    end++;
+                }
+                authority = iri.substring(start + 2, end);
+                start = end;
+            } else {
+                authority = null;
+            }
+
+            end = start;
+            while (end < length && iri.charAt(end) != '?' && iri.charAt(end) != '#') {
+                end++;
+            }
+            path = iri.substring(start, end);
+            start = end;
+
+            if (start < length && iri.charAt(start) == '?') {
+                end = iri.indexOf('#', start);
+                if (end == -1) {
+                    end = length;
+                }
+                query = iri.substring(start + 1, end);
+                start = end;
+            } else {
+                query = null;
+            }
+
+            fragment = start < length ? iri.substring(start + 1) : null;
+        }
+
+        private static boolean isSchemeChar(char c, int index) {
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                return true;
+            }
+            return index > 0 && ((c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.');
+        }
+
+        /**
+         * @return The scheme and authority, which IRIs relative to this base
+         *         start with.
+         */
+        String root() {
+            if (root == null) {
+                root = (scheme == null ? "" : scheme + ":") + "//"
+                        + (authority == null ? "" : authority);
+            }
+            return root;
+        }
 
-            uri = uri.resolve(pathToResolve);
-            // java doesn't discard unnecessary dot segments
-            String path = uri.getPath();
-            if (path != null) {
-                path = JsonLdUrl.removeDotSegments(uri.getPath(), true);
+        /**
+         * @return The path without dot segments, or / for an empty path after
+         *         an authority.
+         */
+        String normalizedPath() {
+            if (normalizedPath == null) {
+                final boolean hasAuthority = authority != null && !"".equals(authority);
+                normalizedPath = removeDotSegments(hasAuthority && "".equals(path) ? "/" : path,
+                        hasAuthority);
             }
-            return new URI(uri.getScheme(), uri.getAuthority(), path, uri.getQuery(),
-                    uri.getFragment()).toString();
-        } catch (final URISyntaxException e) {
-            return null;
+            return normalizedPath;
         }
     }
 
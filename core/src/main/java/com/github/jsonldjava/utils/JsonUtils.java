@@ -145,6 +145,24 @@ public class JsonUtils {
         return rval;
     }
 
+    /**
+     * Reads the JSON value at the current token of the given {@link JsonParser}
+     * to an object that can be used as input for the {@link JsonLdApi} and
+     * {@link JsonLdProcessor} methods, leaving the parser on the last token of
+     * the value.
+     *
+     * @param jp
+     *            The parser, positioned on the first token of the value.
+     * @return A JSON Object.
+     * @throws JsonParseException
+     *             If there was a JSON related error during parsing.
+     * @throws IOException
+     *             If there was an IO error during parsing.
+     */
+    public static Object fromJsonParser(JsonParser jp) throws IOException {
+        return JSON_MAPPER.readValue(jp, Object.class);
+    }
+
     /**
      * Parses a JSON-LD document from a string to an object that can be used as
      * input for the {@link JsonLdApi} and {@link JsonLdProcessor} methods.
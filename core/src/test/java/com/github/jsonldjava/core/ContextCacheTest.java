@@ -0,0 +1,107 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.github.jsonldjava.utils.JsonUtils;
+
+public class ContextCacheTest {
+
+    private static final String REMOTE_CONTEXT = "{\"@context\":{\"name\":\"http://schema.org/name\"}}";
+
+    @Test
+    public void remoteContextIsLoadedOnce() throws Exception {
+        final int[] loads = new int[1];
+        final JsonLdOptions options = new JsonLdOptions();
+        options.setContextCache(new ContextCache());
+        options.setDocumentLoader(new DocumentLoader() {
+            @Override
+            public RemoteDocument loadDocument(String url) throws JsonLdError {
+                loads[0]++;
+                try {
+                    return new RemoteDocument(url, JsonUtils.fromString(REMOTE_CONTEXT));
+                } catch (final Exception e) {
+                    throw new JsonLdError(JsonLdError.Error.LOADING_REMOTE_CONTEXT_FAILED, url);
+                }
+            }
+        });
+
+        final Object input = JsonUtils.fromString(
+                "{\"@context\":\"http://example.org/context\",\"name\":\"Alice\"}");
+        final Object first = JsonLdProcessor.expand(input, options);
+        final Object second = JsonLdProcessor.expand(input, options);
+
+        assertEquals(1, loads[0]);
+        assertEquals(first, second);
+        assertEquals(1, options.getContextCache().getHitCount());
+        assertEquals(1, options.getContextCache().getMissCount());
+    }
+
+    @Test
+    public void inlineContextsAreComparedStructurally() throws Exception {
+        final JsonLdOptions options = new JsonLdOptions("http://example.org/");
+        final ContextCache cache = new ContextCache();
+        options.setContextCache(cache);
+
+        final Map<String, Object> first = (Map<String, Object>) JsonUtils
+                .fromString("{\"ex\":\"http://example.org/ns#\",\"p\":\"ex:p\"}");
+        final Map<String, Object> second = (Map<String, Object>) JsonUtils
+                .fromString("{\"ex\":\"http://example.org/ns#\",\"p\":\"ex:p\"}");
+
+        final Context a = new Context(options).parse(first);
+        // mutating the caller's copy must not affect the cached entry
+        first.put("p", "ex:q");
+        final Context b = new Context(options).parse(second);
+
+        assertNotSame(a, b);
+        assertEquals("http://example.org/ns#p", b.getTermDefinition("p").get("@id"));
+        assertEquals(1, cache.getHitCount());
+
+        // a different base is a different entry
+        options.setBase("http://example.com/");
+        new Context(options).parse(second);
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedContextIsEvicted() throws Exception {
+        final JsonLdOptions options = new JsonLdOptions();
+        final ContextCache cache = new ContextCache(2);
+        options.setContextCache(cache);
+
+        new Context(options).parse(JsonUtils.fromString("{\"a\":\"http://example.org/a\"}"));
+        new Context(options).parse(JsonUtils.fromString("{\"b\":\"http://example.org/b\"}"));
+        new Context(options).parse(JsonUtils.fromString("{\"a\":\"http://example.org/a\"}"));
+        new Context(options).parse(JsonUtils.fromString("{\"c\":\"http://example.org/c\"}"));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        // "b" was least recently used
+        new Context(options).parse(JsonUtils.fromString("{\"a\":\"http://example.org/a\"}"));
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void cachedContextsShareInverse() throws Exception {
+        final JsonLdOptions options = new JsonLdOptions();
+        options.setContextCache(new ContextCache());
+        final Object context = JsonUtils.fromString(
+                "{\"ex\":\"http://example.org/ns#\",\"name\":\"http://schema.org/name\"}");
+
+        final Context a = new Context(options).parse(context);
+        final Context b = new Context(options).parse(context);
+        assertSame(a.getInverse(), b.getInverse());
+        assertEquals("ex:p", b.compactIri("http://example.org/ns#p", true));
+
+        // changing a context must not affect the shared inverse
+        final Context c = b.parse(JsonUtils.fromString("{\"p\":\"http://example.org/ns#p\"}"));
+        assertEquals("p", c.compactIri("http://example.org/ns#p", true));
+        assertEquals("ex:p", a.compactIri("http://example.org/ns#p", true));
+    }
+}
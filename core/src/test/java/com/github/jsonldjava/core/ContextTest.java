@@ -1,11 +1,78 @@
 package com.github.jsonldjava.core;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
 import org.junit.Test;
 
+import com.github.jsonldjava.utils.JsonUtils;
+
 public class ContextTest {
 
     @Test
     public void testRemoveBase() {
         // TODO: test if Context.removeBase actually works
     }
+
+    @Test
+    public void expandedIrisAreRemembered() throws Exception {
+        final Context context = new Context(new JsonLdOptions("http://example.org/base/"))
+                .parse(JsonUtils.fromString("{\"ex\":\"http://example.org/ns#\","
+                        + "\"name\":\"http://schema.org/name\",\"none\":null}"));
+        for (int i = 0; i < 3; i++) {
+            // terms are not remembered, as they are looked up directly
+            assertEquals("http://schema.org/name", context.expandIri("name", false, true, null,
+                    null));
+            assertEquals("http://example.org/ns#p", context.expandIri("ex:p", false, true, null,
+                    null));
+            assertEquals("http://example.org/base/p", context.expandIri("p", true, true, null,
+                    null));
+            assertNull(context.expandIri("none", false, true, null, null));
+            assertEquals("http://example.org/ns#none", context.expandIri("ex:none", false,
+                    true, null, null));
+            // not remembered, as @id values rarely repeat
+            assertEquals("http://example.org/base/q", context.expandIri("q", true, false, null,
+                    null));
+        }
+        assertEquals(6, context.getExpandIriHitCount());
+        assertEquals(3, context.getExpandIriMissCount());
+
+        // clones share what the context remembered
+        final Context clone = context.clone();
+        clone.expandIri("ex:p", false, true, null, null);
+        assertEquals(7, context.getExpandIriHitCount());
+    }
+
+    @Test
+    public void derivedContextsForgetExpandedIris() throws Exception {
+        final Context context = new Context(new JsonLdOptions("http://example.org/base/"))
+                .parse(JsonUtils.fromString("{\"name\":\"http://schema.org/name\","
+                        + "\"s\":\"http://schema.org/\"}"));
+        assertEquals("http://schema.org/name", context.expandIri("name", false, true, null,
+                null));
+        assertEquals("http://example.org/base/p", context.expandIri("p", true, true, null, null));
+        assertEquals("http://schema.org/p", context.expandIri("s:p", false, true, null, null));
+
+        final Context derived = context.parse(JsonUtils.fromString(
+                "{\"@base\":\"http://example.com/\",\"name\":\"http://xmlns.com/foaf/0.1/name\","
+                        + "\"s\":\"http://schema.org/v2/\"}"));
+        assertEquals("http://xmlns.com/foaf/0.1/name", derived.expandIri("name", false, true,
+                null, null));
+        assertEquals("http://example.com/p", derived.expandIri("p", true, true, null, null));
+        assertEquals("http://schema.org/v2/p", derived.expandIri("s:p", false, true, null, null));
+        assertEquals(0, derived.getExpandIriHitCount());
+        assertEquals("http://schema.org/name", context.expandIri("name", false, true, null,
+                null));
+    }
+
+    @Test
+    public void expandedIrisAreBounded() throws Exception {
+        final Context context = new Context(new JsonLdOptions("http://example.org/base/"));
+        for (int i = 0; i < Context.MAX_EXPANDED_IRIS + 10; i++) {
+            context.expandIri("p" + i, true, true, null, null);
+        }
+        assertEquals("http://example.org/base/p" + Context.MAX_EXPANDED_IRIS, context.expandIri(
+                "p" + Context.MAX_EXPANDED_IRIS, true, true, null, null));
+        assertEquals(0, context.getExpandIriHitCount());
+    }
 }
@@ -0,0 +1,44 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+
+import org.junit.Test;
+
+public class HasherTest {
+
+    private static String expected(String algorithm, String text) throws Exception {
+        final byte[] digest = MessageDigest.getInstance(algorithm).digest(text.getBytes("UTF-8"));
+        final String hex = new BigInteger(1, digest).toString(16);
+        final StringBuilder padded = new StringBuilder();
+        for (int i = hex.length(); i < digest.length * 2; i++) {
+            padded.append('0');
+        }
+        return padded.append(hex).toString();
+    }
+
+    @Test
+    public void encodesLikeGetBytes() throws Exception {
+        final StringBuilder repeated = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            repeated.append("caf\u00e9\u20ac\ud83d\ude00");
+        }
+        final String[] texts = { "", "abc", "\u00e9\u07ff\u0800\uffff", "\ud83d\ude00x",
+                "lone \ud83d and \ude00", repeated.toString() };
+        for (final String algorithm : new String[] { "SHA-1", "SHA-256" }) {
+            for (final String text : texts) {
+                assertEquals(expected(algorithm, text), Hasher.get(algorithm, 0).update(text)
+                        .digest());
+            }
+        }
+    }
+
+    @Test
+    public void getResetsTheHasher() throws Exception {
+        Hasher.get("SHA-1", 2).update("left over");
+        assertEquals(expected("SHA-1", "ab"), Hasher.get("SHA-1", 2).update("a").update("b")
+                .digest());
+    }
+}
@@ -292,8 +292,9 @@ public class JsonLdProcessorTest {
                     }
                 }
             }
-            // we can't load this remote document from the test suite
-            throw new JsonLdError(JsonLdError.Error.NOT_IMPLEMENTED);
+            // we can't load this remote document from the test suite, which
+            // DocumentLoader reports in the same way
+            throw new JsonLdError(JsonLdError.Error.LOADING_REMOTE_CONTEXT_FAILED, url);
         }
 
         public void setRedirectTo(String string) {
@@ -0,0 +1,176 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.jsonldjava.utils.JsonUtils;
+
+public class JsonLdUtilsTest {
+
+    private static Object value(String json) throws Exception {
+        return JsonUtils.fromString(json);
+    }
+
+    private static Object randomValue(Random random, int depth) {
+        final String leaf = "v" + random.nextInt(5);
+        switch (depth > 2 ? 0 : random.nextInt(5)) {
+        case 0:
+            return leaf;
+        case 1:
+            return Collections.singletonMap(JsonLdConsts.ID, (Object) leaf);
+        case 2: {
+            final Map<String, Object> value = new LinkedHashMap<String, Object>();
+            value.put(JsonLdConsts.VALUE, leaf);
+            if (random.nextBoolean()) {
+                value.put(JsonLdConsts.LANGUAGE, "en");
+            }
+            if (random.nextBoolean()) {
+                value.put(JsonLdConsts.INDEX, "i");
+            }
+            if (random.nextInt(4) == 0) {
+                value.put("http://example.org/p", leaf);
+            }
+            return value;
+        }
+        case 3: {
+            final List<Object> list = new ArrayList<Object>();
+            final int size = random.nextInt(4) == 0 ? 60 + random.nextInt(10) : random
+                    .nextInt(4);
+            for (int i = 0; i < size; i++) {
+                list.add(randomValue(random, depth + 1));
+            }
+            return list;
+        }
+        default: {
+            final Map<String, Object> node = new LinkedHashMap<String, Object>();
+            node.put(JsonLdConsts.ID, leaf);
+            final int size = random.nextInt(4);
+            for (int i = 0; i < size; i++) {
+                node.put("http://example.org/p" + i, randomValue(random, depth + 1));
+            }
+            return node;
+        }
+        }
+    }
+
+    private static Object shuffled(Object value, Random random) {
+        if (value instanceof Map) {
+            final List<String> keys = new ArrayList<String>(((Map<String, Object>) value)
+                    .keySet());
+            Collections.shuffle(keys, random);
+            final Map<String, Object> copy = new LinkedHashMap<String, Object>();
+            for (final String key : keys) {
+                copy.put(key, shuffled(((Map<String, Object>) value).get(key), random));
+            }
+            return copy;
+        } else if (value instanceof List) {
+            final List<Object> copy = new ArrayList<Object>();
+            for (final Object item : (List<Object>) value) {
+                copy.add(shuffled(item, random));
+            }
+            Collections.shuffle(copy, random);
+            return copy;
+        }
+        return value;
+    }
+
+    @Test
+    public void equalValuesHashAlike() {
+        final Random random = new Random(24);
+        for (int i = 0; i < 2000; i++) {
+            final Object value = randomValue(random, 0);
+            final Object copy = shuffled(value, random);
+            assertTrue(JsonLdUtils.deepCompare(value, copy));
+            assertTrue(JsonLdUtils.deepCompare(copy, value));
+            assertEquals(JsonLdUtils.deepHashCode(value), JsonLdUtils.deepHashCode(copy));
+        }
+    }
+
+    @Test
+    public void comparesNodeReferencesAndValueObjects() throws Exception {
+        assertTrue(JsonLdUtils.deepCompare(value("{\"@id\":\"a\"}"), value("{\"@id\":\"a\"}")));
+        assertFalse(JsonLdUtils.deepCompare(value("{\"@id\":\"a\"}"), value("{\"@id\":\"b\"}")));
+        assertFalse(JsonLdUtils.deepCompare(value("{\"@id\":\"a\"}"), value("{\"@value\":\"a\"}")));
+        assertFalse(JsonLdUtils.deepCompare(value("{\"@value\":\"a\",\"@language\":\"en\"}"),
+                value("{\"@value\":\"a\",\"@type\":\"en\"}")));
+        assertFalse(JsonLdUtils.deepCompare(value("{\"@value\":\"a\",\"x\":\"en\"}"),
+                value("{\"@value\":\"a\",\"@type\":\"en\"}")));
+        assertTrue(JsonLdUtils.deepCompare(value("{\"@value\":\"a\",\"x\":\"en\"}"),
+                value("{\"x\":\"en\",\"@value\":\"a\"}")));
+        assertFalse(JsonLdUtils.deepCompare(value("{\"@value\":1}"), value("{\"@value\":1.0}")));
+    }
+
+    @Test
+    public void comparesListsAsMultisets() throws Exception {
+        final List<Object> list = new ArrayList<Object>();
+        final List<Object> other = new ArrayList<Object>();
+        for (int i = 0; i < 100; i++) {
+            list.add("v" + (i % 10));
+            other.add("v" + ((i + 3) % 10));
+        }
+        assertTrue(JsonLdUtils.deepCompare(list, other));
+        assertFalse(JsonLdUtils.deepCompare(list, other, true));
+        other.set(0, "v0");
+        assertFalse(JsonLdUtils.deepCompare(list, other));
+        // "Aa" and "BB" have the same hash code
+        final List<Object> colliding = new ArrayList<Object>();
+        final List<Object> reversed = new ArrayList<Object>();
+        for (int i = 0; i < 40; i++) {
+            colliding.add(i % 3 == 0 ? "Aa" : "BB");
+            reversed.add(0, colliding.get(i));
+        }
+        assertTrue(JsonLdUtils.deepCompare(colliding, reversed));
+        reversed.set(0, reversed.get(0).equals("Aa") ? "BB" : "Aa");
+        assertFalse(JsonLdUtils.deepCompare(colliding, reversed));
+        assertFalse(JsonLdUtils.deepCompare(value("[1,1,2]"), value("[1,2,2]")));
+        assertTrue(JsonLdUtils.deepCompare(value("[1,2,2]"), value("[2,1,2]")));
+    }
+
+    @Test
+    public void comparesFramedNodesById() throws Exception {
+        assertTrue(JsonLdUtils.compareValues(value("{\"@id\":\"a\",\"p\":1}"),
+                value("{\"@id\":\"a\"}")));
+        assertTrue(JsonLdUtils.compareValues(value("{\"@value\":\"a\",\"@type\":\"t\"}"),
+                value("{\"@type\":\"t\",\"@value\":\"a\"}")));
+        assertFalse(JsonLdUtils.compareValues(value("{\"@id\":\"a\"}"),
+                value("{\"@id\":\"b\"}")));
+        assertTrue(JsonLdUtils.compareValues("a", "a"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void clonesDeeply() throws Exception {
+        final Map<String, Object> original = (Map<String, Object>) value(
+                "{\"@id\":\"a\",\"p\":[{\"@value\":1},{\"@list\":[true,null,\"x\"]}],"
+                        + "\"q\":{\"r\":[[]]}}");
+        final Map<String, Object> copy = (Map<String, Object>) JsonLdUtils.clone(original);
+        assertEquals(original, copy);
+        assertEquals(new ArrayList<String>(original.keySet()),
+                new ArrayList<String>(copy.keySet()));
+
+        ((Map<String, Object>) ((List<Object>) copy.get("p")).get(0)).put("@value", 2);
+        ((List<Object>) ((Map<String, Object>) copy.get("q")).get("r")).add("s");
+        copy.remove("@id");
+        assertEquals(value("{\"@id\":\"a\",\"p\":[{\"@value\":1},{\"@list\":[true,null,\"x\"]}],"
+                + "\"q\":{\"r\":[[]]}}"), original);
+
+        final ValueList values = new ValueList();
+        values.add(original);
+        final Object copied = JsonLdUtils.clone(values);
+        assertEquals(ArrayList.class, copied.getClass());
+        assertEquals(values, copied);
+        assertFalse(((List<Object>) copied).get(0) == original);
+        assertTrue(JsonLdUtils.clone("a") == "a");
+        assertEquals(null, JsonLdUtils.clone(null));
+    }
+}
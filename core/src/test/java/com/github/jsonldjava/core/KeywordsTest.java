@@ -0,0 +1,47 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class KeywordsTest {
+
+    private static final String[] KEYWORDS = { JsonLdConsts.BASE, JsonLdConsts.CONTAINER,
+            JsonLdConsts.CONTEXT, JsonLdConsts.DEFAULT, JsonLdConsts.EMBED,
+            JsonLdConsts.EXPLICIT, JsonLdConsts.GRAPH, JsonLdConsts.ID, JsonLdConsts.INDEX,
+            JsonLdConsts.LANGUAGE, JsonLdConsts.LIST, JsonLdConsts.OMIT_DEFAULT,
+            JsonLdConsts.PRESERVE, JsonLdConsts.REVERSE, JsonLdConsts.SET, JsonLdConsts.TYPE,
+            JsonLdConsts.VALUE, JsonLdConsts.VOCAB };
+
+    @Test
+    public void numbersEachKeyword() {
+        final Set<Integer> numbers = new HashSet<Integer>();
+        for (final String keyword : KEYWORDS) {
+            final int number = Keywords.of(keyword);
+            assertTrue(keyword, number != Keywords.NONE);
+            assertTrue(keyword, numbers.add(number));
+            // parsed keys are not interned
+            assertEquals(keyword, number, Keywords.of(new String(keyword)));
+            assertTrue(keyword, JsonLdUtils.isKeyword(keyword));
+        }
+        assertEquals(Keywords.ID, Keywords.of("@id"));
+        assertEquals(Keywords.VALUE, Keywords.of("@value"));
+        assertEquals(Keywords.VOCAB, Keywords.of("@vocab"));
+    }
+
+    @Test
+    public void rejectsOtherKeys() {
+        final Object[] keys = { null, 1, "", "@", "@i", "@ID", "id", "@ids", "@valve",
+                "@vocabulary", "@embedChildren", "@none", "@null", "@contexts", "@lists",
+                "http://schema.org/name", "ex:@id" };
+        for (final Object key : keys) {
+            assertEquals(String.valueOf(key), Keywords.NONE, Keywords.of(key));
+            assertFalse(String.valueOf(key), JsonLdUtils.isKeyword(key));
+        }
+    }
+}
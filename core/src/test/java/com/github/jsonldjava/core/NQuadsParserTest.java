@@ -0,0 +1,120 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.jsonldjava.core.RDFDataset.Node;
+import com.github.jsonldjava.core.RDFDataset.Quad;
+import com.github.jsonldjava.utils.CorpusGenerator;
+
+public class NQuadsParserTest {
+
+    private static final String INPUT = "# a comment\r\n"
+            + "<http://example.org/s> <http://example.org/p> \"a \\\"quoted\\\"\\n\\u00e9\\U0001F600\" .\r\n"
+            + "\n"
+            + "_:b.1 <http://example.org/p> \"chat\"@fr-CA <http://example.org/g> . # trailing\n"
+            + "  _:b.1\t<http://example.org/p>  \"1\"^^<http://www.w3.org/2001/XMLSchema#integer>_:g.\n"
+            + "<http://example.org/s><http://example.org/p><http://example.org/\\u00e9>.";
+
+    @Test
+    public void parsesAllTermKinds() throws Exception {
+        final RDFDataset dataset = new NQuadsParser(new StringReader(INPUT)).parse();
+
+        final List<Quad> defaultGraph = dataset.getQuads("@default");
+        assertEquals(2, defaultGraph.size());
+        final Node literal = defaultGraph.get(0).getObject();
+        assertEquals("a \"quoted\"\n\u00e9\ud83d\ude00", literal.getValue());
+        assertEquals(JsonLdConsts.XSD_STRING, literal.getDatatype());
+        assertNull(literal.getLanguage());
+        assertEquals("http://example.org/\u00e9", defaultGraph.get(1).getObject().getValue());
+
+        final Quad inNamed = dataset.getQuads("http://example.org/g").get(0);
+        assertTrue(inNamed.getSubject().isBlankNode());
+        assertEquals("_:b.1", inNamed.getSubject().getValue());
+        assertEquals("fr-CA", inNamed.getObject().getLanguage());
+        assertEquals(JsonLdConsts.RDF_LANGSTRING, inNamed.getObject().getDatatype());
+
+        final Quad inBlank = dataset.getQuads("_:g").get(0);
+        assertEquals(JsonLdConsts.XSD_INTEGER, inBlank.getObject().getDatatype());
+        assertEquals("_:g", inBlank.getGraph().getValue());
+    }
+
+    @Test
+    public void readsStreamsAndBuffers() throws Exception {
+        final RDFDataset expected = RDFDatasetUtils.parseNQuads(INPUT);
+        final byte[] bytes = INPUT.getBytes("UTF-8");
+        assertEquals(expected, new NQuadsParser(new ByteArrayInputStream(bytes)).parse());
+        assertEquals(expected, new NQuadsParser(ByteBuffer.wrap(bytes)).parse());
+    }
+
+    @Test
+    public void streamsQuadsInDocumentOrder() throws Exception {
+        final CorpusGenerator generator = new CorpusGenerator(9);
+        generator.setTriples(20000);
+        generator.setNamedGraphs(3);
+        final String nquads = generator.generateNQuads();
+        final StringBuilder output = new StringBuilder();
+        new NQuadsParser(new StringReader(nquads)).parse(new QuadSink() {
+            @Override
+            public void onQuad(Node subject, Node predicate, Node object, String graph) {
+                output.append(RDFDatasetUtils.toNQuad(new Quad(subject, predicate, object,
+                        graph), graph));
+            }
+        });
+        assertEquals(nquads.split("\n").length, output.toString().split("\n").length);
+        assertEquals(RDFDatasetUtils.parseNQuads(nquads), RDFDatasetUtils.parseNQuads(output
+                .toString()));
+    }
+
+    private static void assertSyntaxError(String input, String position) {
+        try {
+            RDFDatasetUtils.parseNQuads(input);
+            fail("expected a syntax error for " + input);
+        } catch (final JsonLdError e) {
+            assertEquals(JsonLdError.Error.SYNTAX_ERROR, e.getType());
+            assertTrue(e.getMessage(), e.getMessage().endsWith(position));
+        }
+    }
+
+    @Test
+    public void reportsLineAndColumn() {
+        assertSyntaxError("<http://example.org/s> <http://example.org/p> \"open .",
+                "line:1 column:54");
+        assertSyntaxError("\n\n<a> <b> <c>", "line:3 column:12");
+        assertSyntaxError("<a> <b> <c> .\r\n<a> \"b\" <c> .", "line:2 column:5");
+        assertSyntaxError("<a> <b> \"c\"^<d> .", "line:1 column:13");
+        assertSyntaxError("<a> <b> \"\\q\" .", "line:1 column:11");
+        assertSyntaxError("<a> <b> <c> . <d>", "line:1 column:15");
+        assertSyntaxError("_:a.", "line:1 column:4");
+    }
+
+    @Test
+    public void rejectsMalformedLanguageTags() throws Exception {
+        assertEquals("en-US-1994", RDFDatasetUtils.parseNQuads("<a> <b> \"c\"@en-US-1994 .")
+                .getQuads("@default").get(0).getObject().getLanguage());
+        assertSyntaxError("<a> <b> \"c\"@en- .", "line:1 column:16");
+        assertSyntaxError("<a> <b> \"c\"@en--x .", "line:1 column:16");
+        assertSyntaxError("<a> <b> \"c\"@e1 .", "line:1 column:14");
+        assertSyntaxError("<a> <b> \"c\"@1en .", "line:1 column:13");
+    }
+
+    @Test
+    public void parsesDotsAndSupplementaryCharactersInLabels() throws Exception {
+        final String gothic = new String(Character.toChars(0x10330));
+        final RDFDataset dataset = RDFDatasetUtils.parseNQuads("_:a..b <http://example.org/p> _:"
+                + gothic + "\ud83d\ude00.x...y _:g.\n");
+        final Quad quad = dataset.getQuads("_:g").get(0);
+        assertEquals("_:a..b", quad.getSubject().getValue());
+        assertEquals("_:" + gothic + "\ud83d\ude00.x...y", quad.getObject().getValue());
+        assertSyntaxError("_:a.. <b> <c> .", "line:1 column:4");
+    }
+}
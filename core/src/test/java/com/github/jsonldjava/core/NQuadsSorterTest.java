@@ -0,0 +1,95 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class NQuadsSorterTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private static List<String> lines(long seed, int count) {
+        final Random random = new Random(seed);
+        final String[] parts = { "a", "b", "\u00e9", "\ud83d\ude00" };
+        final List<String> lines = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            // short values, so many lines are equal or share long prefixes
+            final StringBuilder line = new StringBuilder("<http://example.org/");
+            final int length = random.nextInt(4);
+            for (int j = 0; j < length; j++) {
+                line.append(parts[random.nextInt(parts.length)]);
+            }
+            lines.add(line.append("> <p> \"o\" .\n").toString());
+        }
+        return lines;
+    }
+
+    private static String sort(List<String> lines, int runSize, File directory)
+            throws Exception {
+        return sort(lines, runSize, directory, NQuadsSorter.MAX_FAN_IN);
+    }
+
+    private static String sort(List<String> lines, int runSize, File directory, int fanIn)
+            throws Exception {
+        final NQuadsSorter sorter = new NQuadsSorter(runSize, directory, fanIn);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            for (final String line : lines) {
+                sorter.add(line);
+            }
+            sorter.writeTo(output);
+        } finally {
+            sorter.close();
+        }
+        return output.toString("UTF-8");
+    }
+
+    private static String sorted(List<String> lines) {
+        final List<String> sorted = new ArrayList<String>(lines);
+        Collections.sort(sorted);
+        final StringBuilder expected = new StringBuilder();
+        for (final String line : sorted) {
+            expected.append(line);
+        }
+        return expected.toString();
+    }
+
+    @Test
+    public void sortsLikeCollectionsSort() throws Exception {
+        final List<String> lines = lines(1, 1000);
+        final String expected = sorted(lines);
+        final File directory = tempDir.newFolder();
+        assertEquals(expected, sort(lines, 0, directory));
+        assertEquals(expected, sort(lines, 1000, directory));
+        assertEquals(expected, sort(lines, 50, directory));
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void mergesInSeveralPasses() throws Exception {
+        final List<String> lines = lines(2, 200);
+        final String expected = sorted(lines);
+        final File directory = tempDir.newFolder();
+        // 10 runs, merged 2 or 3 at a time
+        assertEquals(expected, sort(lines, 20, directory, 2));
+        assertEquals(expected, sort(lines, 20, directory, 3));
+        // one run more than a pass can merge
+        assertEquals(expected, sort(lines, 20, directory, 9));
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void sortsNothing() throws Exception {
+        assertEquals("", sort(new ArrayList<String>(), 10, tempDir.newFolder()));
+    }
+}
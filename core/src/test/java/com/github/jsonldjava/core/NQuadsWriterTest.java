@@ -0,0 +1,125 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.github.jsonldjava.utils.CorpusGenerator;
+
+public class NQuadsWriterTest {
+
+    /**
+     * The escaping rules as they were implemented with String.format.
+     */
+    private static String formatEscape(String str) {
+        final StringBuilder rval = new StringBuilder();
+        for (int i = 0; i < str.length(); i++) {
+            final char hi = str.charAt(i);
+            if (hi <= 0x8 || hi == 0xB || hi == 0xC || (hi >= 0xE && hi <= 0x1F)
+                    || (hi >= 0x7F && hi <= 0xA0)
+                    || (hi >= 0x24F && !Character.isHighSurrogate(hi))) {
+                rval.append(String.format("\\u%04x", (int) hi));
+            } else if (Character.isHighSurrogate(hi)) {
+                final char lo = str.charAt(++i);
+                final int c = (hi << 10) + lo + (0x10000 - (0xD800 << 10) - 0xDC00);
+                rval.append(String.format("\\U%08x", c));
+            } else if (hi == '\n') {
+                rval.append("\\n");
+            } else if (hi == '\t') {
+                rval.append("\\t");
+            } else if (hi == '\r') {
+                rval.append("\\r");
+            } else if (hi == '"') {
+                rval.append("\\\"");
+            } else if (hi == '\\') {
+                rval.append("\\\\");
+            } else {
+                rval.append(hi);
+            }
+        }
+        return rval.toString();
+    }
+
+    @Test
+    public void escapesLikeTheFormatter() {
+        for (char c = 0; c < 0xD800; c++) {
+            final String str = "a" + c + "b";
+            assertEquals(Integer.toHexString(c), formatEscape(str), RDFDatasetUtils.escape(str));
+        }
+        for (char c = 0xE000; c != 0; c++) {
+            final String str = String.valueOf(c);
+            assertEquals(Integer.toHexString(c), formatEscape(str), RDFDatasetUtils.escape(str));
+        }
+        final String pair = "x\ud83d\ude00y";
+        assertEquals(formatEscape(pair), RDFDatasetUtils.escape(pair));
+        assertEquals("\\U0001f600", RDFDatasetUtils.escape("\ud83d\ude00"));
+    }
+
+    private static RDFDataset corpus() throws Exception {
+        final CorpusGenerator generator = new CorpusGenerator(11);
+        generator.setTriples(20000);
+        generator.setNamedGraphs(3);
+        generator.setBlankNodeDensity(0.3);
+        return RDFDatasetUtils.parseNQuads(generator.generateNQuads());
+    }
+
+    private static String sortLines(String nquads) {
+        final String[] lines = nquads.split("\n");
+        Arrays.sort(lines);
+        final StringBuilder sorted = new StringBuilder();
+        for (final String line : lines) {
+            sorted.append(line).append('\n');
+        }
+        return sorted.toString();
+    }
+
+    @Test
+    public void writesTheSameQuadsAsToNQuads() throws Exception {
+        final RDFDataset dataset = corpus();
+        final StringWriter output = new StringWriter();
+        assertNull(new NQuadsWriter(output).call(dataset));
+        assertEquals(RDFDatasetUtils.toNQuads(dataset), sortLines(output.toString()));
+    }
+
+    @Test
+    public void writesUtf8Streams() throws Exception {
+        final RDFDataset dataset = new RDFDataset();
+        dataset.addQuad(new RDFDataset.Quad(new RDFDataset.IRI("http://example.org/s"),
+                new RDFDataset.IRI("http://example.org/p"), new RDFDataset.Literal(
+                        "caf\u00e9 \"\ud83d\ude00\"\n", JsonLdConsts.RDF_LANGSTRING, "fr"),
+                "_:g"));
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final NQuadsWriter writer = new NQuadsWriter(output);
+        writer.write(dataset.getQuads("_:g").get(0));
+        writer.close();
+        assertEquals("<http://example.org/s> <http://example.org/p> "
+                + "\"caf\u00e9 \\\"\\U0001f600\\\"\\n\"@fr _:g .\n", output.toString("UTF-8"));
+        assertEquals(dataset, RDFDatasetUtils.parseNQuads(output.toString("UTF-8")));
+    }
+
+    @Test
+    public void streamsToRDF() throws Exception {
+        final CorpusGenerator generator = new CorpusGenerator(12);
+        generator.setTriples(5000);
+        generator.setNamedGraphs(2);
+        final Object input = generator.generateJsonLd();
+
+        final StringWriter output = new StringWriter();
+        final NQuadsWriter writer = new NQuadsWriter(output);
+        JsonLdProcessor.toRDF(input, new JsonLdOptions(), writer);
+        writer.flush();
+
+        // the blank node labels of the streaming conversion may differ
+        final JsonLdOptions options = new JsonLdOptions();
+        options.format = JsonLdConsts.APPLICATION_NQUADS;
+        final String expected = (String) JsonLdProcessor.toRDF(input, options);
+        assertEquals(expected.split("\n").length, output.toString().split("\n").length);
+        assertEquals(JsonLdProcessor.normalize(input, options), JsonLdProcessor.normalize(
+                JsonLdProcessor.fromRDF(output.toString(), options), options));
+    }
+}
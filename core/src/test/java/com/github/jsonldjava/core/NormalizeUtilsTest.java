@@ -0,0 +1,260 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.jsonldjava.utils.CorpusGenerator;
+import com.github.jsonldjava.utils.JsonUtils;
+
+public class NormalizeUtilsTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutDown() {
+        executor.shutdownNow();
+    }
+
+    private static String normalize(String nquads, JsonLdOptions options) throws JsonLdError {
+        options.format = JsonLdConsts.APPLICATION_NQUADS;
+        return (String) new JsonLdApi(options).normalize(RDFDatasetUtils.parseNQuads(nquads));
+    }
+
+    private static String normalize(String nquads, ExecutorService executor) throws JsonLdError {
+        final JsonLdOptions options = new JsonLdOptions();
+        options.setNormalizationExecutor(executor);
+        return normalize(nquads, options);
+    }
+
+    @Test
+    public void parallelHashingMatchesSerial() throws Exception {
+        final CorpusGenerator generator = new CorpusGenerator(3);
+        generator.setTriples(20000);
+        generator.setBlankNodeDensity(0.8);
+        generator.setNamedGraphs(2);
+        final String nquads = generator.generateNQuads();
+        assertEquals(normalize(nquads, (ExecutorService) null), normalize(nquads, executor));
+    }
+
+    @Test
+    public void parallelPathHashingMatchesSerial() throws Exception {
+        // blank nodes in rings all share the hash of their quads
+        final StringBuilder nquads = new StringBuilder();
+        for (int ring = 0; ring < 20; ring++) {
+            final int length = 3 + ring % 4;
+            for (int i = 0; i < length; i++) {
+                nquads.append("_:r").append(ring).append('n').append(i)
+                        .append(" <http://example.org/next> _:r").append(ring).append('n')
+                        .append((i + 1) % length).append(" .\n");
+            }
+        }
+        assertEquals(normalize(nquads.toString(), (ExecutorService) null), normalize(nquads
+                .toString(), executor));
+    }
+
+    @Test
+    public void hashAlgorithmCanBeChosen() throws Exception {
+        // blank nodes named in the order of their hashes
+        final StringBuilder quads = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            quads.append("_:x").append(i).append(" <http://example.org/p> \"").append(i)
+                    .append("\" .\n");
+        }
+        final String nquads = quads.toString();
+        final JsonLdOptions sha1 = new JsonLdOptions();
+        sha1.setHashAlgorithm("SHA-1");
+        assertEquals(normalize(nquads, new JsonLdOptions()), normalize(nquads, sha1));
+
+        final JsonLdOptions md5 = new JsonLdOptions();
+        md5.setHashAlgorithm("MD5");
+        final JsonLdOptions sha256 = new JsonLdOptions();
+        sha256.setHashAlgorithm("SHA-256");
+        assertFalse(normalize(nquads, md5).equals(normalize(nquads, sha256)));
+    }
+
+    @Test
+    public void datasetMatchesTheParsedDocument() throws Exception {
+        final CorpusGenerator generator = new CorpusGenerator(11);
+        generator.setTriples(2000);
+        generator.setBlankNodeDensity(0.5);
+        generator.setNamedGraphs(2);
+        final RDFDataset dataset = RDFDatasetUtils.parseNQuads(generator.generateNQuads()
+                + "_:l <http://example.org/p> \"chat\"@fr _:g .\n"
+                + "_:l <http://example.org/p> \"1\"^^<http://example.org/t> .\n"
+                + "_:l <http://example.org/p> \"1\"^^<http://example.org/t> .\n");
+        for (final String algorithm : new String[] { JsonLdConsts.URGNA2012,
+                JsonLdConsts.URDNA2015 }) {
+            final JsonLdOptions options = new JsonLdOptions();
+            options.setAlgorithm(algorithm);
+            options.format = JsonLdConsts.APPLICATION_NQUADS;
+            final String nquads = (String) new JsonLdApi(options).normalize(dataset);
+            options.format = null;
+            assertEquals(RDFDatasetUtils.parseNQuads(nquads), new JsonLdApi(options)
+                    .normalize(dataset));
+        }
+    }
+
+    @Test
+    public void streamsTheSortedDocument() throws Exception {
+        final CorpusGenerator generator = new CorpusGenerator(7);
+        generator.setTriples(2000);
+        generator.setBlankNodeDensity(0.5);
+        generator.setNamedGraphs(2);
+        final RDFDataset dataset = RDFDatasetUtils.parseNQuads(generator.generateNQuads());
+        for (final String algorithm : new String[] { JsonLdConsts.URGNA2012,
+                JsonLdConsts.URDNA2015 }) {
+            final JsonLdOptions options = new JsonLdOptions();
+            options.setAlgorithm(algorithm);
+            options.format = JsonLdConsts.APPLICATION_NQUADS;
+            final String expected = (String) new JsonLdApi(options).normalize(dataset);
+
+            // sorted in runs of 300 quads, merged from temporary files
+            options.format = null;
+            options.setNormalizationRunSize(300);
+            options.setNormalizationTempDirectory(tempDir.getRoot());
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            new JsonLdApi(options).normalize(dataset, output);
+            assertEquals(expected, output.toString("UTF-8"));
+            assertEquals(0, tempDir.getRoot().list().length);
+        }
+    }
+
+    private static final String REMOTE_CONTEXT = "http://example.org/context.jsonld";
+
+    /**
+     * Options whose loader serves {@link #REMOTE_CONTEXT} without the network.
+     */
+    private static JsonLdOptions offlineOptions() {
+        final JsonLdOptions options = new JsonLdOptions();
+        options.setDocumentLoader(new DocumentLoader() {
+            @Override
+            public RemoteDocument loadDocument(String url) throws JsonLdError {
+                if (!REMOTE_CONTEXT.equals(url)) {
+                    throw new JsonLdError(JsonLdError.Error.LOADING_REMOTE_CONTEXT_FAILED, url);
+                }
+                final Map<String, Object> context = new LinkedHashMap<String, Object>();
+                context.put("p", "http://example.org/p");
+                return new RemoteDocument(url, Collections.singletonMap("@context",
+                        (Object) context));
+            }
+        });
+        return options;
+    }
+
+    private static Object remoteContextDocument() throws Exception {
+        return JsonUtils.fromString("{\"@context\": \"" + REMOTE_CONTEXT + "\", "
+                + "\"@id\": \"_:a\", \"p\": \"v\"}");
+    }
+
+    @Test
+    public void streamsJsonLdWithTheCallersLoader() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JsonLdProcessor.normalize(remoteContextDocument(), output, offlineOptions());
+        assertEquals("_:c14n0 <http://example.org/p> \"v\" .\n", output.toString("UTF-8"));
+    }
+
+    private static String digest(String nquads, String algorithm) throws JsonLdError {
+        final JsonLdOptions options = new JsonLdOptions();
+        options.setAlgorithm(algorithm);
+        return new JsonLdApi(options).normalizedDigest(RDFDatasetUtils.parseNQuads(nquads));
+    }
+
+    @Test
+    public void digestIgnoresLabelsOrderAndDuplicates() throws Exception {
+        final String a = "_:x <http://example.org/p> _:y _:g .\n";
+        final String b = "_:y <http://example.org/p> \"b\" _:g .\n";
+        final String c = "<http://example.org/s> <http://example.org/p> _:x .\n";
+        for (final String algorithm : new String[] { JsonLdConsts.URGNA2012,
+                JsonLdConsts.URDNA2015 }) {
+            final String digest = digest(a + b + c, algorithm);
+            assertEquals(digest, digest((c + b + a + c).replace("_:x", "_:z"), algorithm));
+            assertFalse(digest.equals(digest(a + b.replace("\"b\"", "\"c\"") + c, algorithm)));
+        }
+    }
+
+    @Test
+    public void digestHashesTheSortedQuadHashes() throws Exception {
+        final CorpusGenerator generator = new CorpusGenerator(13);
+        generator.setTriples(500);
+        generator.setBlankNodeDensity(0.5);
+        final String nquads = generator.generateNQuads();
+        final JsonLdOptions options = new JsonLdOptions();
+        options.setAlgorithm(JsonLdConsts.URDNA2015);
+        final String normalized = normalize(nquads, options);
+
+        final List<String> quadHashes = new ArrayList<String>();
+        for (final String line : new TreeSet<String>(Arrays.asList(normalized.split("\n")))) {
+            quadHashes.add(sha256Hex((line + "\n").getBytes("UTF-8")));
+        }
+        // hex strings sort as the bytes they encode do
+        Collections.sort(quadHashes);
+        final ByteArrayOutputStream concatenated = new ByteArrayOutputStream();
+        for (final String quadHash : quadHashes) {
+            for (int i = 0; i < quadHash.length(); i += 2) {
+                concatenated.write(Integer.parseInt(quadHash.substring(i, i + 2), 16));
+            }
+        }
+        assertEquals(sha256Hex(concatenated.toByteArray()), digest(nquads,
+                JsonLdConsts.URDNA2015));
+    }
+
+    @Test
+    public void digestsJsonLd() throws Exception {
+        final String document = "{\"@id\": \"_:a\", \"http://example.org/p\": "
+                + "{\"@id\": \"_:b\", \"http://example.org/q\": \"v\"}}";
+        final String relabeled = document.replace("_:a", "_:c");
+        final JsonLdOptions options = new JsonLdOptions();
+        assertEquals(JsonLdProcessor.normalizedDigest(JsonUtils.fromString(document), options),
+                JsonLdProcessor.normalizedDigest(JsonUtils.fromString(relabeled), options));
+    }
+
+    @Test
+    public void digestsJsonLdWithTheCallersLoader() throws Exception {
+        final String inline = "{\"@context\": {\"p\": \"http://example.org/p\"}, "
+                + "\"@id\": \"_:a\", \"p\": \"v\"}";
+        assertEquals(JsonLdProcessor.normalizedDigest(JsonUtils.fromString(inline),
+                new JsonLdOptions()), JsonLdProcessor.normalizedDigest(remoteContextDocument(),
+                offlineOptions()));
+    }
+
+    private static String sha256Hex(byte[] bytes) throws Exception {
+        final StringBuilder hex = new StringBuilder();
+        for (final byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+            hex.append(String.format("%02x", b & 0xFF));
+        }
+        return hex.toString();
+    }
+
+    @Test
+    public void unknownHashAlgorithmIsAnError() throws Exception {
+        final JsonLdOptions options = new JsonLdOptions();
+        options.setHashAlgorithm("no such algorithm");
+        try {
+            normalize("<http://example.org/s> <http://example.org/p> \"o\" .\n", options);
+            fail("expected an error");
+        } catch (final JsonLdError e) {
+            assertEquals(JsonLdError.Error.INVALID_INPUT, e.getType());
+        }
+    }
+}
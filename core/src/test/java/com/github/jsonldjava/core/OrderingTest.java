@@ -0,0 +1,102 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.github.jsonldjava.utils.JsonUtils;
+
+public class OrderingTest {
+
+    private static final String BASE = "http://json-ld.org/test-suite/tests/";
+
+    private static List<File> inputs(String prefix) throws Exception {
+        final URL dir = OrderingTest.class.getResource("/json-ld.org");
+        final List<File> inputs = new ArrayList<File>();
+        for (final File file : new File(dir.toURI()).listFiles()) {
+            if (file.getName().startsWith(prefix) && file.getName().endsWith("-in.jsonld")) {
+                inputs.add(file);
+            }
+        }
+        return inputs;
+    }
+
+    private static Object read(File file) throws Exception {
+        final InputStream in = file.toURI().toURL().openStream();
+        try {
+            return JsonUtils.fromInputStream(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static JsonLdOptions options(File file, boolean ordered) {
+        final JsonLdOptions options = new JsonLdOptions(BASE + file.getName());
+        options.setOrdered(ordered);
+        return options;
+    }
+
+    private static String normalize(Object flattened) throws JsonLdError {
+        final JsonLdOptions options = new JsonLdOptions();
+        options.format = JsonLdConsts.APPLICATION_NQUADS;
+        return (String) JsonLdProcessor.normalize(flattened, options);
+    }
+
+    @Test
+    public void unorderedExpansionMatchesTestSuite() throws Exception {
+        int compared = 0;
+        for (final File file : inputs("expand-")) {
+            final List<Object> expected;
+            try {
+                expected = JsonLdProcessor.expand(read(file), options(file, true));
+            } catch (final JsonLdError e) {
+                // error tests are covered by JsonLdProcessorTest
+                continue;
+            }
+            final List<Object> actual = JsonLdProcessor.expand(read(file), options(file, false));
+            assertTrue(file.getName(), JsonLdUtils.deepCompare(expected, actual));
+            compared++;
+        }
+        assertTrue(compared > 50);
+    }
+
+    @Test
+    public void unorderedFlatteningDescribesTheSameGraph() throws Exception {
+        int compared = 0;
+        for (final File file : inputs("flatten-")) {
+            final Object expected;
+            try {
+                expected = JsonLdProcessor.flatten(read(file), options(file, true));
+            } catch (final JsonLdError e) {
+                continue;
+            }
+            final Object actual = JsonLdProcessor.flatten(read(file), options(file, false));
+            assertEquals(file.getName(), normalize(expected), normalize(actual));
+            compared++;
+        }
+        assertTrue(compared > 20);
+    }
+
+    @Test
+    public void unorderedExpansionKeepsTheOrderOfTheDocument() throws Exception {
+        final Object input = JsonUtils.fromString("{\"@context\":{\"@vocab\":\"http://ex/\"},"
+                + "\"z\":1,\"a\":2,\"m\":3}");
+        final JsonLdOptions options = new JsonLdOptions();
+        options.setOrdered(false);
+        final Map<String, Object> node = (Map<String, Object>) JsonLdProcessor.expand(input,
+                options).get(0);
+        assertEquals("[http://ex/z, http://ex/a, http://ex/m]", node.keySet().toString());
+
+        final Map<String, Object> ordered = (Map<String, Object>) JsonLdProcessor.expand(
+                input, new JsonLdOptions()).get(0);
+        assertEquals("[http://ex/a, http://ex/m, http://ex/z]", ordered.keySet().toString());
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.github.jsonldjava.core.RDFDataset.Node;
+import com.github.jsonldjava.utils.JsonUtils;
+
+public class QuadSinkTest {
+
+    private static class CollectingSink implements QuadSink {
+        final Set<String> quads = new LinkedHashSet<String>();
+
+        @Override
+        public void onQuad(Node subject, Node predicate, Node object, String graph) {
+            quads.add(RDFDatasetUtils.toNQuad(
+                    new RDFDataset.Quad(subject, predicate, object, graph), graph));
+        }
+
+        Set<String> normalized() throws JsonLdError {
+            final StringBuilder nquads = new StringBuilder();
+            for (final String quad : quads) {
+                nquads.append(quad);
+            }
+            final JsonLdOptions options = new JsonLdOptions();
+            options.format = JsonLdConsts.APPLICATION_NQUADS;
+            return lines(new JsonLdApi(options)
+                    .normalize(RDFDatasetUtils.parseNQuads(nquads.toString())));
+        }
+    }
+
+    // datasets are sets, so duplicate quads are ignored
+    private static Set<String> lines(Object nquads) {
+        return new TreeSet<String>(Arrays.asList(((String) nquads).split("\n")));
+    }
+
+    @Test
+    public void matchesToRdfTestSuite() throws Exception {
+        final URL dir = getClass().getResource("/json-ld.org");
+        int compared = 0;
+        for (final File file : new File(dir.toURI()).listFiles()) {
+            if (!file.getName().startsWith("toRdf-") || !file.getName().endsWith("-in.jsonld")) {
+                continue;
+            }
+            final String base = "http://json-ld.org/test-suite/tests/" + file.getName();
+            final Object input;
+            InputStream in = file.toURI().toURL().openStream();
+            try {
+                input = JsonUtils.fromInputStream(in);
+            } finally {
+                in.close();
+            }
+            final Set<String> expected;
+            try {
+                final JsonLdOptions options = new JsonLdOptions(base);
+                options.format = JsonLdConsts.APPLICATION_NQUADS;
+                expected = lines(JsonLdProcessor.normalize(input, options));
+            } catch (final JsonLdError e) {
+                // error tests are covered by JsonLdProcessorTest
+                continue;
+            }
+
+            final CollectingSink fromObject = new CollectingSink();
+            JsonLdProcessor.toRDF(input, new JsonLdOptions(base), fromObject);
+            assertEquals(file.getName(), expected, fromObject.normalized());
+
+            final CollectingSink fromParser = new CollectingSink();
+            in = file.toURI().toURL().openStream();
+            try {
+                JsonLdProcessor.toRDF(new JsonFactory().createParser(in), new JsonLdOptions(base),
+                        fromParser);
+            } finally {
+                in.close();
+            }
+            assertEquals(file.getName(), expected, fromParser.normalized());
+            compared++;
+        }
+        assertTrue(compared > 50);
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.github.jsonldjava.core.RDFDataset.BlankNode;
+import com.github.jsonldjava.core.RDFDataset.IRI;
+import com.github.jsonldjava.core.RDFDataset.Literal;
+import com.github.jsonldjava.core.RDFDataset.Quad;
+
+public class RDFDatasetTest {
+
+    @Test
+    public void nodesAreValues() {
+        assertEquals(new IRI("http://example.org/a"), new IRI("http://example.org/a"));
+        assertEquals(new IRI("http://example.org/a").hashCode(),
+                new IRI("http://example.org/a").hashCode());
+        assertFalse(new IRI("_:a").equals(new BlankNode("_:a")));
+        assertEquals(new Literal("1", null, null), new Literal("1", JsonLdConsts.XSD_STRING, null));
+        assertFalse(new Literal("1", null, "en").equals(new Literal("1", null, "fr")));
+    }
+
+    @Test
+    public void quadsAreValues() {
+        final Set<Quad> quads = new HashSet<Quad>();
+        assertTrue(quads.add(new Quad("_:a", "http://example.org/p", "http://example.org/o",
+                "@default")));
+        assertFalse(quads.add(new Quad("_:a", "http://example.org/p", "http://example.org/o",
+                null)));
+        assertTrue(quads.add(new Quad("_:a", "http://example.org/p", "http://example.org/o",
+                "http://example.org/g")));
+        assertEquals(2, quads.size());
+    }
+
+    @Test
+    public void defaultGraphSortsFirst() {
+        final Quad inDefault = new Quad("_:a", "http://example.org/p", "_:b", null);
+        final Quad inNamed = new Quad("_:a", "http://example.org/p", "_:b", "_:g");
+        assertNull(inDefault.getGraph());
+        assertTrue(inDefault.compareTo(inNamed) < 0);
+        assertTrue(inNamed.compareTo(inDefault) > 0);
+        assertEquals(0, inDefault.compareTo(
+                new Quad("_:a", "http://example.org/p", "_:b", "@default")));
+    }
+
+    @Test
+    public void mapViewMatchesOldLayout() {
+        final Map<String, Object> object = new LinkedHashMap<String, Object>();
+        object.put("type", "literal");
+        object.put("value", "hello");
+        object.put("datatype", JsonLdConsts.RDF_LANGSTRING);
+        object.put("language", "en");
+        final Map<String, Object> name = new LinkedHashMap<String, Object>();
+        name.put("type", "blank node");
+        name.put("value", "_:g");
+
+        final Map<String, Object> quad = new Quad("http://example.org/s",
+                "http://example.org/p", "hello", JsonLdConsts.RDF_LANGSTRING, "en", "_:g")
+                .asMap();
+        assertEquals(object, quad.get("object"));
+        assertEquals(name, quad.get("name"));
+        assertEquals("IRI", ((Map<String, Object>) quad.get("subject")).get("type"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void mapViewIsReadOnly() {
+        new IRI("http://example.org/a").asMap().put("value", "http://example.org/b");
+    }
+
+    @Test
+    public void addingQuadsIgnoresDuplicates() {
+        final RDFDataset dataset = new RDFDataset();
+        dataset.addTriple("_:a", "http://example.org/p", "http://example.org/o");
+        dataset.addTriple("_:a", "http://example.org/p", "http://example.org/o");
+        dataset.addQuad("_:a", "http://example.org/p", "1", null, null, "http://example.org/g");
+        dataset.addQuad("_:a", "http://example.org/p", "1", JsonLdConsts.XSD_STRING, null,
+                "http://example.org/g");
+        assertFalse(dataset.addQuad(new Quad("_:a", "http://example.org/p",
+                "http://example.org/o", null)));
+        assertEquals(1, dataset.getQuads("@default").size());
+        assertEquals(1, dataset.getQuads("http://example.org/g").size());
+    }
+
+    @Test
+    public void addingQuadsToPlainListsIgnoresDuplicates() {
+        final RDFDataset dataset = new RDFDataset();
+        final List<Quad> quads = new ArrayList<Quad>();
+        quads.add(new Quad("_:a", "http://example.org/p", "_:b", "_:g"));
+        dataset.put("_:g", quads);
+        assertFalse(dataset.addQuad(new Quad("_:a", "http://example.org/p", "_:b", "_:g")));
+        assertTrue(dataset.addQuad(new Quad("_:b", "http://example.org/p", "_:a", "_:g")));
+        assertEquals(2, dataset.getQuads("_:g").size());
+    }
+
+    @Test
+    public void graphsStayDuplicateFreeWhenSorted() {
+        final RDFDataset dataset = new RDFDataset();
+        for (int i = 20; i > 0; i--) {
+            dataset.addTriple("http://example.org/s" + i, "http://example.org/p", "_:b");
+        }
+        final List<Quad> quads = dataset.getQuads("@default");
+        Collections.sort(quads);
+        assertEquals("http://example.org/s1", quads.get(0).getSubject().getValue());
+        assertFalse(dataset.addQuad(quads.get(5)));
+        quads.remove(5);
+        assertEquals(19, quads.size());
+        assertTrue(dataset.addQuad(new Quad("http://example.org/s14", "http://example.org/p",
+                "_:b", null)));
+    }
+
+    @Test
+    public void graphsCountQuadsSetTwice() {
+        final RDFDataset dataset = new RDFDataset();
+        final Quad a = new Quad("_:a", "http://example.org/p", "_:b", null);
+        final Quad b = new Quad("_:b", "http://example.org/p", "_:a", null);
+        final Quad c = new Quad("_:c", "http://example.org/p", "_:a", null);
+        dataset.addQuad(a);
+        dataset.addQuad(b);
+        final List<Quad> quads = dataset.getQuads("@default");
+
+        assertEquals(b, quads.set(1, a));
+        assertFalse(quads.contains(b));
+        quads.remove(0);
+        assertTrue(quads.contains(a));
+        assertFalse(quads.add(a));
+        assertEquals(1, quads.size());
+        quads.remove(0);
+        assertFalse(quads.contains(a));
+
+        quads.add(0, c);
+        quads.add(0, b);
+        assertEquals(Arrays.asList(b, c), quads);
+        try {
+            quads.add(1, b);
+            fail("inserted a duplicate quad");
+        } catch (final IllegalArgumentException e) {
+            assertEquals(2, quads.size());
+        }
+    }
+}
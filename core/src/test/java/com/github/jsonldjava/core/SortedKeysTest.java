@@ -0,0 +1,56 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class SortedKeysTest {
+
+    private static Map<String, Object> map(String... keys) {
+        final Map<String, Object> map = new LinkedHashMap<String, Object>();
+        for (final String key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Test
+    public void sortsKeysOncePerSet() {
+        final SortedKeys sortedKeys = new SortedKeys();
+        final Map<String, Object> map = map("http://schema.org/name", "@type", "@id",
+                "http://schema.org/age");
+        assertEquals(Arrays.asList("@id", "@type", "http://schema.org/age",
+                "http://schema.org/name"), sortedKeys.of(map));
+        assertSame(sortedKeys.of(map), sortedKeys.of(map("@id", "http://schema.org/age",
+                "http://schema.org/name", "@type")));
+    }
+
+    @Test
+    public void checksTheKeysOfEachMap() {
+        final SortedKeys sortedKeys = new SortedKeys();
+        // "Aa" and "BB" have the same hash code
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertEquals(Arrays.asList("Aa", "c"), sortedKeys.of(map("c", "Aa")));
+        assertEquals(Arrays.asList("BB", "c"), sortedKeys.of(map("c", "BB")));
+        assertEquals(Arrays.asList("Aa", "c"), sortedKeys.of(map("Aa", "c")));
+        assertEquals(Arrays.asList("a", "b", "c"), sortedKeys.of(map("c", "b", "a")));
+        assertEquals(Arrays.asList("a", "b"), sortedKeys.of(map("b", "a")));
+        assertEquals(Collections.singletonList("a"), sortedKeys.of(map("a")));
+        assertTrue(sortedKeys.of(map()).isEmpty());
+    }
+
+    @Test
+    public void forgetsKeysBeyondTheLimit() {
+        final SortedKeys sortedKeys = new SortedKeys();
+        for (int i = 0; i < SortedKeys.MAX_SHAPES * 2; i++) {
+            assertEquals(Arrays.asList("a" + i, "b" + i), sortedKeys.of(map("b" + i, "a" + i)));
+        }
+    }
+}
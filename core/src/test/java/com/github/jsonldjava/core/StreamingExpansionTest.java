@@ -0,0 +1,130 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.github.jsonldjava.utils.JsonUtils;
+
+public class StreamingExpansionTest {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static List<Object> streamingExpand(JsonParser parser, JsonLdOptions options)
+            throws JsonLdError {
+        final List<Object> nodes = new ArrayList<Object>();
+        JsonLdProcessor.expand(parser, options, new JsonLdExpansionCallback() {
+            @Override
+            public void call(Map<String, Object> node) {
+                nodes.add(node);
+            }
+        });
+        return nodes;
+    }
+
+    @Test
+    public void matchesExpansionTestSuite() throws Exception {
+        final URL dir = getClass().getResource("/json-ld.org");
+        int compared = 0;
+        for (final File file : new File(dir.toURI()).listFiles()) {
+            if (!file.getName().startsWith("expand-") || !file.getName().endsWith("-in.jsonld")) {
+                continue;
+            }
+            final String base = "http://json-ld.org/test-suite/tests/" + file.getName();
+            final List<Object> expected;
+            InputStream in = file.toURI().toURL().openStream();
+            try {
+                expected = JsonLdProcessor.expand(JsonUtils.fromInputStream(in),
+                        new JsonLdOptions(base));
+            } catch (final JsonLdError e) {
+                // error tests are covered by JsonLdProcessorTest
+                continue;
+            } finally {
+                in.close();
+            }
+            in = file.toURI().toURL().openStream();
+            try {
+                assertEquals(file.getName(), expected,
+                        streamingExpand(JSON_FACTORY.createParser(in), new JsonLdOptions(base)));
+            } finally {
+                in.close();
+            }
+            compared++;
+        }
+        assertTrue(compared > 50);
+    }
+
+    @Test
+    public void graphElementsAreEmittedBeforeTheDocumentEnds() throws Exception {
+        final String input = "{\"@context\":{\"@vocab\":\"http://example.org/\"},"
+                + "\"@graph\":[{\"@id\":\"http://example.org/a\",\"p\":1},"
+                + "{\"@id\":\"http://example.org/b\",\"p\":2},";
+        final JsonParser parser = JSON_FACTORY.createParser(input + "{\"p\":");
+        final List<Object> nodes = new ArrayList<Object>();
+        try {
+            JsonLdProcessor.expand(parser, new JsonLdOptions(), new JsonLdExpansionCallback() {
+                @Override
+                public void call(Map<String, Object> node) {
+                    nodes.add(node);
+                }
+            });
+            fail("truncated document should not be accepted");
+        } catch (final JsonLdError e) {
+            assertEquals(JsonLdError.Error.LOADING_DOCUMENT_FAILED, e.getType());
+        }
+        assertEquals(2, nodes.size());
+        assertEquals("http://example.org/b", ((Map<String, Object>) nodes.get(1)).get("@id"));
+    }
+
+    private static void assertExpandsAsWhole(String input) throws Exception {
+        final List<Object> expected = JsonLdProcessor.expand(JsonUtils.fromString(input),
+                new JsonLdOptions());
+        assertEquals(expected, streamingExpand(JSON_FACTORY.createParser(input),
+                new JsonLdOptions()));
+    }
+
+    @Test
+    public void graphBeforeContextIsNotStreamed() throws Exception {
+        final String input = "{\"@graph\":[{\"@id\":\"http://example.org/a\",\"p\":1}],"
+                + "\"@context\":{\"@vocab\":\"http://example.org/\"}}";
+        assertExpandsAsWhole(input);
+        final List<Object> nodes = streamingExpand(JSON_FACTORY.createParser(input),
+                new JsonLdOptions());
+        assertTrue(((Map<String, Object>) nodes.get(0)).containsKey("http://example.org/p"));
+    }
+
+    @Test
+    public void graphBeforeIdIsNotStreamed() throws Exception {
+        final String input = "{\"@graph\":[{\"@id\":\"http://example.org/a\"}],"
+                + "\"@id\":\"http://example.org/g\"}";
+        assertExpandsAsWhole(input);
+        final List<Object> nodes = streamingExpand(JSON_FACTORY.createParser(input),
+                new JsonLdOptions());
+        assertEquals(1, nodes.size());
+        assertEquals("http://example.org/g", ((Map<String, Object>) nodes.get(0)).get("@id"));
+    }
+
+    @Test
+    public void membersAfterStreamedGraphAreRejected() throws Exception {
+        final JsonParser parser = JSON_FACTORY
+                .createParser("{\"@context\":{},\"@graph\":[{\"@id\":\"http://example.org/a\"}],"
+                        + "\"@id\":\"http://example.org/g\"}");
+        try {
+            streamingExpand(parser, new JsonLdOptions());
+            fail("named graph after streamed @graph should be rejected");
+        } catch (final JsonLdError e) {
+            assertEquals(JsonLdError.Error.INVALID_INPUT, e.getType());
+        }
+    }
+}
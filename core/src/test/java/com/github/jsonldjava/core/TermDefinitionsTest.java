@@ -0,0 +1,62 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class TermDefinitionsTest {
+
+    @Test
+    public void copiesAreIndependent() {
+        final TermDefinitions original = new TermDefinitions();
+        original.put("a", "1");
+        original.put("b", "2");
+
+        final TermDefinitions copy = original.copy();
+        copy.remove("a");
+        copy.put("c", "3");
+        original.put("d", "4");
+
+        assertEquals(Arrays.asList("a", "b", "d"), new ArrayList<String>(original.keySet()));
+        assertEquals(Arrays.asList("b", "c"), new ArrayList<String>(copy.keySet()));
+        assertFalse(copy.containsKey("a"));
+        assertNull(copy.get("d"));
+        assertEquals(2, copy.size());
+        assertEquals(3, original.size());
+    }
+
+    @Test
+    public void matchesLinkedHashMapOrdering() {
+        final Map<String, Object> expected = new LinkedHashMap<String, Object>();
+        TermDefinitions actual = new TermDefinitions();
+        for (int i = 0; i < 40; i++) {
+            final String term = "t" + (i * 7 % 13);
+            // every generation works on a fresh copy, as nested contexts do
+            actual = actual.copy();
+            expected.remove(term);
+            actual.remove(term);
+            if (i % 5 == 0) {
+                expected.put(term, null);
+                actual.put(term, null);
+            } else if (i % 3 != 0) {
+                expected.put(term, "v" + i);
+                actual.put(term, "v" + i);
+            }
+            assertEquals(expected.size(), actual.size());
+            for (final String key : expected.keySet()) {
+                assertTrue(actual.containsKey(key));
+                assertEquals(expected.get(key), actual.get(key));
+            }
+        }
+        assertEquals(new ArrayList<String>(expected.keySet()),
+                new ArrayList<String>(actual.keySet()));
+    }
+}
@@ -0,0 +1,212 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.jsonldjava.utils.CorpusGenerator;
+
+public class Urdna2015Test {
+
+    private static final String P = "<http://example.org/p>";
+
+    private static JsonLdOptions options() {
+        final JsonLdOptions options = new JsonLdOptions();
+        options.format = JsonLdConsts.APPLICATION_NQUADS;
+        options.setAlgorithm(JsonLdConsts.URDNA2015);
+        return options;
+    }
+
+    private static String normalize(String nquads, JsonLdOptions options) throws JsonLdError {
+        return (String) new JsonLdApi(options).normalize(RDFDatasetUtils.parseNQuads(nquads));
+    }
+
+    private static String normalize(String nquads) throws JsonLdError {
+        return normalize(nquads, options());
+    }
+
+    /**
+     * Renames every blank node label "_:xN" to "_:yM" through a random
+     * mapping and shuffles the lines.
+     */
+    private static String scramble(String nquads, long seed) {
+        final Random random = new Random(seed);
+        final List<String> lines = new ArrayList<String>(Arrays.asList(nquads.split("\n")));
+        final int[] mapping = new int[100000];
+        for (int i = 0; i < mapping.length; i++) {
+            mapping[i] = i;
+        }
+        for (int i = mapping.length - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int tmp = mapping[i];
+            mapping[i] = mapping[j];
+            mapping[j] = tmp;
+        }
+        final StringBuilder scrambled = new StringBuilder();
+        Collections.shuffle(lines, random);
+        for (final String line : lines) {
+            final StringBuilder renamed = new StringBuilder();
+            int start = 0;
+            int bnode;
+            while ((bnode = line.indexOf("_:x", start)) >= 0) {
+                int end = bnode + 3;
+                while (end < line.length() && Character.isDigit(line.charAt(end))) {
+                    end++;
+                }
+                renamed.append(line, start, bnode).append("_:y").append(
+                        mapping[Integer.parseInt(line.substring(bnode + 3, end))]);
+                start = end;
+            }
+            renamed.append(line.substring(start));
+            scrambled.append(renamed).append('\n');
+        }
+        return scrambled.toString();
+    }
+
+    private static String cycle(int offset, int length) {
+        final StringBuilder nquads = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            nquads.append("_:x").append(offset + i).append(' ').append(P).append(" _:x")
+                    .append(offset + (i + 1) % length).append(" .\n");
+        }
+        return nquads.toString();
+    }
+
+    private static String clique(int size) {
+        final StringBuilder nquads = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (i != j) {
+                    nquads.append("_:x").append(i).append(' ').append(P).append(" _:x").append(j)
+                            .append(" .\n");
+                }
+            }
+        }
+        return nquads.toString();
+    }
+
+    @Test
+    public void sortsDatasetsWithoutBlankNodes() throws Exception {
+        final String b = "<http://example.org/b> " + P + " \"b\" .\n";
+        final String a = "<http://example.org/a> " + P + " <http://example.org/b> .\n";
+        assertEquals(a + b, normalize(b + a));
+    }
+
+    @Test
+    public void namesBlankNodesInHashOrder() throws Exception {
+        assertEquals("_:c14n0 " + P + " \"a\" .\n", normalize("_:x " + P + " \"a\" .\n"));
+        final String normalized = normalize("_:x " + P + " _:y _:g .\n_:y " + P
+                + " \"a\" _:g .\n");
+        assertTrue(normalized.contains("_:c14n2"));
+        assertFalse(normalized.contains("_:c14n3"));
+        assertFalse(normalized.contains("_:x"));
+    }
+
+    @Test
+    public void ignoresLabelsAndOrder() throws Exception {
+        final String nquads = scramble(cycle(0, 5) + cycle(5, 5) + clique(4).replace("_:x",
+                "_:x1") + "_:x0 " + P + " \"shared\" .\n_:x7 " + P + " _:x12 _:x3 .\n", 1);
+        final String normalized = normalize(nquads);
+        for (long seed = 2; seed < 10; seed++) {
+            assertEquals(normalized, normalize(scramble(nquads.replace("_:y", "_:x"), seed)));
+        }
+    }
+
+    @Test
+    public void ignoresLabelsAndOrderOfGeneratedCorpus() throws Exception {
+        final CorpusGenerator generator = new CorpusGenerator(5);
+        generator.setTriples(3000);
+        generator.setBlankNodeDensity(0.5);
+        generator.setNamedGraphs(2);
+        final String nquads = generator.generateNQuads();
+        // give the blank nodes the numeric labels scramble expects
+        final String numbered = normalize(nquads).replace("_:c14n", "_:x");
+        assertEquals(normalize(nquads), normalize(numbered));
+        assertEquals(normalize(nquads), normalize(scramble(numbered, 3)));
+    }
+
+    @Test
+    public void distinguishesStructuresWithEqualFirstDegreeHashes() throws Exception {
+        // every blank node has one incoming and one outgoing edge in both
+        final String oneCycle = normalize(cycle(0, 6));
+        final String twoCycles = normalize(cycle(0, 3) + cycle(3, 3));
+        assertFalse(oneCycle.equals(twoCycles));
+        assertEquals(oneCycle, normalize(scramble(cycle(0, 6), 4)));
+        assertEquals(twoCycles, normalize(scramble(cycle(0, 3) + cycle(3, 3), 4)));
+    }
+
+    @Test
+    public void stopsAtTheWorkLimit() throws Exception {
+        final JsonLdOptions options = options();
+        options.setNormalizationWorkLimit(1000);
+        try {
+            normalize(clique(8), options);
+            fail("expected the work limit to be exceeded");
+        } catch (final JsonLdError e) {
+            assertEquals(JsonLdError.Error.NORMALIZATION_LIMIT_EXCEEDED, e.getType());
+        }
+        // the limit only counts work on blank nodes sharing a hash
+        options.setNormalizationWorkLimit(1);
+        assertTrue(normalize("_:x " + P + " _:y .\n", options).startsWith("_:c14n"));
+    }
+
+    @Test
+    public void legacyAlgorithmIsTheDefault() throws Exception {
+        assertEquals(JsonLdConsts.URGNA2012, new JsonLdOptions().getAlgorithm());
+    }
+
+    @Test
+    public void writesCanonicalNQuads() throws Exception {
+        final String text = "\u00e9\u4e2d\ud83d\ude00\u00a0\u007f\t\u0001\"\\\n\r";
+        final RDFDataset dataset = new RDFDataset();
+        dataset.addQuad(new RDFDataset.Quad(new RDFDataset.IRI("http://example.org/\u00e9"),
+                new RDFDataset.IRI("http://example.org/p"), new RDFDataset.Literal(text,
+                        JsonLdConsts.XSD_STRING, null), null));
+        assertEquals("<http://example.org/\u00e9> <http://example.org/p> "
+                + "\"\u00e9\u4e2d\ud83d\ude00\u00a0\\u007F\t\\u0001\\\"\\\\\\n\\r\" .\n",
+                new JsonLdApi(options()).normalize(dataset));
+    }
+
+    private static String resource(String name) throws Exception {
+        final InputStream in = Urdna2015Test.class.getResourceAsStream("/urdna2015/" + name);
+        try {
+            final Reader reader = new InputStreamReader(in, "UTF-8");
+            final StringBuilder text = new StringBuilder();
+            final char[] buffer = new char[4096];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                text.append(buffer, 0, read);
+            }
+            return text.toString();
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void matchesKnownAnswers() throws Exception {
+        // unique-hashes and shared-hashes are the examples of the RDF
+        // Dataset Canonicalization specification, the others need the N-degree
+        // hash in a named graph, or have non-ASCII and escaped literals
+        for (final String name : new String[] { "unique-hashes", "shared-hashes",
+                "two-triangles", "non-ascii", "literals" }) {
+            final RDFDataset dataset = new NQuadsParser(new StringReader(resource(name
+                    + "-in.nq"))).parse();
+            assertEquals(name, resource(name + "-out.nq"), new JsonLdApi(options())
+                    .normalize(dataset));
+        }
+    }
+}
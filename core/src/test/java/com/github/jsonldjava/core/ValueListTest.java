@@ -0,0 +1,94 @@
+package com.github.jsonldjava.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.github.jsonldjava.utils.JsonUtils;
+
+public class ValueListTest {
+
+    private static Object value(String json) throws Exception {
+        return JsonUtils.fromString(json);
+    }
+
+    @Test
+    public void hashesEqualValuesAlike() throws Exception {
+        final String[][] equal = {
+                { "{\"@value\":\"a\",\"@language\":\"en\"}", "{\"@language\":\"en\",\"@value\":\"a\"}" },
+                { "{\"@id\":\"_:b0\",\"p\":[1,2,{\"@id\":\"x\"}]}", "{\"p\":[{\"@id\":\"x\"},2,1],\"@id\":\"_:b0\"}" },
+                { "[1,1,2]", "[2,1,1]" },
+                { "{\"@value\":null}", "{\"@value\":null}" } };
+        for (final String[] pair : equal) {
+            assertTrue(pair[0], JsonLdUtils.deepCompare(value(pair[0]), value(pair[1])));
+            assertEquals(pair[0], JsonLdUtils.deepHashCode(value(pair[0])),
+                    JsonLdUtils.deepHashCode(value(pair[1])));
+        }
+    }
+
+    @Test
+    public void addsDistinctValues() throws Exception {
+        final ValueList values = new ValueList();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < ValueList.INDEX_THRESHOLD * 4; i++) {
+                final Map<String, Object> value = new LinkedHashMap<String, Object>();
+                if (round % 2 == 0) {
+                    value.put("@value", "v" + i);
+                    value.put("@type", "http://example.org/t");
+                } else {
+                    value.put("@type", "http://example.org/t");
+                    value.put("@value", "v" + i);
+                }
+                assertEquals(round == 0, values.addDistinct(value));
+            }
+        }
+        assertEquals(ValueList.INDEX_THRESHOLD * 4, values.size());
+        assertTrue(values.addDistinct("v0"));
+        assertFalse(values.addDistinct("v0"));
+    }
+
+    @Test
+    public void reindexesAfterOtherChanges() {
+        final ValueList values = new ValueList();
+        for (int i = 0; i < ValueList.INDEX_THRESHOLD * 2; i++) {
+            values.addDistinct("v" + i);
+        }
+        values.remove("v3");
+        values.add("w");
+        assertTrue(values.addDistinct("v3"));
+        assertFalse(values.addDistinct("w"));
+
+        final ValueList clone = (ValueList) values.clone();
+        assertNotSame(values, clone);
+        assertTrue(clone.addDistinct("x"));
+        assertTrue(values.addDistinct("x"));
+        assertFalse(values.addDistinct("x"));
+    }
+
+    @Test
+    public void mergesLikeBefore() throws Exception {
+        final Map<String, Object> node = new LinkedHashMap<String, Object>();
+        final List<Object> expected = new ArrayList<Object>();
+        for (int i = 0; i < 100; i++) {
+            final Object value = value("{\"@id\":\"http://example.org/" + (i % 40) + "\"}");
+            if (!JsonLdUtils.deepContains(expected, value)) {
+                expected.add(value);
+            }
+            JsonLdUtils.mergeValue(node, "p", value);
+        }
+        final Object list = value("{\"@list\":[1]}");
+        JsonLdUtils.mergeValue(node, "p", list);
+        JsonLdUtils.mergeValue(node, "p", list);
+        expected.addAll(Arrays.asList(list, list));
+        assertEquals(expected, node.get("p"));
+    }
+}
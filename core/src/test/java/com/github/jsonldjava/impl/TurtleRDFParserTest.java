@@ -214,34 +214,34 @@ public class TurtleRDFParserTest {
         final List<RDFDataset.Quad> res = new ArrayList<RDFDataset.Quad>() {
             {
                 for (final RDFDataset.Quad q : result.getQuads("@default")) {
-                    final RDFDataset.Node s = q.getSubject();
-                    final RDFDataset.Node p = q.getPredicate();
-                    final RDFDataset.Node o = q.getObject();
+                    RDFDataset.Node s = q.getSubject();
+                    RDFDataset.Node p = q.getPredicate();
+                    RDFDataset.Node o = q.getObject();
                     if (s.isIRI() && !s.getValue().contains(":")) {
                         final String v = s.getValue();
                         if (v.startsWith("#") || v.startsWith("?")) {
-                            s.put("value", baseIRI + s.getValue());
+                            s = new RDFDataset.IRI(baseIRI + s.getValue());
                         } else {
-                            s.put("value", baseIRIpath + s.getValue());
+                            s = new RDFDataset.IRI(baseIRIpath + s.getValue());
                         }
                     }
                     if (p.isIRI() && !p.getValue().contains(":")) {
                         final String v = p.getValue();
                         if (v.startsWith("#") || v.startsWith("?")) {
-                            p.put("value", baseIRI + p.getValue());
+                            p = new RDFDataset.IRI(baseIRI + p.getValue());
                         } else {
-                            p.put("value", baseIRIpath + p.getValue());
+                            p = new RDFDataset.IRI(baseIRIpath + p.getValue());
                         }
                     }
                     if (o.isIRI() && !o.getValue().contains(":")) {
                         final String v = o.getValue();
                         if (v.startsWith("#") || v.startsWith("?")) {
-                            o.put("value", baseIRI + o.getValue());
+                            o = new RDFDataset.IRI(baseIRI + o.getValue());
                         } else {
-                            o.put("value", baseIRIpath + o.getValue());
+                            o = new RDFDataset.IRI(baseIRIpath + o.getValue());
                         }
                     }
-                    add(q);
+                    add(new RDFDataset.Quad(s, p, o, null));
                 }
             }
         };
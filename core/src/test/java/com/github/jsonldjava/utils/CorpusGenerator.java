@@ -0,0 +1,404 @@
+package com.github.jsonldjava.utils;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jsonldjava.core.JsonLdConsts;
+
+/**
+ * Generates synthetic JSON-LD documents, and the equivalent N-Quads, for
+ * testing and benchmarking at scale.
+ *
+ * Documents are a flat list of node objects, optionally split across named
+ * graphs. Every node object has a type, a plain, a language-tagged and a
+ * typed literal, links to other nodes, a list, a property from the (optionally
+ * large) context, and a chain of embedded child nodes. The shape of the
+ * document is controlled by the setters, and its content by the seed, so the
+ * same settings always give the same output.
+ *
+ * Both outputs are written one node at a time, so documents of any size can be
+ * streamed to disk.
+ */
+public class CorpusGenerator {
+
+    public static final String EX = "http://example.org/";
+    public static final String VOCAB = EX + "vocab#";
+    public static final String THING = "Thing";
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final String UTF_8 = "UTF-8";
+
+    private final long seed;
+    private long triples = 10000;
+    private int fanOut = 2;
+    private int listLength = 3;
+    private double blankNodeDensity = 0.1;
+    private int namedGraphs = 0;
+    private int contextSize = 0;
+    private int nestingDepth = 0;
+
+    private final Random random = new Random();
+
+    public CorpusGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param triples
+     *            The approximate number of triples to generate. The actual
+     *            number is rounded up to a whole number of node objects.
+     */
+    public void setTriples(long triples) {
+        this.triples = triples;
+    }
+
+    /**
+     * @param fanOut
+     *            The number of other nodes each node links to.
+     */
+    public void setFanOut(int fanOut) {
+        this.fanOut = fanOut;
+    }
+
+    /**
+     * @param listLength
+     *            The number of items in the list of each node, or 0 for no
+     *            list.
+     */
+    public void setListLength(int listLength) {
+        this.listLength = listLength;
+    }
+
+    /**
+     * @param blankNodeDensity
+     *            The fraction, between 0 and 1, of top-level nodes that are
+     *            blank nodes.
+     */
+    public void setBlankNodeDensity(double blankNodeDensity) {
+        this.blankNodeDensity = blankNodeDensity;
+    }
+
+    /**
+     * @param namedGraphs
+     *            The number of named graphs the nodes are split across, in
+     *            addition to the default graph.
+     */
+    public void setNamedGraphs(int namedGraphs) {
+        this.namedGraphs = namedGraphs;
+    }
+
+    /**
+     * @param contextSize
+     *            The number of extra term definitions in the context. Each
+     *            node uses one of them.
+     */
+    public void setContextSize(int contextSize) {
+        this.contextSize = contextSize;
+    }
+
+    /**
+     * @param nestingDepth
+     *            The length of the chain of child nodes embedded in each
+     *            top-level node.
+     */
+    public void setNestingDepth(int nestingDepth) {
+        this.nestingDepth = nestingDepth;
+    }
+
+    private int triplesPerNode() {
+        // @type, name, label, value and the links
+        int rval = 4 + fanOut;
+        if (listLength > 0) {
+            // the link to the list, then rdf:first and rdf:rest per item
+            rval += 1 + 2 * listLength;
+        }
+        if (contextSize > 0) {
+            rval++;
+        }
+        return rval;
+    }
+
+    /**
+     * @return The number of top-level node objects generated.
+     */
+    public int getNodeCount() {
+        // every embedded child has the same triples plus its link
+        final long perNode = triplesPerNode() * (1L + nestingDepth) + nestingDepth;
+        return (int) Math.max(1, (triples + perNode - 1) / perNode);
+    }
+
+    /**
+     * @return The context of the generated documents.
+     */
+    public Map<String, Object> getContext() {
+        final Map<String, Object> context = new LinkedHashMap<String, Object>();
+        context.put("@vocab", VOCAB);
+        context.put("name", VOCAB + "name");
+        final Map<String, Object> label = new LinkedHashMap<String, Object>();
+        label.put("@id", VOCAB + "label");
+        label.put("@language", "en");
+        context.put("label", label);
+        context.put("value", definition(VOCAB + "value", "@type", JsonLdConsts.XSD_INTEGER));
+        context.put("knows", definition(VOCAB + "knows", "@type", "@id"));
+        context.put("items", definition(VOCAB + "items", "@container", "@list"));
+        context.put("child", VOCAB + "child");
+        for (int i = 0; i < contextSize; i++) {
+            context.put("term" + i, VOCAB + "term" + i);
+        }
+        return context;
+    }
+
+    private static Map<String, Object> definition(String id, String key, String value) {
+        final Map<String, Object> rval = new LinkedHashMap<String, Object>();
+        rval.put("@id", id);
+        rval.put(key, value);
+        return rval;
+    }
+
+    /**
+     * @return A new copy of the generated JSON-LD document.
+     * @throws IOException
+     *             If the document could not be generated.
+     */
+    public Object generateJsonLd() throws IOException {
+        final StringWriter writer = new StringWriter();
+        writeJsonLd(writer);
+        return JsonUtils.fromString(writer.toString());
+    }
+
+    /**
+     * @return The generated N-Quads document.
+     * @throws IOException
+     *             If the document could not be generated.
+     */
+    public String generateNQuads() throws IOException {
+        final StringWriter writer = new StringWriter();
+        writeNQuads(writer);
+        return writer.toString();
+    }
+
+    /**
+     * Writes the JSON-LD document to the given file, in UTF-8.
+     */
+    public void writeJsonLd(File file) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+                UTF_8));
+        try {
+            writeJsonLd(writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Writes the N-Quads document to the given file, in UTF-8.
+     */
+    public void writeNQuads(File file) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+                UTF_8));
+        try {
+            writeNQuads(writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Writes the JSON-LD document to the given writer, which is flushed but
+     * not closed.
+     */
+    public void writeJsonLd(Writer writer) throws IOException {
+        final JsonGenerator json = JSON_MAPPER.getFactory().createGenerator(writer);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        final int nodes = getNodeCount();
+        json.writeStartObject();
+        json.writeObjectField("@context", getContext());
+        json.writeArrayFieldStart("@graph");
+        for (int g = 0; g <= namedGraphs; g++) {
+            if (g > 0) {
+                json.writeStartObject();
+                json.writeStringField("@id", graphName(g));
+                json.writeArrayFieldStart("@graph");
+            }
+            for (int i = firstNode(g, nodes); i < firstNode(g + 1, nodes); i++) {
+                writeJsonLdNode(json, i, 0, nodes);
+            }
+            if (g > 0) {
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.flush();
+    }
+
+    private void writeJsonLdNode(JsonGenerator json, int node, int depth, int nodes)
+            throws IOException {
+        seed(node, depth);
+        json.writeStartObject();
+        json.writeStringField("@id", nodeId(node, depth));
+        json.writeStringField("@type", THING);
+        json.writeStringField("name", name(node, depth));
+        json.writeStringField("label", "node " + node);
+        json.writeStringField("value", Integer.toString(random.nextInt(1000000)));
+        final int first = random.nextInt(nodes);
+        json.writeArrayFieldStart("knows");
+        for (int k = 0; k < Math.min(fanOut, nodes); k++) {
+            json.writeString(nodeId((first + k) % nodes, 0));
+        }
+        json.writeEndArray();
+        if (listLength > 0) {
+            json.writeArrayFieldStart("items");
+            for (int k = 0; k < listLength; k++) {
+                json.writeString("item " + random.nextInt(100));
+            }
+            json.writeEndArray();
+        }
+        if (contextSize > 0) {
+            json.writeStringField("term" + random.nextInt(contextSize), "term value");
+        }
+        if (depth < nestingDepth) {
+            json.writeFieldName("child");
+            writeJsonLdNode(json, node, depth + 1, nodes);
+        }
+        json.writeEndObject();
+    }
+
+    /**
+     * Writes the N-Quads document to the given writer, which is flushed but
+     * not closed. The quads are those of the JSON-LD document, up to blank
+     * node labels.
+     */
+    public void writeNQuads(Writer writer) throws IOException {
+        final int nodes = getNodeCount();
+        for (int g = 0; g <= namedGraphs; g++) {
+            final String graph = g > 0 ? term(graphName(g)) : null;
+            for (int i = firstNode(g, nodes); i < firstNode(g + 1, nodes); i++) {
+                writeNQuadsNode(writer, graph, i, 0, nodes);
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeNQuadsNode(Writer out, String graph, int node, int depth, int nodes)
+            throws IOException {
+        seed(node, depth);
+        final String subject = term(nodeId(node, depth));
+        quad(out, subject, JsonLdConsts.RDF_TYPE, "<" + VOCAB + THING + ">", graph);
+        quad(out, subject, VOCAB + "name", literal(name(node, depth)), graph);
+        quad(out, subject, VOCAB + "label", literal("node " + node) + "@en", graph);
+        quad(out, subject, VOCAB + "value", literal(Integer.toString(random.nextInt(1000000)))
+                + "^^<" + JsonLdConsts.XSD_INTEGER + ">", graph);
+        final int first = random.nextInt(nodes);
+        for (int k = 0; k < Math.min(fanOut, nodes); k++) {
+            quad(out, subject, VOCAB + "knows", term(nodeId((first + k) % nodes, 0)), graph);
+        }
+        if (listLength > 0) {
+            final String list = "_:l" + node + "d" + depth + "i";
+            quad(out, subject, VOCAB + "items", list + 0, graph);
+            for (int k = 0; k < listLength; k++) {
+                quad(out, list + k, JsonLdConsts.RDF_FIRST,
+                        literal("item " + random.nextInt(100)), graph);
+                quad(out, list + k, JsonLdConsts.RDF_REST, k + 1 < listLength ? list + (k + 1)
+                        : "<" + JsonLdConsts.RDF_NIL + ">", graph);
+            }
+        }
+        if (contextSize > 0) {
+            quad(out, subject, VOCAB + "term" + random.nextInt(contextSize),
+                    literal("term value"), graph);
+        }
+        if (depth < nestingDepth) {
+            quad(out, subject, VOCAB + "child", term(nodeId(node, depth + 1)), graph);
+            writeNQuadsNode(out, graph, node, depth + 1, nodes);
+        }
+    }
+
+    private static void quad(Writer out, String subject, String predicate, String object,
+            String graph) throws IOException {
+        out.write(subject);
+        out.write(" <");
+        out.write(predicate);
+        out.write("> ");
+        out.write(object);
+        if (graph != null) {
+            out.write(' ');
+            out.write(graph);
+        }
+        out.write(" .\n");
+    }
+
+    private static String term(String id) {
+        return id.startsWith("_:") ? id : "<" + id + ">";
+    }
+
+    private static String literal(String value) {
+        final StringBuilder rval = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                rval.append('\\').append(c);
+            } else if (c == '\n') {
+                rval.append("\\n");
+            } else {
+                rval.append(c);
+            }
+        }
+        return rval.append('"').toString();
+    }
+
+    /**
+     * Reseeds the shared random for the given node, so that both outputs see
+     * the same values for it, whatever order the nodes are written in.
+     */
+    private void seed(int node, int depth) {
+        random.setSeed(mix(seed + mix(node * 31L + depth)));
+    }
+
+    private String nodeId(int node, int depth) {
+        if (depth > 0) {
+            return EX + "node/" + node + "/" + depth;
+        }
+        // a hash rather than the shared random, so that links can tell
+        // whether the node they point to is a blank node
+        final double x = (mix(seed ^ node) >>> 11) / (double) (1L << 53);
+        return x < blankNodeDensity ? "_:b" + node : EX + "node/" + node;
+    }
+
+    private String name(int node, int depth) {
+        // exercise escaping and non-ASCII characters now and again
+        switch (node % 7) {
+        case 3:
+            return "Node \"" + node + "\"\nat depth " + depth;
+        case 5:
+            return "N\u00f6de " + node + " \u2603";
+        default:
+            return "Node " + node;
+        }
+    }
+
+    private static String graphName(int graph) {
+        return EX + "graph/" + graph;
+    }
+
+    private int firstNode(int graph, int nodes) {
+        return (int) ((long) nodes * graph / (namedGraphs + 1));
+    }
+
+    // the finalizer of the SplitMix64 generator
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
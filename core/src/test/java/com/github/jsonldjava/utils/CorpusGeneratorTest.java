@@ -0,0 +1,72 @@
+package com.github.jsonldjava.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.jsonldjava.core.JsonLdConsts;
+import com.github.jsonldjava.core.JsonLdOptions;
+import com.github.jsonldjava.core.JsonLdProcessor;
+
+public class CorpusGeneratorTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private static CorpusGenerator generator(long seed) {
+        final CorpusGenerator generator = new CorpusGenerator(seed);
+        generator.setTriples(600);
+        generator.setFanOut(3);
+        generator.setListLength(2);
+        generator.setBlankNodeDensity(0.3);
+        generator.setNamedGraphs(2);
+        generator.setContextSize(50);
+        generator.setNestingDepth(2);
+        return generator;
+    }
+
+    private static JsonLdOptions nquadsOptions() {
+        final JsonLdOptions options = new JsonLdOptions();
+        options.format = JsonLdConsts.APPLICATION_NQUADS;
+        return options;
+    }
+
+    @Test
+    public void sameSeedGivesSameOutput() throws Exception {
+        assertEquals(generator(1).generateNQuads(), generator(1).generateNQuads());
+        assertEquals(generator(1).generateJsonLd(), generator(1).generateJsonLd());
+        assertFalse(generator(1).generateNQuads().equals(generator(2).generateNQuads()));
+    }
+
+    @Test
+    public void nquadsMatchJsonLd() throws Exception {
+        final CorpusGenerator generator = generator(42);
+        final String nquads = generator.generateNQuads();
+        final String[] lines = nquads.split("\n");
+        assertTrue(lines.length >= 600);
+        assertTrue(lines.length < 700);
+
+        assertEquals(JsonLdProcessor.normalize(JsonLdProcessor.fromRDF(nquads, nquadsOptions()),
+                nquadsOptions()), JsonLdProcessor.normalize(generator.generateJsonLd(),
+                nquadsOptions()));
+    }
+
+    @Test
+    public void streamsToFiles() throws Exception {
+        final CorpusGenerator generator = generator(7);
+        final File jsonld = tempDir.newFile("corpus.jsonld");
+        final File nquads = tempDir.newFile("corpus.nq");
+        generator.writeJsonLd(jsonld);
+        generator.writeNQuads(nquads);
+        assertEquals(generator.generateJsonLd(), JsonUtils.fromString(FileUtils
+                .readFileToString(jsonld, "UTF-8")));
+        assertEquals(generator.generateNQuads(), FileUtils.readFileToString(nquads, "UTF-8"));
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.jsonldjava.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class JsonLdUrlTest {
+
+    private static final String BASE = "http://a/b/c/d;p?q";
+
+    private static void assertResolves(String expected, String reference) {
+        assertEquals(reference, expected, JsonLdUrl.resolve(BASE, reference));
+    }
+
+    @Test
+    public void resolvesNormalExamples() {
+        // RFC 3986 section 5.4.1
+        assertResolves("g:h", "g:h");
+        assertResolves("http://a/b/c/g", "g");
+        assertResolves("http://a/b/c/g", "./g");
+        assertResolves("http://a/b/c/g/", "g/");
+        assertResolves("http://a/g", "/g");
+        assertResolves("http://g", "//g");
+        assertResolves("http://a/b/c/d;p?y", "?y");
+        assertResolves("http://a/b/c/g?y", "g?y");
+        assertResolves("http://a/b/c/d;p?q#s", "#s");
+        assertResolves("http://a/b/c/g#s", "g#s");
+        assertResolves("http://a/b/c/g?y#s", "g?y#s");
+        assertResolves("http://a/b/c/;x", ";x");
+        assertResolves("http://a/b/c/g;x", "g;x");
+        assertResolves("http://a/b/c/g;x?y#s", "g;x?y#s");
+        assertResolves("http://a/b/c/", ".");
+        assertResolves("http://a/b/c/", "./");
+        assertResolves("http://a/b/", "..");
+        assertResolves("http://a/b/", "../");
+        assertResolves("http://a/b/g", "../g");
+        assertResolves("http://a/", "../..");
+        assertResolves("http://a/", "../../");
+        assertResolves("http://a/g", "../../g");
+    }
+
+    @Test
+    public void resolvesAbnormalExamples() {
+        // RFC 3986 section 5.4.2
+        assertResolves("http://a/g", "../../../g");
+        assertResolves("http://a/g", "../../../../g");
+        assertResolves("http://a/g", "/./g");
+        assertResolves("http://a/g", "/../g");
+        assertResolves("http://a/b/c/g.", "g.");
+        assertResolves("http://a/b/c/.g", ".g");
+        assertResolves("http://a/b/c/g..", "g..");
+        assertResolves("http://a/b/c/..g", "..g");
+        assertResolves("http://a/b/g", "./../g");
+        assertResolves("http://a/b/c/g/", "./g/.");
+        assertResolves("http://a/b/c/g/h", "g/./h");
+        assertResolves("http://a/b/c/h", "g/../h");
+        assertResolves("http://a/b/c/g;x=1/y", "g;x=1/./y");
+        assertResolves("http://a/b/c/y", "g;x=1/../y");
+        assertResolves("http://a/b/c/g?y/./x", "g?y/./x");
+        assertResolves("http://a/b/c/g?y/../x", "g?y/../x");
+        assertResolves("http://a/b/c/g#s/./x", "g#s/./x");
+        assertResolves("http://a/b/c/g#s/../x", "g#s/../x");
+        assertResolves("http:g", "http:g");
+    }
+
+    @Test
+    public void resolvesWithoutABase() {
+        assertEquals("g", JsonLdUrl.resolve(null, "g"));
+        assertEquals(BASE, JsonLdUrl.resolve(BASE, ""));
+        assertEquals("http://a", JsonLdUrl.resolve("http://a", ""));
+        assertEquals("http://a/g", JsonLdUrl.resolve("http://a", "g"));
+        assertEquals("tag:non-dereferencable-iri", JsonLdUrl.resolve(BASE,
+                "tag:non-dereferencable-iri"));
+    }
+
+    @Test
+    public void removesBase() {
+        final String base = "http://example.com/a/b/c?q#f";
+        assertEquals("c", JsonLdUrl.removeBase(base, "http://example.com/a/b/c"));
+        assertEquals("d", JsonLdUrl.removeBase(base, "http://example.com/a/b/d"));
+        assertEquals("../d", JsonLdUrl.removeBase(base, "http://example.com/a/d"));
+        assertEquals("../../", JsonLdUrl.removeBase(base, "http://example.com/"));
+        assertEquals("d/e", JsonLdUrl.removeBase(base, "http://example.com/a/b/d/e"));
+        assertEquals("?q#g", JsonLdUrl.removeBase(base, "http://example.com/a/b/c?q#g"));
+        assertEquals("c#g", JsonLdUrl.removeBase(base, "http://example.com/a/b/c#g"));
+        assertEquals("#g", JsonLdUrl.removeBase("http://example.com/a/b/c",
+                "http://example.com/a/b/c#g"));
+        assertEquals("./", JsonLdUrl.removeBase(base, "http://example.com/a/b/"));
+        assertEquals("?r", JsonLdUrl.removeBase(base, "http://example.com/a/b/c?r"));
+        assertEquals("http://example.org/a/b/c", JsonLdUrl.removeBase(base,
+                "http://example.org/a/b/c"));
+    }
+
+    @Test
+    public void removesBaseOnlyFromTheSameAuthority() {
+        final String base = "http://example.com/a/";
+        assertEquals("http://example.com:8080/a/b", JsonLdUrl.removeBase(base,
+                "http://example.com:8080/a/b"));
+        assertEquals("http://example.company/a/b", JsonLdUrl.removeBase(base,
+                "http://example.company/a/b"));
+        assertEquals("b", JsonLdUrl.removeBase(JsonLdUrl.parse(base),
+                "http://example.com/a/b"));
+        assertEquals("http://example.com:8080/a/b", JsonLdUrl.removeBase(
+                JsonLdUrl.parse(base), "http://example.com:8080/a/b"));
+    }
+
+    @Test
+    public void removesBaseThatResolvesBack() {
+        final String base = "http://example.com/a/b/c;p?q";
+        final String[] iris = { "http://example.com/a/b/c;p?q", "http://example.com/a/b/c;p",
+                "http://example.com/a/b/", "http://example.com/a/x/y/z",
+                "http://example.com/a/b/c;p?q#s", "http://example.com/a/b/g?y",
+                "http://example.com/", "http://example.com/a/b/c/d" };
+        for (final String iri : iris) {
+            assertEquals(iri, JsonLdUrl.resolve(base, JsonLdUrl.removeBase(base, iri)));
+        }
+    }
+}